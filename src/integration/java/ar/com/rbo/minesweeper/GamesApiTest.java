@@ -51,7 +51,7 @@ public class GamesApiTest {
 		IntStream.range(0, ROW_COUNT)
 			.forEach(row -> IntStream.range(0, COL_COUNT)
 					.forEach(col -> {
-						assertEquals(Cell.State.UNKNOWN, gamePayload.getBoard()[row][col].getState());
+						assertEquals(Cell.State.UNKNOWN, gamePayload.getBoard().getState(row, col));
 					}));		
 	}
 	
@@ -74,7 +74,7 @@ public class GamesApiTest {
 		IntStream.range(0, ROW_COUNT)
 			.forEach(row -> IntStream.range(0, COL_COUNT)
 					.forEach(col -> {
-						assertEquals(gamePayload.getBoard()[row][col].getState(), foundGamePayload.getBoard()[row][col].getState());
+						assertEquals(gamePayload.getBoard().getState(row, col), foundGamePayload.getBoard().getState(row, col));
 					}));
 	}
 	
@@ -117,7 +117,7 @@ public class GamesApiTest {
 		GamePayload updatedGame = response.getBody();
 		
 		assertEquals(Game.GameState.LOST, updatedGame.getState());
-		assertEquals(Cell.State.MINED, updatedGame.getBoard()[ROW][COL].getState());
+		assertEquals(Cell.State.MINED, updatedGame.getBoard().getState(ROW, COL));
 	}
 	
 	@Test
@@ -131,7 +131,7 @@ public class GamesApiTest {
 		GamePayload updatedGame = response.getBody();
 		
 		assertEquals(Game.GameState.WON, updatedGame.getState());
-		assertEquals(Cell.State.EMPTY, updatedGame.getBoard()[ROW][COL].getState());
+		assertEquals(Cell.State.EMPTY, updatedGame.getBoard().getState(ROW, COL));
 	}
 	
 	@Test
@@ -145,7 +145,7 @@ public class GamesApiTest {
 		GamePayload updatedGame = response.getBody();
 		
 		assertEquals(Game.GameState.IN_PROGRESS, updatedGame.getState());
-		assertEquals(Cell.State.FLAGGED, updatedGame.getBoard()[ROW][COL].getState());
+		assertEquals(Cell.State.FLAGGED, updatedGame.getBoard().getState(ROW, COL));
 	}
 	
 	@Test
@@ -159,7 +159,7 @@ public class GamesApiTest {
 		GamePayload updatedGame = response.getBody();
 		
 		assertEquals(Game.GameState.IN_PROGRESS, updatedGame.getState());
-		assertEquals(Cell.State.MARKED, updatedGame.getBoard()[ROW][COL].getState());
+		assertEquals(Cell.State.MARKED, updatedGame.getBoard().getState(ROW, COL));
 	}
 	
 	@Test
@@ -173,7 +173,7 @@ public class GamesApiTest {
 		GamePayload updatedGame = response.getBody();
 		
 		assertEquals(Game.GameState.IN_PROGRESS, updatedGame.getState());
-		assertEquals(Cell.State.FLAGGED, updatedGame.getBoard()[ROW][COL].getState());
+		assertEquals(Cell.State.FLAGGED, updatedGame.getBoard().getState(ROW, COL));
 		
 		response = restTemplate.postForEntity(getBaseURL() + "/games/" + gamePayload.getId() + "/moves", new MovePayload.ClearPayload(ROW, COL), GamePayload.class);
 		
@@ -182,7 +182,7 @@ public class GamesApiTest {
 		updatedGame = response.getBody();
 		
 		assertEquals(Game.GameState.IN_PROGRESS, updatedGame.getState());
-		assertEquals(Cell.State.UNKNOWN, updatedGame.getBoard()[ROW][COL].getState());
+		assertEquals(Cell.State.UNKNOWN, updatedGame.getBoard().getState(ROW, COL));
 	}
 	
 	/**
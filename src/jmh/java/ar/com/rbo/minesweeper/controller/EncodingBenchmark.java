@@ -0,0 +1,63 @@
+package ar.com.rbo.minesweeper.controller;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ar.com.rbo.minesweeper.domain.Game;
+
+/**
+ * Compares mapping and serializing a {@link Game} with the default board of cells against the packed board
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class EncodingBenchmark {
+	
+	@Param({"100", "1000"})
+	private int size;
+	
+	private Game game;
+	
+	private GameMapper mapper = new GameMapper();
+	
+	private ObjectMapper objectMapper = new ObjectMapper();
+	
+	@Setup
+	public void setUp() throws IllegalAccessException {
+		game = new Game(size, size, size * size / 10);
+		
+		// flag some cells so that the board is not uniform
+		for (int row = 0; row < size && game.getState() == Game.GameState.IN_PROGRESS; row += 7) {
+			for (int col = 0; col < size && game.getState() == Game.GameState.IN_PROGRESS; col += 7) {
+				game.flag(row, col);
+			}
+		}
+	}
+	
+	@Benchmark
+	public byte[] cellsBoard() throws Exception {
+		return objectMapper.writeValueAsBytes(mapper.toPayload(game));
+	}
+	
+	@Benchmark
+	public byte[] packedBoard() throws Exception {
+		return objectMapper.writeValueAsBytes(mapper.toPackedPayload(game));
+	}
+	
+	@Benchmark
+	public byte[] rawPackedBoard() {
+		return mapper.toPackedBoard(game);
+	}
+}
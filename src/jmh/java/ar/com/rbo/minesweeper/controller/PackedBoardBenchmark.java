@@ -0,0 +1,104 @@
+package ar.com.rbo.minesweeper.controller;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ar.com.rbo.minesweeper.domain.Game;
+
+/**
+ * Measures requesting the packed board of a {@link Game} right after a small move, packing only the chunks that
+ * changed against packing the whole board again
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PackedBoardBenchmark {
+	
+	@Param({"100", "1000", "5000"})
+	private int size;
+	
+	private Game game;
+	
+	private GameMapper mapper = new GameMapper();
+	
+	private boolean flagged;
+	
+	@Setup
+	public void setUp() {
+		game = new Game(size, size, size * size / 10);
+		
+		// the first request packs the whole board
+		mapper.toPackedBoard(game);
+	}
+	
+	@Benchmark
+	public byte[] chunkedPacking() throws IllegalAccessException {
+		toggleFlag();
+		return mapper.toPackedBoard(game);
+	}
+	
+	@Benchmark
+	public byte[] fullPacking() throws IllegalAccessException {
+		toggleFlag();
+		return packWholeBoard(game);
+	}
+	
+	/**
+	 * Small move that changes a single cell
+	 */
+	private void toggleFlag() throws IllegalAccessException {
+		if (flagged) {
+			game.clear(size / 2, size / 2);
+		} else {
+			game.flag(size / 2, size / 2);
+		}
+		
+		flagged = !flagged;
+	}
+	
+	/**
+	 * Packs every cell of the board, as the mapper did before boards were chunked
+	 */
+	private static byte[] packWholeBoard(Game game) {
+		byte[] packedBoard = new byte[(int) (((long) game.getRowCount() * game.getColCount() + 1) / 2)];
+		int cellIndex = 0;
+		
+		for (int row = 0; row < game.getRowCount(); row++) {
+			for (int col = 0; col < game.getColCount(); col++) {
+				int code;
+				
+				switch (game.getCellState(row, col)) {
+				case EMPTY:
+					code = game.getRevealedAdjacentMines(row, col);
+					break;
+				case FLAGGED:
+					code = GameMapper.FLAGGED_CODE;
+					break;
+				case MARKED:
+					code = GameMapper.MARKED_CODE;
+					break;
+				case MINED:
+					code = GameMapper.MINED_CODE;
+					break;
+				default:
+					code = GameMapper.UNKNOWN_CODE;
+				}
+				
+				packedBoard[cellIndex >> 1] |= (cellIndex & 1) == 0 ? code << 4 : code;
+				cellIndex++;
+			}
+		}
+		
+		return packedBoard;
+	}
+}
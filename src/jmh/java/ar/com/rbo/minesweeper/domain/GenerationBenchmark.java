@@ -0,0 +1,49 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the creation of a {@link Game} (mine placement and adjacent mine counting) from a 9x9 board up to a
+ * 10,000x10,000 one, with low, medium and high mine densities. Boards are also generated with adjacent mines counted
+ * sequentially and in parallel
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class GenerationBenchmark {
+	
+	@Param({"9", "100", "1000", "10000"})
+	private int size;
+	
+	@Param({"0.01", "0.15", "0.85"})
+	private double density;
+	
+	private BoardGenerator sequentialGenerator = new BoardGenerator(Long.MAX_VALUE);
+	
+	private BoardGenerator parallelGenerator = new BoardGenerator(0);
+	
+	@Benchmark
+	public Game createGame() {
+		return new Game(size, size, (int) (size * size * density));
+	}
+	
+	@Benchmark
+	public Board generateSequentially() {
+		return sequentialGenerator.generate(size, size, (int) (size * size * density), 42);
+	}
+	
+	@Benchmark
+	public Board generateInParallel() {
+		return parallelGenerator.generate(size, size, (int) (size * size * density), 42);
+	}
+}
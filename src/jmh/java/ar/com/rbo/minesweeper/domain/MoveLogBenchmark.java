@@ -0,0 +1,81 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Throughput of moves made while they are recorded in a {@link MoveLog}, each thread playing its own game. Every move
+ * waits for its record to be on disk, so without group commit the throughput would be bounded by the fsyncs per second
+ * of the disk, while with it it grows with the amount of threads (run it with "-t" to change them)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(16)
+public class MoveLogBenchmark {
+	
+	/**
+	 * Service (and log) shared by every thread
+	 */
+	@State(Scope.Benchmark)
+	public static class LoggedService {
+		
+		private Path path;
+		
+		private MoveLog log;
+		
+		private GameService service;
+		
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			path = Files.createTempFile("moves", ".log");
+			log = new MoveLog(path);
+			service = new GameService();
+			service.setMoveLog(log);
+		}
+		
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			log.close();
+			Files.delete(path);
+		}
+	}
+	
+	/**
+	 * Game played by a thread, whose first cell is flagged and cleared over and over
+	 */
+	@State(Scope.Thread)
+	public static class PlayedGame {
+		
+		private UUID gameId;
+		
+		private boolean flagged;
+		
+		@Setup(Level.Trial)
+		public void setUp(LoggedService loggedService) {
+			gameId = loggedService.service.createGame(16, 30, 99).getId();
+		}
+	}
+	
+	@Benchmark
+	public Game makeMove(LoggedService loggedService, PlayedGame game) throws IllegalAccessException {
+		game.flagged = !game.flagged;
+		
+		return loggedService.service.updateGame(game.gameId, game.flagged ? new Move.Flag(0, 0) : new Move.Clear(0, 0));
+	}
+}
@@ -0,0 +1,115 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Load test of boards kept on and off the heap (see {@link DirectBoard}): a growing amount of live expert boards
+ * (16x30 with 99 mines) is kept while games keep ending (their boards are released) and starting. Along with the time
+ * per game, the old generation in use and the time spent in garbage collection are printed after each iteration, and
+ * running it with "-prof gc" adds the allocation rate and collection counts. Off the heap both should stay flat as
+ * live games grow, while on the heap they grow with them
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-XX:MaxDirectMemorySize=1g"})
+public class OffHeapBoardBenchmark {
+	
+	@Param({"10000", "100000", "300000"})
+	private int liveGames;
+	
+	@Param({"false", "true"})
+	private boolean offHeap;
+	
+	private BoardGenerator generator;
+	
+	private Board[] boards;
+	
+	private int nextBoard;
+	
+	private long seed;
+	
+	private long gcTime;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		generator = new BoardGenerator(BoardGenerator.DEFAULT_PARALLEL_THRESHOLD, offHeap);
+		boards = new Board[liveGames];
+		
+		for (int boardIndex = 0; boardIndex < liveGames; boardIndex++) {
+			boards[boardIndex] = generator.generate(16, 30, 99, seed++);
+		}
+	}
+	
+	@Setup(Level.Iteration)
+	public void startIteration() {
+		gcTime = totalGcTime();
+	}
+	
+	@TearDown(Level.Iteration)
+	public void reportMemory() {
+		System.out.printf("%nold generation: %d MB, gc time: %d ms%n", oldGenerationUsed() >> 20, totalGcTime() - gcTime);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		for (Board board : boards) {
+			board.release();
+		}
+	}
+	
+	/**
+	 * The oldest live game ends and a new one starts
+	 */
+	@Benchmark
+	public Board replaceGame() {
+		boards[nextBoard].release();
+		boards[nextBoard] = generator.generate(16, 30, 99, seed++);
+		
+		Board board = boards[nextBoard];
+		nextBoard = (nextBoard + 1) % liveGames;
+		
+		return board;
+	}
+	
+	/**
+	 * Returns the accumulated time spent in garbage collection, in milliseconds
+	 */
+	private static long totalGcTime() {
+		long time = 0;
+		
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += Math.max(0, collector.getCollectionTime());
+		}
+		
+		return time;
+	}
+	
+	/**
+	 * Returns the bytes in use of the old generation (the tenured pool whatever the collector is)
+	 */
+	private static long oldGenerationUsed() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getName().contains("Old Gen") || pool.getName().contains("Tenured")) {
+				return pool.getUsage().getUsed();
+			}
+		}
+		
+		return -1;
+	}
+}
@@ -0,0 +1,94 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time taken to recover every game of a {@link MoveLog} from its snapshot and the moves made since, with an expert game
+ * per player. Boards are kept off the heap so that a million of them fit while the snapshot is written
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g", "-XX:MaxDirectMemorySize=2g", "-Dminesweeper.board.offHeap=true"})
+@State(Scope.Benchmark)
+public class RecoveryBenchmark {
+	
+	@Param({"100000", "1000000"})
+	private int gameCount;
+	
+	private Path directory;
+	
+	private Path path;
+	
+	/**
+	 * Plays every game a little and writes a snapshot of them, then keeps playing some of them, so that recovering
+	 * reads the snapshot and replays the moves made after it
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, IllegalAccessException {
+		directory = Files.createTempDirectory("recovery");
+		path = directory.resolve("games.log");
+		
+		// the snapshot is written directly, as logging every game created would wait for the disk a million times
+		List<Game> games = new ArrayList<>(gameCount);
+		
+		for (int gameIndex = 0; gameIndex < gameCount; gameIndex++) {
+			Game game = new Game(16, 30, 99, false, gameIndex);
+			game.flag(gameIndex % 16, gameIndex % 30);
+			games.add(game);
+		}
+		
+		Snapshot.write(directory.resolve("games.log.snapshot"), games, game -> new ReentrantLock(), game -> {});
+		games.forEach(Game::release);
+		
+		try (MoveLog log = new MoveLog(path)) {
+			GameService service = new GameService();
+			service.setMoveLog(log);
+			
+			for (int gameIndex = 0; gameIndex < gameCount; gameIndex += 100) {
+				service.updateGame(games.get(gameIndex).getId(), new Move.Mark(15 - gameIndex % 16, 29 - gameIndex % 30));
+			}
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		for (String suffix : new String[] {"", ".snapshot", ".previous"}) {
+			Files.deleteIfExists(directory.resolve("games.log" + suffix));
+		}
+		
+		Files.delete(directory);
+	}
+	
+	@Benchmark
+	public GameService recover() throws IOException {
+		GameService service = new GameService();
+		
+		try (MoveLog log = new MoveLog(path)) {
+			service.setMoveLog(log);
+		}
+		
+		return service;
+	}
+}
@@ -0,0 +1,97 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the cost of a full board reveal cascade made by {@link Game#reveal(int, int)} against the recursive
+ * implementation it replaced. Boards have no mines, so a single reveal opens every cell
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xss1g") // the recursive version needs a huge stack to survive the bigger boards
+public class RevealBenchmark {
+	
+	@Param({"100", "500", "1000"})
+	private int size;
+	
+	private Game game;
+	
+	private RecursiveReveal recursiveReveal;
+	
+	@Setup(Level.Invocation)
+	public void setUp() {
+		game = new Game(size, size, 0);
+		recursiveReveal = new RecursiveReveal(size, size);
+	}
+	
+	@Benchmark
+	public Game iterativeReveal() throws IllegalAccessException {
+		game.reveal(size / 2, size / 2);
+		return game;
+	}
+	
+	@Benchmark
+	public RecursiveReveal recursiveReveal() {
+		recursiveReveal.reveal(size / 2, size / 2);
+		return recursiveReveal;
+	}
+	
+	/**
+	 * Copy of the recursive cascade that used to live in {@link Game}, kept as the benchmark's baseline
+	 */
+	static class RecursiveReveal {
+		
+		private final int rowCount;
+		private final int colCount;
+		
+		private final Cell[][] board;
+		private final boolean[][] mines;
+		
+		private int emptyCellsRevealed;
+		
+		RecursiveReveal(int rowCount, int colCount) {
+			this.rowCount = rowCount;
+			this.colCount = colCount;
+			this.board = new Cell[rowCount][colCount];
+			this.mines = new boolean[rowCount][colCount];
+			
+			for (int row = 0; row < rowCount; row++) {
+				for (int col = 0; col < colCount; col++) {
+					board[row][col] = new Cell(Cell.State.UNKNOWN, 0);
+				}
+			}
+		}
+		
+		void reveal(int row, int col) {
+			if (shouldBeRevealed(row, col)) {
+				board[row][col] = board[row][col].changeState(Cell.State.EMPTY);
+				emptyCellsRevealed++;
+				
+				reveal(row + 1, col);
+				reveal(row - 1, col);
+				reveal(row, col + 1);
+				reveal(row, col - 1);
+			}
+		}
+		
+		private boolean shouldBeRevealed(int row, int col) {
+			return 
+					row >= 0 && row < rowCount &&
+					col >= 0 && col < colCount &&
+					Cell.State.UNKNOWN == board[row][col].getState() &&
+					!mines[row][col];
+		}
+	}
+}
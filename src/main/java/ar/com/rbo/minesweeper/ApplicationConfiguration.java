@@ -1,9 +1,18 @@
 package ar.com.rbo.minesweeper;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import ar.com.rbo.minesweeper.controller.GameMapper;
+import ar.com.rbo.minesweeper.domain.BoardPool;
+import ar.com.rbo.minesweeper.domain.ColdStorage;
+import ar.com.rbo.minesweeper.domain.MoveLog;
 
 @Configuration
 public class ApplicationConfiguration {
@@ -12,4 +21,30 @@ public class ApplicationConfiguration {
     public GameMapper gameMapper() {
         return new GameMapper();
     }
-}
\ No newline at end of file
+    
+    @Bean
+    public BoardPool boardPool(
+    		@Value("${minesweeper.pool.presets:}") String[] presets,
+    		@Value("${minesweeper.pool.size:0}") int size,
+    		@Value("${minesweeper.pool.threads:1}") int threadCount) {
+    	
+        return new BoardPool(Arrays.stream(presets).map(BoardPool.Preset::parse).collect(Collectors.toList()), size, threadCount);
+    }
+    
+    @Bean
+    public MoveLog moveLog(
+    		@Value("${minesweeper.log.path:}") String path,
+    		@Value("${minesweeper.log.snapshotInterval:0}") long snapshotInterval) throws IOException {
+    	
+        return path.isEmpty() ? MoveLog.DISABLED : new MoveLog(Paths.get(path), snapshotInterval);
+    }
+    
+    @Bean
+    public ColdStorage coldStorage(
+    		@Value("${minesweeper.storage.directory:}") String directory,
+    		@Value("${minesweeper.storage.capacity:0}") int capacity,
+    		@Value("${minesweeper.storage.idleTime:0}") long idleTime) throws IOException {
+    	
+        return directory.isEmpty() ? ColdStorage.DISABLED : new ColdStorage(Paths.get(directory), capacity, idleTime);
+    }
+}
@@ -0,0 +1,30 @@
+package ar.com.rbo.minesweeper.controller;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import ar.com.rbo.minesweeper.domain.BoardView;
+import ar.com.rbo.minesweeper.domain.Cell;
+
+/**
+ * Reads a {@link BoardView} written by {@link BoardViewSerializer} (needed by clients of the API)
+ */
+public class BoardViewDeserializer extends StdDeserializer<BoardView> {
+	
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Needed by Jackson
+	 */
+	public BoardViewDeserializer() {
+		super(BoardView.class);
+	}
+
+	@Override
+	public BoardView deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+		return BoardView.of(parser.readValueAs(Cell[][].class));
+	}
+}
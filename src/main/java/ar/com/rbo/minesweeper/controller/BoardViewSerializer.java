@@ -0,0 +1,61 @@
+package ar.com.rbo.minesweeper.controller;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import ar.com.rbo.minesweeper.domain.BoardView;
+import ar.com.rbo.minesweeper.domain.Cell;
+
+/**
+ * Writes a {@link BoardView} straight to the response as a bidimensional array of cells, without creating any object
+ * per cell
+ */
+public class BoardViewSerializer extends StdSerializer<BoardView> {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private static final SerializableString STATE = new SerializedString("state");
+	private static final SerializableString ADJACENT_MINES = new SerializedString("adjacentMines");
+	
+	private static final SerializableString[] STATES = new SerializableString[Cell.State.values().length];
+	
+	static {
+		for (Cell.State state : Cell.State.values()) {
+			STATES[state.ordinal()] = new SerializedString(state.name());
+		}
+	}
+	
+	/**
+	 * Needed by Jackson
+	 */
+	public BoardViewSerializer() {
+		super(BoardView.class);
+	}
+
+	@Override
+	public void serialize(BoardView board, JsonGenerator generator, SerializerProvider provider) throws IOException {
+		generator.writeStartArray();
+		
+		for (int row = 0; row < board.getRowCount(); row++) {
+			generator.writeStartArray();
+			
+			for (int col = 0; col < board.getColCount(); col++) {
+				generator.writeStartObject();
+				generator.writeFieldName(STATE);
+				generator.writeString(STATES[board.getState(row, col).ordinal()]);
+				generator.writeFieldName(ADJACENT_MINES);
+				generator.writeNumber(board.getAdjacentMines(row, col));
+				generator.writeEndObject();
+			}
+			
+			generator.writeEndArray();
+		}
+		
+		generator.writeEndArray();
+	}
+}
@@ -1,10 +1,58 @@
 package ar.com.rbo.minesweeper.controller;
 
+import ar.com.rbo.minesweeper.domain.Cell;
+
 /**
- * Payload that represents the 
- * @author rbarrera
- *
+ * Payload that represents the state of a single cell of the board, along with its coordinates
  */
 public class CellPayload {
-
+	
+	private int row;
+	private int col;
+	
+	private Cell.State state;
+	private int adjacentMines;
+	
+	/**
+	 * Needed by Jackson
+	 */
+	public CellPayload() {}
+	
+	/**
+	 * Initializes the payload
+	 */
+	public CellPayload(int row, int col, Cell.State state, int adjacentMines) {
+		this.row = row;
+		this.col = col;
+		this.state = state;
+		this.adjacentMines = adjacentMines;
+	}
+	
+	/**
+	 * Returns the cell's row
+	 */
+	public int getRow() {
+		return row;
+	}
+	
+	/**
+	 * Returns the cell's column
+	 */
+	public int getCol() {
+		return col;
+	}
+	
+	/**
+	 * Returns the cell's state
+	 */
+	public Cell.State getState() {
+		return state;
+	}
+	
+	/**
+	 * Returns the amount of mines adjacent to the cell (-1 unless the cell was revealed)
+	 */
+	public int getAdjacentMines() {
+		return adjacentMines;
+	}
 }
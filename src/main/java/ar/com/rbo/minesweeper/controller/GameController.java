@@ -1,15 +1,21 @@
 package ar.com.rbo.minesweeper.controller;
 
+import java.util.Date;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
@@ -17,7 +23,10 @@ import org.springframework.web.bind.annotation.RestController;
 import com.google.common.collect.ImmutableList;
 
 import ar.com.rbo.minesweeper.domain.Game;
+import ar.com.rbo.minesweeper.domain.Game.GameState;
+import ar.com.rbo.minesweeper.domain.GameCursor;
 import ar.com.rbo.minesweeper.domain.GameService;
+import ar.com.rbo.minesweeper.domain.IllegalBatchMoveException;
 
 /**
  * Controller for all {@link Game} related endpoints
@@ -25,6 +34,16 @@ import ar.com.rbo.minesweeper.domain.GameService;
 @RestController
 public class GameController {
 	
+	/**
+	 * Maximum amount of games that can be requested in a single page
+	 */
+	private static final int MAX_PAGE_SIZE = 1000;
+	
+	/**
+	 * Maximum amount of cells of a region that can be requested
+	 */
+	private static final int MAX_REGION_SIZE = 1_000_000;
+	
 	@Autowired
 	private GameMapper mapper;
 	
@@ -49,32 +68,159 @@ public class GameController {
 		this.service = service;
 	}
 	
+	/**
+	 * Finds a page of games ordered by creation date, optionally filtered by state and creation date range. Only a
+	 * summary of each game (without its board) is returned if requested
+	 */
 	@GetMapping("/games")
-	public @ResponseBody GamesPayload findGames() {
-		return new GamesPayload(service.findGames().stream()
-				.map(mapper::toPayload)
-				.collect(ImmutableList.toImmutableList()));
+	public @ResponseBody GamesPayload findGames(
+			@RequestParam(value="state", required=false) GameState state,
+			@RequestParam(value="from", required=false) @DateTimeFormat(iso=ISO.DATE_TIME) Date from,
+			@RequestParam(value="to", required=false) @DateTimeFormat(iso=ISO.DATE_TIME) Date to,
+			@RequestParam(value="cursor", required=false) String cursor,
+			@RequestParam(value="limit", defaultValue="100") int limit,
+			@RequestParam(value="summary", defaultValue="false") boolean summary) {
+		
+		if (limit < 1 || limit > MAX_PAGE_SIZE) {
+			throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+		}
+		
+		List<GamePayload> games = service.findGames(state, from, to, cursor == null ? null : GameCursor.parse(cursor), limit,
+				summary ? mapper::toSummaryPayload : mapper::toPayload);
+		
+		GamePayload lastGame = games.size() == limit ? games.get(limit - 1) : null;
+		
+		return new GamesPayload(
+				ImmutableList.copyOf(games),
+				lastGame != null ? new GameCursor(lastGame.getCreationDate().getTime(), lastGame.getId()).toString() : null);
 	}
 	
 	@GetMapping("/games/{gameId}")
 	public @ResponseBody GamePayload findGame(@PathVariable(value="gameId") UUID gameId) {
-		return mapper.toPayload(service.findGame(gameId).orElseThrow(() -> new NoSuchElementException("Could not find game with id " + gameId)));
+		return service.findGame(gameId, mapper::toPayload).orElseThrow(() -> new NoSuchElementException("Could not find game with id " + gameId));
+	}
+
+	/**
+	 * Finds a game and responds with its board packed (opted in by the "encoding=packed" request parameter)
+	 */
+	@GetMapping(value = "/games/{gameId}", params = "encoding=packed")
+	public @ResponseBody GamePayload findPackedGame(@PathVariable(value="gameId") UUID gameId) {
+		return service.findGame(gameId, mapper::toPackedPayload).orElseThrow(() -> new NoSuchElementException("Could not find game with id " + gameId));
+	}
+	
+	/**
+	 * Finds a game and responds with a rectangular region of its board (clipped to the limits of the board)
+	 */
+	@GetMapping("/games/{gameId}/region")
+	public @ResponseBody RegionPayload findGameRegion(
+			@PathVariable(value="gameId") UUID gameId,
+			@RequestParam(value="row") int row,
+			@RequestParam(value="col") int col,
+			@RequestParam(value="rowCount") int rowCount,
+			@RequestParam(value="colCount") int colCount) {
+		
+		if ((long) rowCount * colCount > MAX_REGION_SIZE) {
+			throw new IllegalArgumentException("Region can't have more than " + MAX_REGION_SIZE + " cells");
+		}
+		
+		return service.findGame(gameId, game -> mapper.toRegionPayload(game, row, col, rowCount, colCount)).orElseThrow(() -> new NoSuchElementException("Could not find game with id " + gameId));
+	}
+	
+	/**
+	 * Responds with the packed board of a game as raw bytes
+	 */
+	@GetMapping(value = "/games/{gameId}/board", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+	public @ResponseBody byte[] findGameBoard(@PathVariable(value="gameId") UUID gameId) {
+		return service.findGame(gameId, mapper::toPackedBoard).orElseThrow(() -> new NoSuchElementException("Could not find game with id " + gameId));
 	}
 
 	@PostMapping("/games/{gameId}/moves")
 	public @ResponseBody GamePayload udpateGame(@PathVariable(value="gameId") UUID gameId, @RequestBody MovePayload payload) throws IllegalAccessException {
-		return mapper.toPayload(service.updateGame(gameId, mapper.toDomain(payload)));
+		return service.updateGame(gameId, mapper.toDomain(payload), mapper::toPayload);
+	}
+	
+	/**
+	 * Makes a move and responds with the board packed (opted in by the "encoding=packed" request parameter)
+	 */
+	@PostMapping(value = "/games/{gameId}/moves", params = {"encoding=packed", "delta!=true"})
+	public @ResponseBody GamePayload updatePackedGame(@PathVariable(value="gameId") UUID gameId, @RequestBody MovePayload payload) throws IllegalAccessException {
+		return service.updateGame(gameId, mapper.toDomain(payload), mapper::toPackedPayload);
+	}
+	
+	/**
+	 * Makes a move and responds only with the cells it changed (opted in by the "delta=true" request parameter)
+	 */
+	@PostMapping(value = "/games/{gameId}/moves", params = "delta=true")
+	public @ResponseBody GameDeltaPayload updateGameWithDelta(@PathVariable(value="gameId") UUID gameId, @RequestBody MovePayload payload) throws IllegalAccessException {
+		return service.updateGame(gameId, mapper.toDomain(payload), mapper::toDeltaPayload);
+	}
+
+	/**
+	 * Makes several moves in a row (no other move can be made in between) and responds with the resulting game
+	 */
+	@PostMapping("/games/{gameId}/moves/batch")
+	public @ResponseBody GamePayload updateGameInBatch(@PathVariable(value="gameId") UUID gameId, @RequestBody List<MovePayload> payloads) throws IllegalAccessException {
+		return service.updateGame(gameId, mapper.toDomain(payloads), mapper::toPayload);
+	}
+	
+	/**
+	 * Makes several moves in a row and responds only with the cells they changed (opted in by the "delta=true" request
+	 * parameter)
+	 */
+	@PostMapping(value = "/games/{gameId}/moves/batch", params = "delta=true")
+	public @ResponseBody GameDeltaPayload updateGameInBatchWithDelta(@PathVariable(value="gameId") UUID gameId, @RequestBody List<MovePayload> payloads) throws IllegalAccessException {
+		return service.updateGame(gameId, mapper.toDomain(payloads), mapper::toDeltaPayload);
 	}
 
 	@PostMapping("/games")
 	public @ResponseBody GamePayload createGame(@RequestBody GameCreationPayload payload) {
-		return mapper.toPayload(service.createGame(payload.getRowCount(), payload.getColCount(), payload.getMineCount()));
+		
+		// board size is checked before creating a game that couldn't be sent back
+		mapper.checkBoardSize(payload.getRowCount(), payload.getColCount());
+		
+		return service.createGame(payload.getRowCount(), payload.getColCount(), payload.getMineCount(), payload.isSparse(), payload.getSeed(), payload.isSafeFirstReveal(), mapper::toPayload);
+	}
+	
+	/**
+	 * Responds with the presets of the pool of boards generated in background, along with their hit and miss counts
+	 */
+	@GetMapping("/pool")
+	public @ResponseBody List<PoolPresetPayload> findPoolPresets() {
+		return mapper.toPoolPayload(service.getPoolPresets());
+	}
+	
+	/**
+	 * Responds with the amount of games in memory and evicted to the cold storage, along with their hit, miss and
+	 * eviction counts
+	 */
+	@GetMapping("/storage")
+	public @ResponseBody StoragePayload findStorageMetrics() {
+		return mapper.toStoragePayload(service.getStorageMetrics());
+	}
+	
+	/**
+	 * Creates a game and responds without its board (opted in by the "summary=true" request parameter), meant for
+	 * boards too big to be sent at once
+	 */
+	@PostMapping(value = "/games", params = "summary=true")
+	public @ResponseBody GamePayload createGameSummary(@RequestBody GameCreationPayload payload) {
+		return service.createGame(payload.getRowCount(), payload.getColCount(), payload.getMineCount(), payload.isSparse(), payload.getSeed(), payload.isSafeFirstReveal(), mapper::toSummaryPayload);
 	}
 	
 	@ResponseStatus(value=HttpStatus.BAD_REQUEST)
 	@ExceptionHandler(IllegalAccessException.class)
 	public void invalidPayload() {}
 	
+	@ResponseStatus(value=HttpStatus.BAD_REQUEST)
+	@ExceptionHandler(IllegalBatchMoveException.class)
+	public @ResponseBody MoveErrorPayload invalidBatchMove(IllegalBatchMoveException exception) {
+		return new MoveErrorPayload(exception.getIndex(), exception.getMessage());
+	}
+	
+	@ResponseStatus(value=HttpStatus.BAD_REQUEST)
+	@ExceptionHandler(IllegalArgumentException.class)
+	public void invalidParameter() {}
+	
 	@ResponseStatus(value=HttpStatus.NOT_FOUND)
 	@ExceptionHandler(NoSuchElementException.class)
 	public void entityNotFound() {}
@@ -8,6 +8,9 @@ public class GameCreationPayload {
 	private int rowCount;
 	private int colCount;
 	private int mineCount;
+	private boolean sparse;
+	private Long seed;
+	private boolean safeFirstReveal;
 	
 	/**
 	 * Needed by Jackson
@@ -22,6 +25,30 @@ public class GameCreationPayload {
 		this.colCount = colCount;
 		this.mineCount = mineCount;
 	}
+	
+	/**
+	 * Initializes the payload of a game with a sparse board
+	 */
+	public GameCreationPayload(int rowCount, int colCount, int mineCount, boolean sparse) {
+		this(rowCount, colCount, mineCount);
+		this.sparse = sparse;
+	}
+	
+	/**
+	 * Initializes the payload of a game whose mines are generated from the given seed
+	 */
+	public GameCreationPayload(int rowCount, int colCount, int mineCount, boolean sparse, Long seed) {
+		this(rowCount, colCount, mineCount, sparse);
+		this.seed = seed;
+	}
+	
+	/**
+	 * Initializes the payload of a game whose mines are placed on the first reveal, away from the revealed cell
+	 */
+	public GameCreationPayload(int rowCount, int colCount, int mineCount, boolean sparse, Long seed, boolean safeFirstReveal) {
+		this(rowCount, colCount, mineCount, sparse, seed);
+		this.safeFirstReveal = safeFirstReveal;
+	}
 
 	/**
 	 * Returns the row count the game should be created with
@@ -43,4 +70,26 @@ public class GameCreationPayload {
 	public int getMineCount() {
 		return mineCount;
 	}
+
+	/**
+	 * Returns whether or not the game should be created with a sparse board (meant for enormous, mostly empty games)
+	 */
+	public boolean isSparse() {
+		return sparse;
+	}
+
+	/**
+	 * Returns the seed the mines of the game should be generated from, or null if they should be random
+	 */
+	public Long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Returns whether or not mines should be placed on the first reveal, so that neither the revealed cell nor its
+	 * neighbours have mines
+	 */
+	public boolean isSafeFirstReveal() {
+		return safeFirstReveal;
+	}
 }
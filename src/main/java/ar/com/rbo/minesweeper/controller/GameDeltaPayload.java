@@ -0,0 +1,75 @@
+package ar.com.rbo.minesweeper.controller;
+
+import java.util.List;
+import java.util.UUID;
+
+import ar.com.rbo.minesweeper.domain.Game;
+import ar.com.rbo.minesweeper.domain.Game.GameState;
+
+/**
+ * Payload that represents the changes a move (or batch of moves) made to a {@link Game}: only the cells that changed
+ * are included
+ */
+public class GameDeltaPayload {
+	
+	private UUID id;
+	
+	private long baseVersion;
+	
+	private long version;
+	
+	private Game.GameState state;
+	
+	private List<CellPayload> cells;
+	
+	/**
+	 * Needed by Jackson
+	 */
+	public GameDeltaPayload() {}
+	
+	/**
+	 * Initializes the payload
+	 */
+	public GameDeltaPayload(UUID id, long baseVersion, long version, GameState state, List<CellPayload> cells) {
+		this.id = id;
+		this.baseVersion = baseVersion;
+		this.version = version;
+		this.state = state;
+		this.cells = cells;
+	}
+	
+	/**
+	 * Returns the game's unique id
+	 */
+	public UUID getId() {
+		return id;
+	}
+	
+	/**
+	 * Returns the version of the board the changes were made on
+	 */
+	public long getBaseVersion() {
+		return baseVersion;
+	}
+	
+	/**
+	 * Returns the version of the board after the move
+	 */
+	public long getVersion() {
+		return version;
+	}
+	
+	/**
+	 * Returns the game's state after the move
+	 */
+	public Game.GameState getState() {
+		return state;
+	}
+	
+	/**
+	 * Returns the cells changed by the move, null if there were too many of them to be listed
+	 */
+	public List<CellPayload> getCells() {
+		return cells;
+	}
+}
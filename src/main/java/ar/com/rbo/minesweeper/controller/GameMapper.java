@@ -1,23 +1,130 @@
 package ar.com.rbo.minesweeper.controller;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+import ar.com.rbo.minesweeper.controller.MovePayload.ChordPayload;
 import ar.com.rbo.minesweeper.controller.MovePayload.ClearPayload;
 import ar.com.rbo.minesweeper.controller.MovePayload.FlagPayload;
 import ar.com.rbo.minesweeper.controller.MovePayload.MarkPayload;
 import ar.com.rbo.minesweeper.controller.MovePayload.RevealPayload;
 import ar.com.rbo.minesweeper.controller.MovePayload.Visitor;
+import ar.com.rbo.minesweeper.domain.BoardPool;
+import ar.com.rbo.minesweeper.domain.BoardView;
 import ar.com.rbo.minesweeper.domain.Game;
+import ar.com.rbo.minesweeper.domain.GameService;
 import ar.com.rbo.minesweeper.domain.Move;
+import ar.com.rbo.minesweeper.domain.StorageMetrics;
 
 /**
  * Mapper for translation of {@link Game} objects to different payloads and back
  */
 public class GameMapper {
+	
+	/**
+	 * Codes of the cells in a packed board, where codes 0 to 8 stand for a revealed cell with that amount of adjacent mines
+	 */
+	static final int UNKNOWN_CODE = 9;
+	static final int FLAGGED_CODE = 10;
+	static final int MARKED_CODE = 11;
+	static final int MINED_CODE = 12;
+	
+	/**
+	 * Maximum amount of cells of a board that can be sent at once, bigger (sparse) boards can only be seen by regions
+	 */
+	static final long MAX_BOARD_CELLS = 100_000_000;
+	
+	/**
+	 * Packed boards of recently requested games, only the chunks that changed since the last request are packed again
+	 */
+	private final Cache<UUID, PackedBoard> packedBoards = CacheBuilder.newBuilder()
+			.maximumWeight(256 * 1024 * 1024)
+			.weigher((UUID id, PackedBoard packedBoard) -> packedBoard.bytes.length)
+			.expireAfterAccess(10, TimeUnit.MINUTES)
+			.build();
 
 	/**
-	 * Translates a {@link Game} to a {@link GamePayload}
-	 * @param create
+	 * Translates a {@link Game} to a {@link GamePayload} with a copy of its board, as the payload is written once the
+	 * game's lock is released. It has to be called while holding it (see {@link GameService#findGame(UUID, Function)})
 	 */
 	public GamePayload toPayload(Game game) {
+		checkBoardSize(game.getRowCount(), game.getColCount());
+		
+		return new GamePayload(
+				game.getId(),
+				game.getCreationDate(),
+				game.getRowCount(), 
+				game.getColCount(), 
+				game.getMineCount(), 
+				game.getState(), 
+				game.getVersion(),
+				BoardView.copyOf(game.getBoard()));	
+	}
+	
+	/**
+	 * Translates a {@link Game} to a {@link GamePayload} without its board
+	 */
+	public GamePayload toSummaryPayload(Game game) {
+		return new GamePayload(
+				game.getId(),
+				game.getCreationDate(),
+				game.getRowCount(), 
+				game.getColCount(), 
+				game.getMineCount(), 
+				game.getState(), 
+				game.getVersion(),
+				(BoardView) null);	
+	}
+	
+	/**
+	 * Translates the presets of a {@link BoardPool} to {@link PoolPresetPayload}s
+	 */
+	public List<PoolPresetPayload> toPoolPayload(List<BoardPool.Preset> presets) {
+		return presets.stream()
+				.map(preset -> new PoolPresetPayload(
+						preset.getRowCount(),
+						preset.getColCount(),
+						preset.getMineCount(),
+						preset.getReadyBoards(),
+						preset.getHits(),
+						preset.getMisses()))
+				.collect(ImmutableList.toImmutableList());
+	}
+	
+	/**
+	 * Translates the {@link StorageMetrics} of the games to a {@link StoragePayload}
+	 */
+	public StoragePayload toStoragePayload(StorageMetrics metrics) {
+		return new StoragePayload(
+				metrics.getResidentGames(),
+				metrics.getEvictedGames(),
+				metrics.getHits(),
+				metrics.getMisses(),
+				metrics.getEvictions());
+	}
+	
+	/**
+	 * Translates a rectangular region of a {@link Game}'s board to a {@link RegionPayload} with a copy of the region. It
+	 * has to be called while holding the game's lock (see {@link #toPayload(Game)})
+	 */
+	public RegionPayload toRegionPayload(Game game, int row, int col, int rowCount, int colCount) {
+		return new RegionPayload(game.getId(), game.getVersion(), game.getState(), row, col, BoardView.copyOf(game.getBoard(row, col, rowCount, colCount)));
+	}
+	
+	/**
+	 * Translates a {@link Game} to a {@link GamePayload} with a packed board encoded in base64. It has to be called
+	 * while holding the game's lock (see {@link #toPayload(Game)})
+	 */
+	public GamePayload toPackedPayload(Game game) {
 		return new GamePayload(
 				game.getId(),
 				game.getCreationDate(),
@@ -25,7 +132,84 @@ public class GameMapper {
 				game.getColCount(), 
 				game.getMineCount(), 
 				game.getState(), 
-				game.getBoard());	
+				game.getVersion(),
+				Base64.getEncoder().encodeToString(toPackedBoard(game)));	
+	}
+	
+	/**
+	 * Packs the board of a {@link Game} as seen by the player, using a nibble per cell (two cells per byte, the first
+	 * one in the high nibble) in row-major order. Each nibble holds either the amount of adjacent mines of a revealed
+	 * cell or one of {@link #UNKNOWN_CODE}, {@link #FLAGGED_CODE}, {@link #MARKED_CODE} and {@link #MINED_CODE}. It
+	 * has to be called while holding the game's lock (see {@link #toPayload(Game)})
+	 */
+	public byte[] toPackedBoard(Game game) {
+		checkBoardSize(game.getRowCount(), game.getColCount());
+		
+		PackedBoard packedBoard = packedBoards.asMap().computeIfAbsent(game.getId(), id -> new PackedBoard(game));
+		
+		synchronized (packedBoard) {
+			packedBoard.update(game);
+			return packedBoard.bytes.clone();
+		}
+	}
+	
+	/**
+	 * Checks that a board with the given dimensions can be sent at once
+	 * 
+	 * @throws IllegalArgumentException if the board is bigger than {@link #MAX_BOARD_CELLS}
+	 */
+	void checkBoardSize(int rowCount, int colCount) {
+		if ((long) rowCount * colCount > MAX_BOARD_CELLS) {
+			throw new IllegalArgumentException("Boards with more than " + MAX_BOARD_CELLS + " cells can only be requested by regions");
+		}
+	}
+	
+	/**
+	 * Returns the code of a cell within a packed board
+	 */
+	private int toCode(Game game, int row, int col) {
+		switch (game.getCellState(row, col)) {
+		case EMPTY:
+			return game.getRevealedAdjacentMines(row, col);
+		case FLAGGED:
+			return FLAGGED_CODE;
+		case MARKED:
+			return MARKED_CODE;
+		case MINED:
+			return MINED_CODE;
+		default:
+			return UNKNOWN_CODE;
+		}
+	}
+	
+	/**
+	 * Translates the changes made by the last move (or batch of moves) of a {@link Game} to a {@link GameDeltaPayload},
+	 * without cells if there were too many of them to be tracked
+	 */
+	public GameDeltaPayload toDeltaPayload(Game game) {
+		if (!game.areChangesTracked()) {
+			return new GameDeltaPayload(game.getId(), game.getChangesBaseVersion(), game.getVersion(), game.getState(), null);
+		}
+		
+		List<CellPayload> cells = new ArrayList<>(game.getChangeCount());
+		
+		for (int changeIndex = 0; changeIndex < game.getChangeCount(); changeIndex++) {
+			int row = game.getChangedRow(changeIndex);
+			int col = game.getChangedCol(changeIndex);
+			
+			cells.add(new CellPayload(row, col, game.getCellState(row, col), game.getRevealedAdjacentMines(row, col)));
+		}
+		
+		return new GameDeltaPayload(game.getId(), game.getChangesBaseVersion(), game.getVersion(), game.getState(), cells);
+	}
+	
+	/**
+	 * Translates a {@link List} of {@link MovePayload}s to a {@link List} of {@link Move}s
+	 */
+	public List<Move> toDomain(List<MovePayload> payloads) {
+		return payloads.stream()
+				.map(this::toDomain)
+				.collect(ImmutableList.toImmutableList());
 	}
 	
 	/**
@@ -53,6 +237,65 @@ public class GameMapper {
 			public Move visit(ClearPayload payload) {
 				return new Move.Clear(payload.getRow(), payload.getCol());
 			}
+
+			@Override
+			public Move visit(ChordPayload payload) {
+				return new Move.Chord(payload.getRow(), payload.getCol());
+			}
 		});
 	}
+	
+	/**
+	 * Packed board of a game along with the versions of the chunks it was packed from
+	 */
+	private class PackedBoard {
+		
+		private final byte[] bytes;
+		private final long[] chunkVersions;
+		private final int chunkColCount;
+		
+		private PackedBoard(Game game) {
+			this.bytes = new byte[(int) (((long) game.getRowCount() * game.getColCount() + 1) / 2)];
+			this.chunkColCount = (game.getColCount() + Game.CHUNK_SIZE - 1) / Game.CHUNK_SIZE;
+			this.chunkVersions = new long[(game.getRowCount() + Game.CHUNK_SIZE - 1) / Game.CHUNK_SIZE * chunkColCount];
+			
+			// no chunk has been packed yet
+			Arrays.fill(chunkVersions, -1);
+		}
+		
+		/**
+		 * Packs again the chunks whose version changed. Versions are read before the cells, so a chunk that changes
+		 * while being packed will be packed again on the next update
+		 */
+		private void update(Game game) {
+			for (int chunkIndex = 0; chunkIndex < chunkVersions.length; chunkIndex++) {
+				int firstRow = chunkIndex / chunkColCount * Game.CHUNK_SIZE;
+				int firstCol = chunkIndex % chunkColCount * Game.CHUNK_SIZE;
+				long version = game.getChunkVersion(firstRow, firstCol);
+				
+				if (version != chunkVersions[chunkIndex]) {
+					pack(game, firstRow, firstCol);
+					chunkVersions[chunkIndex] = version;
+				}
+			}
+		}
+		
+		/**
+		 * Packs the cells of the chunk whose top left cell is received
+		 */
+		private void pack(Game game, int firstRow, int firstCol) {
+			int lastRow = Math.min(game.getRowCount(), firstRow + Game.CHUNK_SIZE);
+			int lastCol = Math.min(game.getColCount(), firstCol + Game.CHUNK_SIZE);
+			
+			for (int row = firstRow; row < lastRow; row++) {
+				long cellIndex = (long) row * game.getColCount() + firstCol;
+				
+				for (int col = firstCol; col < lastCol; col++, cellIndex++) {
+					int byteIndex = (int) (cellIndex >> 1);
+					int code = toCode(game, row, col);
+					bytes[byteIndex] = (byte) ((cellIndex & 1) == 0 ? bytes[byteIndex] & 0x0F | code << 4 : bytes[byteIndex] & 0xF0 | code);
+				}
+			}
+		}
+	}
 }
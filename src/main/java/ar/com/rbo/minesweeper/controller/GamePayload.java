@@ -3,7 +3,12 @@ package ar.com.rbo.minesweeper.controller;
 import java.util.Date;
 import java.util.UUID;
 
-import ar.com.rbo.minesweeper.domain.Cell;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import ar.com.rbo.minesweeper.domain.BoardView;
 import ar.com.rbo.minesweeper.domain.Game;
 import ar.com.rbo.minesweeper.domain.Game.GameState;
 
@@ -22,7 +27,15 @@ public class GamePayload {
 
 	private Game.GameState state;
 	
-	private Cell[][] board;
+	private long version;
+	
+	@JsonInclude(Include.NON_NULL)
+	@JsonSerialize(using = BoardViewSerializer.class)
+	@JsonDeserialize(using = BoardViewDeserializer.class)
+	private BoardView board;
+	
+	@JsonInclude(Include.NON_NULL)
+	private String packedBoard;
 	
 	/**
 	 * Needed by Jackson
@@ -32,16 +45,25 @@ public class GamePayload {
 	/**
 	 * Initializes the game payload
 	 */
-	public GamePayload(UUID id, Date creationDate, int rowCount, int colCount, int mineCount, GameState state, Cell[][] board) {
+	public GamePayload(UUID id, Date creationDate, int rowCount, int colCount, int mineCount, GameState state, long version, BoardView board) {
 		this.id = id;
 		this.creationDate = creationDate;
 		this.rowCount = rowCount;
 		this.colCount = colCount;
 		this.mineCount = mineCount;
 		this.state = state;
+		this.version = version;
 		this.board = board;
 	}
 	
+	/**
+	 * Initializes the game payload with a packed board (see {@link GameMapper#toPackedBoard(Game)}) encoded in base64
+	 */
+	public GamePayload(UUID id, Date creationDate, int rowCount, int colCount, int mineCount, GameState state, long version, String packedBoard) {
+		this(id, creationDate, rowCount, colCount, mineCount, state, version, (BoardView) null);
+		this.packedBoard = packedBoard;
+	}
+	
 	/**
 	 * Returns the game's unique id
 	 */
@@ -86,9 +108,23 @@ public class GamePayload {
 	}
 
 	/**
-	 * Returns the current state of the board
+	 * Returns the version of the board
 	 */
-	public Cell[][] getBoard() {
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns the current state of the board (unless a packed board was requested)
+	 */
+	public BoardView getBoard() {
 		return board;
 	}
+	
+	/**
+	 * Returns the current state of the board packed and encoded in base64 (if requested)
+	 */
+	public String getPackedBoard() {
+		return packedBoard;
+	}
 }
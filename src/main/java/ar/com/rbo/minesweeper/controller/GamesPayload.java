@@ -9,6 +9,8 @@ public class GamesPayload {
 	
 	private List<GamePayload> games;
 	
+	private String nextCursor;
+	
 	/**
 	 * Required by Jackson
 	 */
@@ -18,7 +20,15 @@ public class GamesPayload {
 	 * Initializes the payload
 	 */
 	public GamesPayload(List<GamePayload> games) {
+		this(games, null);
+	}
+	
+	/**
+	 * Initializes the payload with the cursor of the next page
+	 */
+	public GamesPayload(List<GamePayload> games, String nextCursor) {
 		this.games = games;
+		this.nextCursor = nextCursor;
 	}
 	
 	/**
@@ -27,5 +37,12 @@ public class GamesPayload {
 	public List<GamePayload> getGames() {
 		return games;
 	}
+	
+	/**
+	 * Returns the cursor to request the next page with (null if there are no more games)
+	 */
+	public String getNextCursor() {
+		return nextCursor;
+	}
 
 }
@@ -0,0 +1,38 @@
+package ar.com.rbo.minesweeper.controller;
+
+/**
+ * Payload that describes why a batch of moves was rejected
+ */
+public class MoveErrorPayload {
+	
+	private int index;
+	
+	private String message;
+	
+	/**
+	 * Needed by Jackson
+	 */
+	public MoveErrorPayload() {}
+	
+	/**
+	 * Initializes the payload
+	 */
+	public MoveErrorPayload(int index, String message) {
+		this.index = index;
+		this.message = message;
+	}
+	
+	/**
+	 * Returns the index of the illegal move within the batch (moves before it were made)
+	 */
+	public int getIndex() {
+		return index;
+	}
+	
+	/**
+	 * Returns the reason why the move is illegal
+	 */
+	public String getMessage() {
+		return message;
+	}
+}
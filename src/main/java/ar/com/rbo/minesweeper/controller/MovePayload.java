@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.JsonTypeInfo.As;
 import com.fasterxml.jackson.annotation.JsonTypeInfo.Id;
 
+import ar.com.rbo.minesweeper.controller.MovePayload.ChordPayload;
 import ar.com.rbo.minesweeper.controller.MovePayload.ClearPayload;
 import ar.com.rbo.minesweeper.controller.MovePayload.FlagPayload;
 import ar.com.rbo.minesweeper.controller.MovePayload.MarkPayload;
@@ -18,7 +19,8 @@ import ar.com.rbo.minesweeper.controller.MovePayload.RevealPayload;
     @JsonSubTypes.Type(value = RevealPayload.class, name = "reveal"),
     @JsonSubTypes.Type(value = FlagPayload.class, name = "flag"),
     @JsonSubTypes.Type(value = MarkPayload.class, name = "mark"),
-    @JsonSubTypes.Type(value = ClearPayload.class, name = "clear")
+    @JsonSubTypes.Type(value = ClearPayload.class, name = "clear"),
+    @JsonSubTypes.Type(value = ChordPayload.class, name = "chord")
 })
 public abstract class MovePayload {
 	
@@ -46,6 +48,11 @@ public abstract class MovePayload {
 		 * Visit {@link ClearPayload}
 		 */
 		public T visit(ClearPayload payload);
+		
+		/**
+		 * Visit {@link ChordPayload}
+		 */
+		public T visit(ChordPayload payload);
 	}
 	
 	/**
@@ -140,6 +147,29 @@ public abstract class MovePayload {
 		}
 	}
 	
+	/**
+	 * Chord move payload implementation
+	 */
+	public static class ChordPayload extends MovePayload {
+		
+		/**
+		 * Required by Jackson
+		 */
+		public ChordPayload() { super(); }
+
+		/**
+		 * Initializes the payload
+		 */
+		public ChordPayload(int row, int col) {
+			super(row, col);
+		}
+		
+		@Override
+		public <T> T accept(Visitor<T> visitor) {
+			return visitor.visit(this);
+		}
+	}
+	
 	private int row;
 	private int col;
 	
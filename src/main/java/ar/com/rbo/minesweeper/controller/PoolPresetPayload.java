@@ -0,0 +1,77 @@
+package ar.com.rbo.minesweeper.controller;
+
+import ar.com.rbo.minesweeper.domain.BoardPool;
+
+/**
+ * Payload that describes a preset of the {@link BoardPool} along with its metrics
+ */
+public class PoolPresetPayload {
+	
+	private int rowCount;
+	private int colCount;
+	private int mineCount;
+	
+	private int readyBoards;
+	
+	private long hits;
+	private long misses;
+	
+	/**
+	 * Needed by Jackson
+	 */
+	public PoolPresetPayload() {}
+	
+	/**
+	 * Initializes the payload
+	 */
+	public PoolPresetPayload(int rowCount, int colCount, int mineCount, int readyBoards, long hits, long misses) {
+		this.rowCount = rowCount;
+		this.colCount = colCount;
+		this.mineCount = mineCount;
+		this.readyBoards = readyBoards;
+		this.hits = hits;
+		this.misses = misses;
+	}
+	
+	/**
+	 * Returns the amount of rows of the preset
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+	
+	/**
+	 * Returns the amount of columns of the preset
+	 */
+	public int getColCount() {
+		return colCount;
+	}
+	
+	/**
+	 * Returns the amount of mines of the preset
+	 */
+	public int getMineCount() {
+		return mineCount;
+	}
+	
+	/**
+	 * Returns the amount of boards ready to be taken
+	 */
+	public int getReadyBoards() {
+		return readyBoards;
+	}
+	
+	/**
+	 * Returns the amount of games created with a ready board
+	 */
+	public long getHits() {
+		return hits;
+	}
+	
+	/**
+	 * Returns the amount of games created while no board was ready
+	 */
+	public long getMisses() {
+		return misses;
+	}
+}
@@ -0,0 +1,106 @@
+package ar.com.rbo.minesweeper.controller;
+
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import ar.com.rbo.minesweeper.domain.BoardView;
+import ar.com.rbo.minesweeper.domain.Game;
+import ar.com.rbo.minesweeper.domain.Game.GameState;
+
+/**
+ * Payload that represents the current state of a rectangular region of a {@link Game}'s board
+ */
+public class RegionPayload {
+	
+	private UUID id;
+	
+	private long version;
+	
+	private Game.GameState state;
+	
+	private int row;
+	private int col;
+	private int rowCount;
+	private int colCount;
+	
+	@JsonSerialize(using = BoardViewSerializer.class)
+	@JsonDeserialize(using = BoardViewDeserializer.class)
+	private BoardView board;
+	
+	/**
+	 * Needed by Jackson
+	 */
+	public RegionPayload() {}
+	
+	/**
+	 * Initializes the payload
+	 */
+	public RegionPayload(UUID id, long version, GameState state, int row, int col, BoardView board) {
+		this.id = id;
+		this.version = version;
+		this.state = state;
+		this.row = row;
+		this.col = col;
+		this.rowCount = board.getRowCount();
+		this.colCount = board.getColCount();
+		this.board = board;
+	}
+	
+	/**
+	 * Returns the game's unique id
+	 */
+	public UUID getId() {
+		return id;
+	}
+	
+	/**
+	 * Returns the version of the board
+	 */
+	public long getVersion() {
+		return version;
+	}
+	
+	/**
+	 * Returns the game's current state
+	 */
+	public Game.GameState getState() {
+		return state;
+	}
+	
+	/**
+	 * Returns the row of the region's top left cell
+	 */
+	public int getRow() {
+		return row;
+	}
+	
+	/**
+	 * Returns the column of the region's top left cell
+	 */
+	public int getCol() {
+		return col;
+	}
+	
+	/**
+	 * Returns the amount of rows of the region
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+	
+	/**
+	 * Returns the amount of columns of the region
+	 */
+	public int getColCount() {
+		return colCount;
+	}
+	
+	/**
+	 * Returns the current state of the region (with coordinates relative to its top left cell)
+	 */
+	public BoardView getBoard() {
+		return board;
+	}
+}
@@ -0,0 +1,67 @@
+package ar.com.rbo.minesweeper.controller;
+
+import ar.com.rbo.minesweeper.domain.ColdStorage;
+
+/**
+ * Payload that describes where games are kept (in memory or evicted to the {@link ColdStorage}) along with its metrics
+ */
+public class StoragePayload {
+	
+	private int residentGames;
+	private int evictedGames;
+	
+	private long hits;
+	private long misses;
+	private long evictions;
+	
+	/**
+	 * Needed by Jackson
+	 */
+	public StoragePayload() {}
+	
+	/**
+	 * Initializes the payload
+	 */
+	public StoragePayload(int residentGames, int evictedGames, long hits, long misses, long evictions) {
+		this.residentGames = residentGames;
+		this.evictedGames = evictedGames;
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+	}
+	
+	/**
+	 * Returns the amount of games kept in memory
+	 */
+	public int getResidentGames() {
+		return residentGames;
+	}
+	
+	/**
+	 * Returns the amount of games evicted to the cold storage
+	 */
+	public int getEvictedGames() {
+		return evictedGames;
+	}
+	
+	/**
+	 * Returns the amount of lookups of games kept in memory
+	 */
+	public long getHits() {
+		return hits;
+	}
+	
+	/**
+	 * Returns the amount of lookups of games loaded back from the cold storage
+	 */
+	public long getMisses() {
+		return misses;
+	}
+	
+	/**
+	 * Returns the amount of games evicted to the cold storage
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+}
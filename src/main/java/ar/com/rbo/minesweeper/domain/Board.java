@@ -0,0 +1,250 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ar.com.rbo.minesweeper.domain.Cell.State;
+
+/**
+ * Storage for the cells of a board. Each cell is packed in a single byte:
+ * 
+ * <pre>
+ * bits 0-3: amount of adjacent mines
+ * bit 4:    whether the cell has a mine
+ * bits 5-7: visible {@link State} (its ordinal)
+ * </pre>
+ */
+abstract class Board {
+	
+	static final int ADJACENT_MINES_MASK = 0x0F;
+	static final int MINE_BIT = 0x10;
+	static final int STATE_SHIFT = 5;
+	static final int STATE_MASK = 0x07 << STATE_SHIFT;
+	
+	/**
+	 * Boards keep their cells in square chunks of this size (per side) and track a version for each chunk
+	 */
+	static final int CHUNK_SHIFT = 6;
+	static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	static final int CHUNK_MASK = CHUNK_SIZE - 1;
+	
+	/**
+	 * Amount of cells above which boards are kept as they are once their game finished (it can be set with the
+	 * "minesweeper.board.finishedThreshold" system property), as the copy is made while holding the game's lock and
+	 * takes about 10ms per million cells
+	 */
+	static final long FINISHED_THRESHOLD = Long.getLong("minesweeper.board.finishedThreshold", 1 << 22);
+	
+	private static final State[] STATES = State.values();
+	
+	private final int rowCount;
+	private final int colCount;
+	
+	/**
+	 * Versions of each board start far apart from those of any other board, so that readers can tell whether a board
+	 * was replaced (see {@link #getChunkVersion(int, int)})
+	 */
+	private static final AtomicLong VERSION_BASES = new AtomicLong();
+	private final long versionBase = VERSION_BASES.getAndIncrement() << 32;
+	
+	/**
+	 * Initializes the board's dimensions
+	 */
+	Board(int rowCount, int colCount) {
+		this.rowCount = rowCount;
+		this.colCount = colCount;
+	}
+	
+	/**
+	 * Returns the amount of rows of the board
+	 */
+	int getRowCount() {
+		return rowCount;
+	}
+	
+	/**
+	 * Returns the amount of columns of the board
+	 */
+	int getColCount() {
+		return colCount;
+	}
+	
+	/**
+	 * Returns the packed representation of a cell
+	 */
+	abstract byte get(int row, int col);
+	
+	/**
+	 * Replaces the packed representation of a cell
+	 */
+	abstract void set(int row, int col, byte cell);
+	
+	/**
+	 * Returns the version of the chunk that holds a cell, which is increased whenever any of its cells changes.
+	 * Versions of different boards never match
+	 */
+	final long getChunkVersion(int row, int col) {
+		return versionBase + getChunkChangeCount(row, col);
+	}
+	
+	/**
+	 * Returns the amount of times the cells of the chunk that holds a cell were changed
+	 */
+	abstract long getChunkChangeCount(int row, int col);
+	
+	/**
+	 * Frees the memory held by the board, which can't be used afterwards. Only boards off the heap hold memory that
+	 * isn't reclaimed by the garbage collector, so there is nothing to do by default
+	 */
+	void release() {
+	}
+	
+	/**
+	 * Returns the board to keep once its game finished, as it never changes again: a read-only copy that takes less
+	 * memory (see {@link FinishedBoard}), in which case this board is released, or this same board when a copy
+	 * wouldn't save any or the board is above {@link #FINISHED_THRESHOLD}
+	 */
+	Board toFinished() {
+		if ((long) rowCount * colCount > FINISHED_THRESHOLD) {
+			return this;
+		}
+		
+		Board finishedBoard = new FinishedBoard(this);
+		release();
+		
+		return finishedBoard;
+	}
+	
+	/**
+	 * Returns the position of a cell within its chunk
+	 */
+	static int offset(int row, int col) {
+		return (row & CHUNK_MASK) << CHUNK_SHIFT | col & CHUNK_MASK;
+	}
+	
+	/**
+	 * Returns the visible state of a cell
+	 */
+	State getState(int row, int col) {
+		return state(get(row, col));
+	}
+	
+	/**
+	 * Changes the visible state of a cell
+	 */
+	void setState(int row, int col, State state) {
+		set(row, col, withState(get(row, col), state));
+	}
+	
+	/**
+	 * Returns whether or not a cell has a mine
+	 */
+	boolean isMined(int row, int col) {
+		return isMined(get(row, col));
+	}
+	
+	/**
+	 * Returns the amount of mines adjacent to a cell
+	 */
+	int getAdjacentMines(int row, int col) {
+		return adjacentMines(get(row, col));
+	}
+	
+	/**
+	 * Writes the state of every cell that isn't UNKNOWN as runs of consecutive cells (by row-major index) in the same
+	 * state: the length of the run, the index of its first cell and the ordinal of the state, followed by an empty run.
+	 * Only the states are written, mines are generated again from the game's seed
+	 */
+	void writeStates(DataOutput out) throws IOException {
+		writeStates(out, 0, rowCount, 0, colCount);
+		out.writeInt(0);
+	}
+	
+	/**
+	 * Writes the runs (see {@link #writeStates(DataOutput)}) of the cells of a rectangle that aren't UNKNOWN, without
+	 * the empty run that ends them. Runs don't go beyond a row of the rectangle
+	 */
+	final void writeStates(DataOutput out, int firstRow, int endRow, int firstCol, int endCol) throws IOException {
+		for (int row = firstRow; row < endRow; row++) {
+			int runStart = firstCol;
+			State runState = State.UNKNOWN;
+			
+			// an UNKNOWN cell past the end of the row closes its last run
+			for (int col = firstCol; col <= endCol; col++) {
+				State state = col < endCol ? getState(row, col) : State.UNKNOWN;
+				
+				if (state != runState) {
+					if (State.UNKNOWN != runState) {
+						out.writeInt(col - runStart);
+						out.writeLong((long) row * colCount + runStart);
+						out.writeByte(runState.ordinal());
+					}
+					
+					runStart = col;
+					runState = state;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Changes the state of the cells of the runs written by {@link #writeStates(DataOutput)}, leaving the buffer right
+	 * after them
+	 */
+	void readStates(ByteBuffer runs) {
+		for (int length = runs.getInt(); length > 0; length = runs.getInt()) {
+			long firstCell = runs.getLong();
+			State state = STATES[runs.get()];
+			
+			for (long cell = firstCell; cell < firstCell + length; cell++) {
+				setState((int) (cell / colCount), (int) (cell % colCount), state);
+			}
+		}
+	}
+	
+	/**
+	 * Moves a buffer past the runs written by {@link #writeStates(DataOutput)}
+	 */
+	static void skipStates(ByteBuffer runs) {
+		for (int length = runs.getInt(); length > 0; length = runs.getInt()) {
+			runs.position(runs.position() + Long.BYTES + 1);
+		}
+	}
+	
+	/**
+	 * Packs the different parts of a cell in a single byte
+	 */
+	static byte pack(State state, boolean mined, int adjacentMines) {
+		return (byte) (state.ordinal() << STATE_SHIFT | (mined ? MINE_BIT : 0) | adjacentMines);
+	}
+	
+	/**
+	 * Extracts the visible state of a packed cell
+	 */
+	static State state(byte cell) {
+		return STATES[(cell & STATE_MASK) >>> STATE_SHIFT];
+	}
+	
+	/**
+	 * Returns a copy of a packed cell with a different visible state
+	 */
+	static byte withState(byte cell, State state) {
+		return (byte) (cell & ~STATE_MASK | state.ordinal() << STATE_SHIFT);
+	}
+	
+	/**
+	 * Extracts whether or not a packed cell has a mine
+	 */
+	static boolean isMined(byte cell) {
+		return (cell & MINE_BIT) != 0;
+	}
+	
+	/**
+	 * Extracts the amount of adjacent mines of a packed cell
+	 */
+	static int adjacentMines(byte cell) {
+		return cell & ADJACENT_MINES_MASK;
+	}
+}
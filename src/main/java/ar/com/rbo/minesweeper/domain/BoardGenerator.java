@@ -0,0 +1,265 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Generates {@link Board}s with a random distribution of mines. Mines are placed directly on the board's packed
+ * cells and every mine then adds itself to the count of its neighbours, so no per cell objects are allocated.
+ * <p>
+ * Every board is generated from a seed with its own {@link SplittableRandom} (nothing is shared between threads), so
+ * the same seed and parameters always produce the same board. While mines are at most half of the cells, sparse and
+ * dense boards with the same seed and parameters have the same mines.
+ * <p>
+ * Adjacent mines of boards above a threshold of cells (set with the "minesweeper.generation.parallelThreshold" system
+ * property) are counted in parallel, by bands of rows. Each band only writes its own cells (and chunks), while mines of
+ * the halo rows around it are just read, so the result is the same as counting the whole board at once.
+ * <p>
+ * Dense boards are kept off the heap (see {@link DirectBoard}) if the "minesweeper.board.offHeap" system property is
+ * set. Dense boards above a threshold of cells (set with the "minesweeper.board.mappedThreshold" system property) are
+ * kept in files mapped into memory (see {@link MappedBoard}) if the "minesweeper.board.mappedDirectory" system
+ * property names a directory for them, in which case dense boards have no limit of cells
+ */
+class BoardGenerator {
+	
+	/**
+	 * Coordinates of a safe cell that is always outside the board
+	 */
+	static final int NO_SAFE_CELL = -2;
+	
+	/**
+	 * Default amount of cells above which adjacent mines are counted in parallel
+	 */
+	static final long DEFAULT_PARALLEL_THRESHOLD = 1 << 20;
+	
+	/**
+	 * Default amount of cells above which dense boards are kept in mapped files (if there is a directory for them)
+	 */
+	static final long DEFAULT_MAPPED_THRESHOLD = 1 << 28;
+	
+	/**
+	 * Rows of each band counted in parallel, a whole number of chunks so that bands never share one
+	 */
+	private static final int BAND_ROWS = Board.CHUNK_SIZE * 4;
+	
+	private final long parallelThreshold;
+	
+	private final boolean offHeap;
+	
+	/**
+	 * Directory of the files dense boards above the mapped threshold are kept in, null if they are kept in memory
+	 */
+	private final Path mappedDirectory;
+	private final long mappedThreshold;
+	
+	/**
+	 * Initializes the generator with the threshold and the storage of dense boards from the system properties (or the
+	 * default ones)
+	 */
+	BoardGenerator() {
+		this(Long.getLong("minesweeper.generation.parallelThreshold", DEFAULT_PARALLEL_THRESHOLD),
+				Boolean.getBoolean("minesweeper.board.offHeap"),
+				System.getProperty("minesweeper.board.mappedDirectory") != null ? Paths.get(System.getProperty("minesweeper.board.mappedDirectory")) : null,
+				Long.getLong("minesweeper.board.mappedThreshold", DEFAULT_MAPPED_THRESHOLD));
+	}
+	
+	/**
+	 * Initializes the generator with the amount of cells above which adjacent mines are counted in parallel
+	 */
+	BoardGenerator(long parallelThreshold) {
+		this(parallelThreshold, false);
+	}
+	
+	/**
+	 * Initializes the generator with the amount of cells above which adjacent mines are counted in parallel and
+	 * whether or not dense boards are kept off the heap
+	 */
+	BoardGenerator(long parallelThreshold, boolean offHeap) {
+		this(parallelThreshold, offHeap, null, DEFAULT_MAPPED_THRESHOLD);
+	}
+	
+	/**
+	 * Initializes the generator with the amount of cells above which adjacent mines are counted in parallel, whether
+	 * or not dense boards are kept off the heap and the directory (if any) of the files dense boards above the given
+	 * amount of cells are kept in
+	 */
+	BoardGenerator(long parallelThreshold, boolean offHeap, Path mappedDirectory, long mappedThreshold) {
+		this.parallelThreshold = parallelThreshold;
+		this.offHeap = offHeap;
+		this.mappedDirectory = mappedDirectory;
+		this.mappedThreshold = mappedThreshold;
+	}
+	
+	/**
+	 * Returns whether or not a board with the given amount of cells can be dense, otherwise it has to be sparse
+	 */
+	boolean canBeDense(long cellCount) {
+		return cellCount <= ChunkedBoard.MAX_CELLS || mappedDirectory != null;
+	}
+	
+	/**
+	 * Generates a board with the given dimensions and amount of mines
+	 */
+	Board generate(int rowCount, int colCount, int mineCount, long seed) {
+		return generate(rowCount, colCount, mineCount, seed, NO_SAFE_CELL, NO_SAFE_CELL);
+	}
+	
+	/**
+	 * Generates a board with the given dimensions and amount of mines, without mines in the given safe cell nor in its
+	 * neighbours (the amount of mines is reduced if they don't fit in the other cells)
+	 */
+	Board generate(int rowCount, int colCount, int mineCount, long seed, int safeRow, int safeCol) {
+		Board board = newDenseBoard(rowCount, colCount);
+		
+		placeMines(board, mineCount, new SplittableRandom(seed), safeRow, safeCol);
+		countAdjacentMines(board);
+		
+		return board;
+	}
+	
+	/**
+	 * Generates a {@link SparseBoard} with the given dimensions and amount of mines
+	 */
+	Board generateSparse(int rowCount, int colCount, int mineCount, long seed) {
+		return generateSparse(rowCount, colCount, mineCount, seed, NO_SAFE_CELL, NO_SAFE_CELL);
+	}
+	
+	/**
+	 * Generates a {@link SparseBoard} with the given dimensions and amount of mines, without mines around the given
+	 * safe cell. Only the mines are placed, by picking random cells until enough distinct ones were mined, so it's
+	 * meant for boards where mines are a small fraction of the cells
+	 */
+	Board generateSparse(int rowCount, int colCount, int mineCount, long seed, int safeRow, int safeCol) {
+		long cellCount = (long) rowCount * colCount;
+		int minesToPlace = countMines(rowCount, colCount, mineCount, safeRow, safeCol);
+		
+		LongHashSet mines = new LongHashSet(minesToPlace);
+		SplittableRandom random = new SplittableRandom(seed);
+		
+		while (mines.size() < minesToPlace) {
+			long cellIndex = random.nextLong(cellCount);
+			
+			if (!isSafe(cellIndex / colCount, cellIndex % colCount, safeRow, safeCol)) {
+				mines.add(cellIndex);
+			}
+		}
+		
+		return new SparseBoard(rowCount, colCount, mines);
+	}
+	
+	/**
+	 * Creates an empty dense board, in a mapped file if it's above the mapped threshold (and there is a directory for
+	 * those files), otherwise off or on the heap
+	 */
+	private Board newDenseBoard(int rowCount, int colCount) {
+		if (mappedDirectory != null && (long) rowCount * colCount > mappedThreshold) {
+			return new MappedBoard(rowCount, colCount, mappedDirectory);
+		}
+		
+		return offHeap ? new DirectBoard(rowCount, colCount) : new ChunkedBoard(rowCount, colCount);
+	}
+	
+	/**
+	 * Places mines on random cells of the board (other than the safe ones). While mines are at most half of the cells
+	 * that can hold them, random cells are picked until enough free ones were mined; otherwise those cells are filled
+	 * with mines and random mined cells are freed. Either way every pick succeeds with a probability of at least one
+	 * half (safe cells aside)
+	 */
+	private void placeMines(Board board, int mineCount, SplittableRandom random, int safeRow, int safeCol) {
+		long cellCount = (long) board.getRowCount() * board.getColCount();
+		long availableCells = cellCount - countSafeCells(board.getRowCount(), board.getColCount(), safeRow, safeCol);
+		int minesToPlace = countMines(board.getRowCount(), board.getColCount(), mineCount, safeRow, safeCol);
+		
+		boolean sparse = minesToPlace <= availableCells / 2;
+		long picks = sparse ? minesToPlace : availableCells - minesToPlace;
+		
+		if (!sparse) {
+			for (int row = 0; row < board.getRowCount(); row++) {
+				for (int col = 0; col < board.getColCount(); col++) {
+					if (!isSafe(row, col, safeRow, safeCol)) {
+						board.set(row, col, (byte) Board.MINE_BIT);
+					}
+				}
+			}
+		}
+		
+		while (picks > 0) {
+			// drawn as a long, like sparse boards do, so that both kinds of boards get the same mines
+			long cellIndex = random.nextLong(cellCount);
+			int row = (int) (cellIndex / board.getColCount());
+			int col = (int) (cellIndex - (long) row * board.getColCount());
+			
+			if (board.isMined(row, col) != sparse && !isSafe(row, col, safeRow, safeCol)) {
+				board.set(row, col, (byte) (sparse ? Board.MINE_BIT : 0));
+				picks--;
+			}
+		}
+	}
+	
+	/**
+	 * Returns the amount of mines actually placed on a board generated with the given dimensions, amount of mines and
+	 * safe cell, which is less than the given amount if they don't fit in the cells other than the safe ones
+	 */
+	int countMines(int rowCount, int colCount, int mineCount, int safeRow, int safeCol) {
+		long availableCells = (long) rowCount * colCount - countSafeCells(rowCount, colCount, safeRow, safeCol);
+		return (int) Math.max(0, Math.min(mineCount, availableCells));
+	}
+	
+	/**
+	 * Counts the cells of the board that are either the safe cell or one of its neighbours
+	 */
+	private int countSafeCells(int rowCount, int colCount, int safeRow, int safeCol) {
+		int safeRows = Math.max(0, Math.min(rowCount - 1, safeRow + 1) - Math.max(0, safeRow - 1) + 1);
+		int safeCols = Math.max(0, Math.min(colCount - 1, safeCol + 1) - Math.max(0, safeCol - 1) + 1);
+		
+		return safeRows * safeCols;
+	}
+	
+	/**
+	 * Returns whether a cell is either the safe cell or one of its neighbours
+	 */
+	private boolean isSafe(long row, long col, int safeRow, int safeCol) {
+		return Math.abs(row - safeRow) <= 1 && Math.abs(col - safeCol) <= 1;
+	}
+	
+	/**
+	 * Counts the adjacent mines of every cell, in parallel by bands of rows if the board is above the threshold
+	 */
+	private void countAdjacentMines(Board board) {
+		if ((long) board.getRowCount() * board.getColCount() <= parallelThreshold) {
+			countAdjacentMines(board, 0, board.getRowCount());
+			return;
+		}
+		
+		int bandCount = (board.getRowCount() + BAND_ROWS - 1) / BAND_ROWS;
+		
+		IntStream.range(0, bandCount)
+			.parallel()
+			.forEach(band -> countAdjacentMines(board, band * BAND_ROWS, Math.min(board.getRowCount(), (band + 1) * BAND_ROWS)));
+	}
+	
+	/**
+	 * Adds the contribution of every mine within a band of rows (or in the halo rows around it) to the adjacent mine
+	 * count of its neighbours within the band, in a single pass
+	 */
+	private void countAdjacentMines(Board board, int firstRow, int endRow) {
+		int lastRow = endRow - 1;
+		int lastCol = board.getColCount() - 1;
+		
+		for (int row = Math.max(0, firstRow - 1); row <= Math.min(board.getRowCount() - 1, endRow); row++) {
+			for (int col = 0; col <= lastCol; col++) {
+				if (board.isMined(row, col)) {
+					for (int neighbourRow = Math.max(firstRow, row - 1); neighbourRow <= Math.min(lastRow, row + 1); neighbourRow++) {
+						for (int neighbourCol = Math.max(0, col - 1); neighbourCol <= Math.min(lastCol, col + 1); neighbourCol++) {
+							if (neighbourRow != row || neighbourCol != col) {
+								board.set(neighbourRow, neighbourCol, (byte) (board.get(neighbourRow, neighbourCol) + 1));
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+}
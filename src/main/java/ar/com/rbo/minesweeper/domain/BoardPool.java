@@ -0,0 +1,221 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Pool of boards generated in background for popular presets of games, so that creating one of them doesn't have to
+ * wait for its board to be generated. A fixed amount of boards is kept ready for each preset and every board taken
+ * from the pool is replaced by a new one
+ */
+public class BoardPool implements AutoCloseable {
+	
+	/**
+	 * Pool without presets, which never has a board ready
+	 */
+	public static final BoardPool EMPTY = new BoardPool(Collections.emptyList(), 0, 0);
+	
+	private static final BoardGenerator GENERATOR = new BoardGenerator();
+	
+	private final List<Preset> presets;
+	
+	private final ExecutorService executor;
+	
+	/**
+	 * Initializes the pool and starts generating the given amount of boards for each preset on a number of background
+	 * threads
+	 */
+	public BoardPool(List<Preset> presets, int size, int threadCount) {
+		this.presets = ImmutableList.copyOf(presets);
+		
+		if (presets.isEmpty() || size < 1) {
+			this.executor = null;
+			return;
+		}
+		
+		this.executor = Executors.newFixedThreadPool(Math.max(1, threadCount), new ThreadFactoryBuilder()
+				.setNameFormat("board-pool-%d")
+				.setDaemon(true)
+				.build());
+		
+		for (Preset preset : presets) {
+			preset.readyBoards = new ArrayBlockingQueue<>(size);
+			
+			for (int boardIndex = 0; boardIndex < size; boardIndex++) {
+				generate(preset);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the presets of the pool
+	 */
+	public List<Preset> getPresets() {
+		return presets;
+	}
+	
+	/**
+	 * Takes a ready board of a preset (if there is one) and starts generating its replacement
+	 */
+	Optional<PooledBoard> take(int rowCount, int colCount, int mineCount) {
+		for (Preset preset : presets) {
+			if (preset.matches(rowCount, colCount, mineCount)) {
+				PooledBoard pooledBoard = preset.readyBoards != null ? preset.readyBoards.poll() : null;
+				
+				if (pooledBoard == null) {
+					preset.misses.increment();
+					return Optional.empty();
+				}
+				
+				preset.hits.increment();
+				generate(preset);
+				
+				return Optional.of(pooledBoard);
+			}
+		}
+		
+		return Optional.empty();
+	}
+	
+	/**
+	 * Stops generating boards
+	 */
+	@Override
+	public void close() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Generates a board of a preset in background, indexing its regions if games index them (see
+	 * {@link Game#shouldIndexZeroRegions(Board)}), and adds it to the ready ones
+	 */
+	private void generate(Preset preset) {
+		executor.execute(() -> {
+			long seed = ThreadLocalRandom.current().nextLong();
+			Board board = GENERATOR.generate(preset.rowCount, preset.colCount, preset.mineCount, seed);
+			
+			preset.readyBoards.offer(new PooledBoard(seed, board, Game.shouldIndexZeroRegions(board) ? new ZeroRegionIndex(board) : null));
+		});
+	}
+	
+	/**
+	 * Parameters of games whose boards are pooled, along with the amount of games created with and without a ready board
+	 */
+	public static final class Preset {
+		
+		private final int rowCount;
+		private final int colCount;
+		private final int mineCount;
+		
+		private BlockingQueue<PooledBoard> readyBoards;
+		
+		private final LongAdder hits = new LongAdder();
+		private final LongAdder misses = new LongAdder();
+		
+		/**
+		 * Initializes the preset
+		 */
+		public Preset(int rowCount, int colCount, int mineCount) {
+			this.rowCount = rowCount;
+			this.colCount = colCount;
+			this.mineCount = mineCount;
+		}
+		
+		/**
+		 * Parses a preset in the "{rowCount}x{colCount}x{mineCount}" format
+		 * 
+		 * @throws IllegalArgumentException if the preset is malformed
+		 */
+		public static Preset parse(String preset) {
+			String[] parameters = preset.trim().split("x");
+			
+			try {
+				if (parameters.length == 3) {
+					return new Preset(Integer.parseInt(parameters[0]), Integer.parseInt(parameters[1]), Integer.parseInt(parameters[2]));
+				}
+			} catch (NumberFormatException e) {
+				// reported below
+			}
+			
+			throw new IllegalArgumentException("Malformed preset " + preset);
+		}
+		
+		/**
+		 * Returns the amount of rows of the preset
+		 */
+		public int getRowCount() {
+			return rowCount;
+		}
+		
+		/**
+		 * Returns the amount of columns of the preset
+		 */
+		public int getColCount() {
+			return colCount;
+		}
+		
+		/**
+		 * Returns the amount of mines of the preset
+		 */
+		public int getMineCount() {
+			return mineCount;
+		}
+		
+		/**
+		 * Returns the amount of boards ready to be taken
+		 */
+		public int getReadyBoards() {
+			return readyBoards != null ? readyBoards.size() : 0;
+		}
+		
+		/**
+		 * Returns the amount of games created with a ready board
+		 */
+		public long getHits() {
+			return hits.sum();
+		}
+		
+		/**
+		 * Returns the amount of games created while no board was ready
+		 */
+		public long getMisses() {
+			return misses.sum();
+		}
+		
+		/**
+		 * Returns whether or not a game with the given parameters belongs to the preset
+		 */
+		private boolean matches(int rowCount, int colCount, int mineCount) {
+			return this.rowCount == rowCount && this.colCount == colCount && this.mineCount == mineCount;
+		}
+	}
+	
+	/**
+	 * Board taken from the pool along with the seed it was generated from and the index of its regions (null if they
+	 * aren't indexed)
+	 */
+	static final class PooledBoard {
+		
+		final long seed;
+		final Board board;
+		final ZeroRegionIndex zeroRegions;
+		
+		private PooledBoard(long seed, Board board, ZeroRegionIndex zeroRegions) {
+			this.seed = seed;
+			this.board = board;
+			this.zeroRegions = zeroRegions;
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package ar.com.rbo.minesweeper.domain;
+
+/**
+ * Read-only view of a board as seen by the player: the amount of adjacent mines is only visible for revealed cells
+ */
+public interface BoardView {
+	
+	/**
+	 * Returns the amount of rows of the board
+	 */
+	int getRowCount();
+	
+	/**
+	 * Returns the amount of columns of the board
+	 */
+	int getColCount();
+	
+	/**
+	 * Returns the state of a cell
+	 */
+	Cell.State getState(int row, int col);
+	
+	/**
+	 * Returns the amount of mines adjacent to a cell (-1 unless the cell was revealed)
+	 */
+	int getAdjacentMines(int row, int col);
+	
+	/**
+	 * Returns a copy of a view, which doesn't change along with the board it was taken from. Each cell takes a single
+	 * byte: its state (its ordinal) in the high nibble and its amount of adjacent mines plus one in the low one
+	 */
+	static BoardView copyOf(BoardView board) {
+		int rowCount = board.getRowCount();
+		int colCount = board.getColCount();
+		byte[] cells = new byte[rowCount * colCount];
+		
+		for (int row = 0, cellIndex = 0; row < rowCount; row++) {
+			for (int col = 0; col < colCount; col++, cellIndex++) {
+				cells[cellIndex] = (byte) (board.getState(row, col).ordinal() << 4 | board.getAdjacentMines(row, col) + 1);
+			}
+		}
+		
+		Cell.State[] states = Cell.State.values();
+		
+		return new BoardView() {
+
+			@Override
+			public int getRowCount() {
+				return rowCount;
+			}
+
+			@Override
+			public int getColCount() {
+				return colCount;
+			}
+
+			@Override
+			public Cell.State getState(int row, int col) {
+				return states[cells[row * colCount + col] >>> 4];
+			}
+
+			@Override
+			public int getAdjacentMines(int row, int col) {
+				return (cells[row * colCount + col] & 0x0F) - 1;
+			}
+		};
+	}
+	
+	/**
+	 * Returns a view backed by a bidimensional array of {@link Cell}s
+	 */
+	static BoardView of(Cell[][] cells) {
+		return new BoardView() {
+
+			@Override
+			public int getRowCount() {
+				return cells.length;
+			}
+
+			@Override
+			public int getColCount() {
+				return cells.length == 0 ? 0 : cells[0].length;
+			}
+
+			@Override
+			public Cell.State getState(int row, int col) {
+				return cells[row][col].getState();
+			}
+
+			@Override
+			public int getAdjacentMines(int row, int col) {
+				return cells[row][col].getAdjacentMines();
+			}
+		};
+	}
+}
@@ -0,0 +1,118 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link Board} split in square chunks of {@link #CHUNK_SIZE} cells per side, each one with its own version, so that
+ * readers can tell which parts of the board changed. Every chunk is allocated upfront, and the chunks on the right and
+ * bottom edges only take the cells within the board, so a board smaller than a chunk takes a byte per cell
+ */
+class ChunkedBoard extends Board {
+	
+	/**
+	 * Maximum amount of cells of a chunked board, bigger boards have to be sparse
+	 */
+	static final long MAX_CELLS = Integer.MAX_VALUE - 8;
+	
+	private final int chunkColCount;
+	
+	/**
+	 * Columns of the chunks on the right edge of the board (the rest of them have {@link #CHUNK_SIZE})
+	 */
+	private final int lastChunkWidth;
+	
+	private final byte[][] chunks;
+	
+	/**
+	 * Versions are written after the cells they cover (and read before them), so a reader that sees a version also
+	 * sees every change it accounts for
+	 */
+	private final AtomicLongArray chunkVersions;
+	
+	/**
+	 * Initializes a board with all cells in UNKNOWN state, without mines
+	 */
+	ChunkedBoard(int rowCount, int colCount) {
+		super(rowCount, colCount);
+		
+		if ((long) rowCount * colCount > MAX_CELLS) {
+			throw new IllegalArgumentException("Board can't have more than " + MAX_CELLS + " cells");
+		}
+		
+		int chunkRowCount = (rowCount + CHUNK_MASK) >>> CHUNK_SHIFT;
+		int lastChunkHeight = rowCount - (chunkRowCount - 1 << CHUNK_SHIFT);
+		
+		this.chunkColCount = (colCount + CHUNK_MASK) >>> CHUNK_SHIFT;
+		this.lastChunkWidth = colCount - (chunkColCount - 1 << CHUNK_SHIFT);
+		this.chunks = new byte[chunkRowCount * chunkColCount][];
+		this.chunkVersions = new AtomicLongArray(chunks.length);
+		
+		for (int chunkIndex = 0; chunkIndex < chunks.length; chunkIndex++) {
+			int chunkHeight = chunkIndex / chunkColCount == chunkRowCount - 1 ? lastChunkHeight : CHUNK_SIZE;
+			int chunkWidth = chunkIndex % chunkColCount == chunkColCount - 1 ? lastChunkWidth : CHUNK_SIZE;
+			
+			chunks[chunkIndex] = new byte[chunkHeight * chunkWidth];
+		}
+	}
+	
+	@Override
+	byte get(int row, int col) {
+		return chunks[chunkIndex(row, col)][cellIndex(row, col)];
+	}
+	
+	@Override
+	void set(int row, int col, byte cell) {
+		int chunkIndex = chunkIndex(row, col);
+		chunks[chunkIndex][cellIndex(row, col)] = cell;
+		chunkVersions.lazySet(chunkIndex, chunkVersions.get(chunkIndex) + 1);
+	}
+	
+	/**
+	 * Replaces a cell without increasing the version of its chunk, so different cells can be replaced concurrently.
+	 * The version of the chunk has to be increased afterwards, once every cell was replaced (see {@link #touchChunk})
+	 */
+	void setConcurrently(int row, int col, byte cell) {
+		chunks[chunkIndex(row, col)][cellIndex(row, col)] = cell;
+	}
+	
+	/**
+	 * Increases the version of the chunk that holds a cell
+	 */
+	void touchChunk(int row, int col) {
+		int chunkIndex = chunkIndex(row, col);
+		chunkVersions.lazySet(chunkIndex, chunkVersions.get(chunkIndex) + 1);
+	}
+	
+	@Override
+	long getChunkChangeCount(int row, int col) {
+		return chunkVersions.get(chunkIndex(row, col));
+	}
+	
+	/**
+	 * Returns the amount of bytes taken by the cells of every chunk
+	 */
+	long getCellBytes() {
+		long cellBytes = 0;
+		
+		for (byte[] chunk : chunks) {
+			cellBytes += chunk.length;
+		}
+		
+		return cellBytes;
+	}
+	
+	/**
+	 * Returns the index of a cell within its chunk, whose rows are as wide as the chunk
+	 */
+	private int cellIndex(int row, int col) {
+		int chunkWidth = (col >>> CHUNK_SHIFT) == chunkColCount - 1 ? lastChunkWidth : CHUNK_SIZE;
+		return (row & CHUNK_MASK) * chunkWidth + (col & CHUNK_MASK);
+	}
+	
+	/**
+	 * Returns the index of the chunk that holds a cell
+	 */
+	private int chunkIndex(int row, int col) {
+		return (row >>> CHUNK_SHIFT) * chunkColCount + (col >>> CHUNK_SHIFT);
+	}
+}
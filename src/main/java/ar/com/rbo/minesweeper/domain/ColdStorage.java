@@ -0,0 +1,376 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Compressed on-disk tier of the games {@link GameService} evicts from memory, so that games nobody plays for a while
+ * don't hold the heap. Games are written as in a snapshot (see {@link Game#writeSnapshot(DataOutput)}), deflated
+ * unless they are small (deflating them would cost more than it saves), and appended to a single file, and only the
+ * position and length of each one are kept in memory. Loading a game back drops its record, and the space of dropped
+ * records is reclaimed by compacting the file once they take most of it (see {@link #compact()}).
+ * <p>
+ * The file isn't meant to outlive the application (evicted games are recovered from the {@link MoveLog} like the rest
+ * of them), so it's deleted once it's closed, or as soon as it's opened where open files can be deleted
+ */
+public class ColdStorage implements AutoCloseable {
+	
+	/**
+	 * Storage that never holds a game, used while no directory is configured
+	 */
+	public static final ColdStorage DISABLED = new ColdStorage();
+	
+	/**
+	 * Records are kept as their position in the file followed by their length, which takes the lowest bits
+	 */
+	private static final int LENGTH_BITS = 24;
+	private static final long LENGTH_MASK = (1L << LENGTH_BITS) - 1;
+	
+	/**
+	 * Maximum size of a record (a game preceded by its size, negative if it isn't deflated), bigger games stay in memory
+	 */
+	static final int MAX_RECORD_SIZE = (int) LENGTH_MASK;
+	
+	/**
+	 * Size from which games are deflated (a fresh expert game takes less than 100 bytes)
+	 */
+	private static final int MIN_DEFLATED_SIZE = 256;
+	
+	/**
+	 * Default amount of bytes taken by dropped records below which the file is never compacted
+	 */
+	static final long DEFAULT_COMPACTION_THRESHOLD = 64 << 20;
+	
+	private final Path directory;
+	private final int capacity;
+	private final long idleTime;
+	private final long compactionThreshold;
+	
+	/**
+	 * Record of every game held, by id
+	 */
+	private final Map<UUID, Long> records = new ConcurrentHashMap<>();
+	
+	/**
+	 * Held (shared) while records are written, read or dropped, and exclusively while the file is compacted
+	 */
+	private final ReadWriteLock fileLock = new ReentrantReadWriteLock();
+	
+	private FileChannel channel;
+	
+	/**
+	 * Size of the file and bytes of it taken by the records held
+	 */
+	private final AtomicLong size = new AtomicLong();
+	private final AtomicLong usedSize = new AtomicLong();
+	
+	/**
+	 * Compresses the games written, one at a time
+	 */
+	private final Deflater deflater;
+	
+	/**
+	 * Initializes the disabled storage
+	 */
+	private ColdStorage() {
+		this.directory = null;
+		this.capacity = 0;
+		this.idleTime = 0;
+		this.compactionThreshold = 0;
+		this.deflater = null;
+	}
+	
+	/**
+	 * Opens a storage in a new file of the given directory (creating it if it doesn't exist)
+	 *
+	 * @param capacity maximum amount of games kept in memory, 0 for no limit
+	 * @param idleTime seconds after which games nobody used are evicted from memory, 0 for none
+	 * @throws IOException if the file can't be created
+	 */
+	public ColdStorage(Path directory, int capacity, long idleTime) throws IOException {
+		this(directory, capacity, idleTime, DEFAULT_COMPACTION_THRESHOLD);
+	}
+	
+	/**
+	 * Opens a storage in a new file of the given directory (creating it if it doesn't exist), which is compacted once
+	 * dropped records take more than the given amount of bytes (and more than the records held)
+	 *
+	 * @throws IOException if the file can't be created
+	 */
+	ColdStorage(Path directory, int capacity, long idleTime, long compactionThreshold) throws IOException {
+		this.directory = directory;
+		this.capacity = capacity;
+		this.idleTime = idleTime;
+		this.compactionThreshold = compactionThreshold;
+		this.deflater = new Deflater(Deflater.BEST_SPEED);
+		
+		Files.createDirectories(directory);
+		this.channel = open(directory);
+	}
+	
+	/**
+	 * Returns the maximum amount of games kept in memory, 0 if there is no limit
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	/**
+	 * Returns the seconds after which games nobody used are evicted from memory, 0 if they aren't
+	 */
+	public long getIdleTime() {
+		return idleTime;
+	}
+	
+	/**
+	 * Returns the amount of games held
+	 */
+	int size() {
+		return records.size();
+	}
+	
+	/**
+	 * Returns whether or not the game with the given id is held
+	 */
+	boolean contains(UUID id) {
+		return records.containsKey(id);
+	}
+	
+	/**
+	 * Writes a game (replacing the previous record of it, if any), unless its record takes more than
+	 * {@link #MAX_RECORD_SIZE} bytes. The game can't change meanwhile
+	 *
+	 * @return whether or not the game was written
+	 * @throws IOException if the file can't be written
+	 */
+	boolean write(Game game) throws IOException {
+		if (channel == null) {
+			return false;
+		}
+		
+		ByteArrayOutputStream gameBytes = new ByteArrayOutputStream(256);
+		game.writeSnapshot(new DataOutputStream(gameBytes));
+		
+		ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+		DataOutputStream recordOut = new DataOutputStream(recordBytes);
+		
+		if (gameBytes.size() < MIN_DEFLATED_SIZE) {
+			recordOut.writeInt(-gameBytes.size());
+			gameBytes.writeTo(recordOut);
+		} else {
+			recordOut.writeInt(gameBytes.size());
+			
+			synchronized (deflater) {
+				deflater.reset();
+				
+				DeflaterOutputStream deflaterOut = new DeflaterOutputStream(recordBytes, deflater, 4096);
+				gameBytes.writeTo(deflaterOut);
+				deflaterOut.finish();
+			}
+		}
+		
+		if (recordBytes.size() > MAX_RECORD_SIZE) {
+			return false;
+		}
+		
+		ByteBuffer record = ByteBuffer.wrap(recordBytes.toByteArray());
+		
+		fileLock.readLock().lock();
+		
+		try {
+			long position = size.getAndAdd(record.remaining());
+			
+			while (record.hasRemaining()) {
+				channel.write(record, position + record.position());
+			}
+			
+			Long previousRecord = records.put(game.getId(), position << LENGTH_BITS | record.limit());
+			usedSize.addAndGet(record.limit() - (previousRecord == null ? 0 : previousRecord & LENGTH_MASK));
+		} finally {
+			fileLock.readLock().unlock();
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Reads the game with the given id (if it's held), which is kept along with its record
+	 *
+	 * @throws IOException if the file can't be read or the game is corrupted
+	 */
+	Optional<Game> read(UUID id) throws IOException {
+		byte[] recordBytes;
+		int gameSize;
+		
+		fileLock.readLock().lock();
+		
+		try {
+			Long record = records.get(id);
+			
+			if (record == null) {
+				return Optional.empty();
+			}
+			
+			ByteBuffer buffer = ByteBuffer.allocate((int) (record & LENGTH_MASK));
+			long position = record >>> LENGTH_BITS;
+			
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, position + buffer.position()) < 0) {
+					throw new IOException("Cold storage in " + directory + " is truncated");
+				}
+			}
+			
+			gameSize = buffer.getInt(0);
+			recordBytes = buffer.array();
+		} finally {
+			fileLock.readLock().unlock();
+		}
+		
+		if (gameSize < 0) {
+			return Optional.of(Game.readSnapshot(ByteBuffer.wrap(recordBytes, Integer.BYTES, -gameSize)));
+		}
+		
+		byte[] gameBytes = new byte[gameSize];
+		Inflater inflater = new Inflater();
+		
+		try {
+			inflater.setInput(recordBytes, Integer.BYTES, recordBytes.length - Integer.BYTES);
+			int inflatedSize = 0;
+			
+			while (inflatedSize < gameSize && !inflater.needsInput()) {
+				inflatedSize += inflater.inflate(gameBytes, inflatedSize, gameSize - inflatedSize);
+			}
+			
+			if (inflatedSize < gameSize) {
+				throw new IOException("Game " + id + " is truncated in cold storage");
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("Game " + id + " is corrupted in cold storage", e);
+		} finally {
+			inflater.end();
+		}
+		
+		return Optional.of(Game.readSnapshot(ByteBuffer.wrap(gameBytes)));
+	}
+	
+	/**
+	 * Drops the record of the game with the given id (if it's held)
+	 *
+	 * @return whether or not the game was held
+	 */
+	boolean delete(UUID id) {
+		fileLock.readLock().lock();
+		
+		try {
+			Long record = records.remove(id);
+			
+			if (record == null) {
+				return false;
+			}
+			
+			usedSize.addAndGet(-(record & LENGTH_MASK));
+			return true;
+		} finally {
+			fileLock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Rewrites the records held to a new file (dropping the current one) if dropped records take more than the
+	 * compaction threshold and more than the records held. Games can't be written, read or dropped meanwhile
+	 *
+	 * @return whether or not the file was compacted
+	 * @throws IOException if the new file can't be written, in which case the current one is kept
+	 */
+	boolean compact() throws IOException {
+		long droppedSize = size.get() - usedSize.get();
+		
+		if (channel == null || droppedSize <= compactionThreshold || droppedSize <= usedSize.get()) {
+			return false;
+		}
+		
+		fileLock.writeLock().lock();
+		
+		try {
+			FileChannel compactedChannel = open(directory);
+			long compactedSize = 0;
+			
+			try {
+				for (long record : records.values()) {
+					long position = record >>> LENGTH_BITS;
+					long length = record & LENGTH_MASK;
+					
+					for (long copied = 0; copied < length; ) {
+						copied += channel.transferTo(position + copied, length - copied, compactedChannel);
+					}
+				}
+			} catch (IOException e) {
+				compactedChannel.close();
+				throw e;
+			}
+			
+			// records don't change meanwhile, so they are visited in the same order they were copied
+			for (Map.Entry<UUID, Long> entry : records.entrySet()) {
+				long length = entry.getValue() & LENGTH_MASK;
+				entry.setValue(compactedSize << LENGTH_BITS | length);
+				compactedSize += length;
+			}
+			
+			channel.close();
+			channel = compactedChannel;
+			size.set(compactedSize);
+			
+			return true;
+		} finally {
+			fileLock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Closes the file (deleting it)
+	 */
+	@Override
+	public void close() throws IOException {
+		if (channel == null) {
+			return;
+		}
+		
+		fileLock.writeLock().lock();
+		
+		try {
+			channel.close();
+			
+			synchronized (deflater) {
+				deflater.end();
+			}
+		} finally {
+			fileLock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Opens a new file in the given directory, deleted once it's closed
+	 */
+	private static FileChannel open(Path directory) throws IOException {
+		return FileChannel.open(Files.createTempFile(directory, "games", ".cold"), StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+	}
+}
@@ -0,0 +1,127 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.function.Supplier;
+
+/**
+ * {@link Board} of a game restored from a snapshot (see {@link Snapshot}), which is generated from the game's seed and
+ * brought to the states of the snapshot only when it's first used. Generating a board costs much more than restoring
+ * the rest of a game, so restoring doesn't pay for the boards of games nobody plays again (and writing the next
+ * snapshot just copies their states along)
+ */
+class DeferredBoard extends Board {
+	
+	private final Supplier<Board> generator;
+	
+	/**
+	 * Whether or not the game finished, in which case the generated board is kept as such (see
+	 * {@link Board#toFinished()})
+	 */
+	private final boolean finished;
+	
+	/**
+	 * Runs of states (see {@link Board#writeStates(DataOutput)}) brought to the board once it's generated, null
+	 * afterwards
+	 */
+	private ByteBuffer states;
+	
+	private volatile Board board;
+	
+	/**
+	 * Initializes a board that is generated by the given supplier, with the states of the given runs
+	 */
+	DeferredBoard(int rowCount, int colCount, Supplier<Board> generator, ByteBuffer states) {
+		this(rowCount, colCount, generator, states, false);
+	}
+	
+	/**
+	 * Initializes a board that is generated by the given supplier, with the states of the given runs, of a game that
+	 * may have finished
+	 */
+	DeferredBoard(int rowCount, int colCount, Supplier<Board> generator, ByteBuffer states, boolean finished) {
+		super(rowCount, colCount);
+		this.generator = generator;
+		this.states = states;
+		this.finished = finished;
+	}
+	
+	@Override
+	byte get(int row, int col) {
+		return board().get(row, col);
+	}
+	
+	@Override
+	void set(int row, int col, byte cell) {
+		board().set(row, col, cell);
+	}
+	
+	@Override
+	long getChunkChangeCount(int row, int col) {
+		return board().getChunkChangeCount(row, col);
+	}
+	
+	/**
+	 * Writes the states of the board, as they were restored unless it was generated since
+	 */
+	@Override
+	synchronized void writeStates(DataOutput out) throws IOException {
+		if (board != null) {
+			board.writeStates(out);
+		} else {
+			byte[] runs = new byte[states.remaining()];
+			states.duplicate().get(runs);
+			out.write(runs);
+		}
+	}
+	
+	@Override
+	synchronized void release() {
+		if (board != null) {
+			board.release();
+		}
+		
+		states = null;
+	}
+	
+	/**
+	 * Returns the generated board as kept once the game finished (see {@link Board#toFinished()}), generating it if
+	 * needed
+	 */
+	@Override
+	Board toFinished() {
+		return board().toFinished();
+	}
+	
+	/**
+	 * Returns whether or not the board was generated yet
+	 */
+	boolean isGenerated() {
+		return board != null;
+	}
+	
+	/**
+	 * Returns the generated board, generating it if needed
+	 */
+	private Board board() {
+		Board generatedBoard = board;
+		return generatedBoard != null ? generatedBoard : generate();
+	}
+	
+	/**
+	 * Generates the board (unless another thread just did) and brings it to the restored states, compacting it if the
+	 * game finished
+	 */
+	private synchronized Board generate() {
+		if (board == null) {
+			Board generatedBoard = generator.get();
+			generatedBoard.readStates(states.duplicate());
+			
+			states = null;
+			board = finished ? generatedBoard.toFinished() : generatedBoard;
+		}
+		
+		return board;
+	}
+}
@@ -0,0 +1,115 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link Board} whose cells are kept off the heap, in blocks of a {@link SlabAllocator}, so that the garbage collector
+ * doesn't have to go through (or copy) the cells of every live game. Cells are laid out by rows across blocks of the
+ * allocator's slab size (only the last one is rounded up to a power of two), while the versions of its chunks stay on
+ * the heap as in {@link ChunkedBoard}.
+ * <p>
+ * Its memory must be freed explicitly with {@link #release()}, once nobody is going to read the board again
+ */
+class DirectBoard extends Board {
+	
+	/**
+	 * Allocator shared by every board off the heap
+	 */
+	private static final SlabAllocator SLABS = new SlabAllocator();
+	
+	private final SlabAllocator slabs;
+	
+	private final int blockShift;
+	private final int blockMask;
+	
+	private final int chunkColCount;
+	
+	/**
+	 * Blocks holding the cells, null once released
+	 */
+	private ByteBuffer[] blocks;
+	
+	/**
+	 * Versions are written after the cells they cover (and read before them), so a reader that sees a version also
+	 * sees every change it accounts for
+	 */
+	private final AtomicLongArray chunkVersions;
+	
+	/**
+	 * Initializes a board with all cells in UNKNOWN state, without mines, in the shared allocator
+	 */
+	DirectBoard(int rowCount, int colCount) {
+		this(rowCount, colCount, SLABS);
+	}
+	
+	/**
+	 * Initializes a board with all cells in UNKNOWN state, without mines, in the given allocator
+	 */
+	DirectBoard(int rowCount, int colCount, SlabAllocator slabs) {
+		super(rowCount, colCount);
+		
+		long cellCount = (long) rowCount * colCount;
+		
+		if (cellCount > ChunkedBoard.MAX_CELLS) {
+			throw new IllegalArgumentException("Board can't have more than " + ChunkedBoard.MAX_CELLS + " cells");
+		}
+		
+		this.slabs = slabs;
+		this.blockShift = Integer.numberOfTrailingZeros(slabs.getSlabSize());
+		this.blockMask = slabs.getSlabSize() - 1;
+		
+		ByteBuffer[] blocks = new ByteBuffer[(int) ((cellCount + blockMask) >>> blockShift)];
+		
+		for (int blockIndex = 0; blockIndex < blocks.length; blockIndex++) {
+			blocks[blockIndex] = slabs.allocate((int) Math.min(slabs.getSlabSize(), cellCount - ((long) blockIndex << blockShift)));
+		}
+		
+		this.blocks = blocks;
+		this.chunkColCount = (colCount + CHUNK_MASK) >>> CHUNK_SHIFT;
+		this.chunkVersions = new AtomicLongArray(((rowCount + CHUNK_MASK) >>> CHUNK_SHIFT) * chunkColCount);
+	}
+	
+	@Override
+	byte get(int row, int col) {
+		long cellIndex = (long) row * getColCount() + col;
+		return blocks[(int) (cellIndex >>> blockShift)].get((int) cellIndex & blockMask);
+	}
+	
+	@Override
+	void set(int row, int col, byte cell) {
+		long cellIndex = (long) row * getColCount() + col;
+		blocks[(int) (cellIndex >>> blockShift)].put((int) cellIndex & blockMask, cell);
+		
+		int chunkIndex = chunkIndex(row, col);
+		chunkVersions.lazySet(chunkIndex, chunkVersions.get(chunkIndex) + 1);
+	}
+	
+	@Override
+	long getChunkChangeCount(int row, int col) {
+		return chunkVersions.get(chunkIndex(row, col));
+	}
+	
+	/**
+	 * Returns the blocks of the board to its allocator. Reading the board afterwards fails
+	 */
+	@Override
+	synchronized void release() {
+		if (blocks == null) {
+			return;
+		}
+		
+		for (ByteBuffer block : blocks) {
+			slabs.free(block);
+		}
+		
+		blocks = null;
+	}
+	
+	/**
+	 * Returns the index of the chunk that holds a cell
+	 */
+	private int chunkIndex(int row, int col) {
+		return (row >>> CHUNK_SHIFT) * chunkColCount + (col >>> CHUNK_SHIFT);
+	}
+}
@@ -0,0 +1,188 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.util.Arrays;
+
+import ar.com.rbo.minesweeper.domain.Cell.State;
+
+/**
+ * Read-only {@link Board} of a finished game, which never changes again (see {@link Board#toFinished()}). Mines take a
+ * bit per cell (adjacent mines are counted as they are read) and states are kept as the runs of consecutive cells of
+ * each row in the same state, or in four bits per cell when runs would take more than that (as on boards scattered
+ * with flags), so the board takes from an eighth to little more than half of a byte per cell
+ */
+final class FinishedBoard extends Board {
+	
+	private static final State[] STATES = State.values();
+	
+	/**
+	 * Bits per cell of packed states, 2^4 of which fit in a long
+	 */
+	private static final int PACKED_STATE_BITS = 4;
+	private static final int PACKED_STATE_SHIFT = 4;
+	
+	/**
+	 * Whether or not each cell has a mine, in row-major order
+	 */
+	private final long[] mines;
+	
+	/**
+	 * Index within {@link #runCols} and {@link #runStates} of the first run of each row, followed by the amount of
+	 * runs. Null if states are packed
+	 */
+	private final int[] rowRuns;
+	
+	/**
+	 * First column and state (its ordinal) of every run, row by row
+	 */
+	private final int[] runCols;
+	private final byte[] runStates;
+	
+	/**
+	 * State (its ordinal) of each cell in four bits, in row-major order. Null if states are kept as runs
+	 */
+	private final long[] packedStates;
+	
+	/**
+	 * Initializes a copy of the given board
+	 */
+	FinishedBoard(Board board) {
+		super(board.getRowCount(), board.getColCount());
+		
+		int rowCount = board.getRowCount();
+		int colCount = board.getColCount();
+		long cellCount = (long) rowCount * colCount;
+		
+		this.mines = new long[(int) ((cellCount + Long.SIZE - 1) >>> 6)];
+		long runCount = 0;
+		
+		for (int row = 0; row < rowCount; row++) {
+			State runState = null;
+			
+			for (int col = 0; col < colCount; col++) {
+				byte cell = board.get(row, col);
+				
+				if (isMined(cell)) {
+					long index = (long) row * colCount + col;
+					mines[(int) (index >>> 6)] |= 1L << index;
+				}
+				
+				if (state(cell) != runState) {
+					runState = state(cell);
+					runCount++;
+				}
+			}
+		}
+		
+		long runsSize = runCount * (Integer.BYTES + 1) + (rowCount + 1L) * Integer.BYTES;
+		
+		if (runsSize <= cellCount * PACKED_STATE_BITS / Byte.SIZE) {
+			this.rowRuns = new int[rowCount + 1];
+			this.runCols = new int[(int) runCount];
+			this.runStates = new byte[(int) runCount];
+			this.packedStates = null;
+			
+			int runIndex = 0;
+			
+			for (int row = 0; row < rowCount; row++) {
+				rowRuns[row] = runIndex;
+				State runState = null;
+				
+				for (int col = 0; col < colCount; col++) {
+					State state = board.getState(row, col);
+					
+					if (state != runState) {
+						runState = state;
+						runCols[runIndex] = col;
+						runStates[runIndex] = (byte) state.ordinal();
+						runIndex++;
+					}
+				}
+			}
+			
+			rowRuns[rowCount] = runIndex;
+		} else {
+			this.rowRuns = null;
+			this.runCols = null;
+			this.runStates = null;
+			this.packedStates = new long[(int) ((cellCount + (1 << PACKED_STATE_SHIFT) - 1) >>> PACKED_STATE_SHIFT)];
+			
+			for (int row = 0; row < rowCount; row++) {
+				for (int col = 0; col < colCount; col++) {
+					long index = (long) row * colCount + col;
+					packedStates[(int) (index >>> PACKED_STATE_SHIFT)] |= (long) board.getState(row, col).ordinal() << (index * PACKED_STATE_BITS);
+				}
+			}
+		}
+	}
+	
+	@Override
+	byte get(int row, int col) {
+		return pack(getState(row, col), isMined(row, col), getAdjacentMines(row, col));
+	}
+	
+	/**
+	 * The board never changes
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	void set(int row, int col, byte cell) {
+		throw new UnsupportedOperationException("Board of a finished game can't change");
+	}
+	
+	/**
+	 * Chunks never change, while the board's versions don't match those of the board it copied
+	 */
+	@Override
+	long getChunkChangeCount(int row, int col) {
+		return 0;
+	}
+	
+	@Override
+	State getState(int row, int col) {
+		if (packedStates != null) {
+			long index = (long) row * getColCount() + col;
+			return STATES[(int) (packedStates[(int) (index >>> PACKED_STATE_SHIFT)] >>> (index * PACKED_STATE_BITS)) & 0x0F];
+		}
+		
+		// the last run of the row that starts at or before the column (every row starts with a run)
+		int runIndex = Arrays.binarySearch(runCols, rowRuns[row], rowRuns[row + 1], col);
+		return STATES[runStates[runIndex >= 0 ? runIndex : -runIndex - 2]];
+	}
+	
+	@Override
+	boolean isMined(int row, int col) {
+		long index = (long) row * getColCount() + col;
+		return (mines[(int) (index >>> 6)] & 1L << index) != 0;
+	}
+	
+	@Override
+	int getAdjacentMines(int row, int col) {
+		int adjacentMines = 0;
+		
+		for (int neighbourRow = Math.max(row - 1, 0); neighbourRow <= Math.min(row + 1, getRowCount() - 1); neighbourRow++) {
+			for (int neighbourCol = Math.max(col - 1, 0); neighbourCol <= Math.min(col + 1, getColCount() - 1); neighbourCol++) {
+				if ((neighbourRow != row || neighbourCol != col) && isMined(neighbourRow, neighbourCol)) {
+					adjacentMines++;
+				}
+			}
+		}
+		
+		return adjacentMines;
+	}
+	
+	/**
+	 * The board is already as compact as it gets
+	 */
+	@Override
+	Board toFinished() {
+		return this;
+	}
+	
+	/**
+	 * Returns whether or not states are kept as runs (rather than packed)
+	 */
+	boolean hasStateRuns() {
+		return rowRuns != null;
+	}
+}
@@ -1,12 +1,16 @@
 package ar.com.rbo.minesweeper.domain;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.List;
 import java.util.UUID;
-import java.util.stream.IntStream;
+import java.util.concurrent.ThreadLocalRandom;
 
+import com.google.common.annotations.VisibleForTesting;
+
+import ar.com.rbo.minesweeper.domain.BoardPool.PooledBoard;
 import ar.com.rbo.minesweeper.domain.Cell.State;
 
 /**
@@ -14,6 +18,51 @@ import ar.com.rbo.minesweeper.domain.Cell.State;
  */
 public class Game {
 	
+	private static final BoardGenerator GENERATOR = new BoardGenerator();
+	
+	/**
+	 * Size above which the buffer of changes is dropped instead of being reused by the next move
+	 */
+	private static final int MAX_RETAINED_CHANGES = 1024;
+	
+	/**
+	 * Cells changed by a move (or batch of moves) above which they are no longer tracked one by one, so that cascades
+	 * over boards bigger than the heap (see {@link MappedBoard}) don't track more cells than the heap holds
+	 */
+	private static final int MAX_TRACKED_CHANGES = 1 << 20;
+	
+	/**
+	 * Size (per side) of the square chunks the board is split in, see {@link #getChunkVersion(int, int)}
+	 */
+	public static final int CHUNK_SIZE = Board.CHUNK_SIZE;
+	
+	/**
+	 * Default amount of cells above which huge reveal cascades continue in parallel (it can be set with the
+	 * "minesweeper.reveal.parallelThreshold" system property)
+	 */
+	private static final long PARALLEL_REVEAL_THRESHOLD = Long.getLong("minesweeper.reveal.parallelThreshold", 10_000_000);
+	
+	/**
+	 * Cells a cascade reveals sequentially before continuing in parallel, so that small cascades stay sequential
+	 */
+	private static final int SEQUENTIAL_REVEAL_BUDGET = 1 << 16;
+	
+	/**
+	 * Whether or not the regions reveal cascades open are indexed when mines are placed on dense boards in memory (it
+	 * can be set with the "minesweeper.reveal.zeroRegionIndex" system property), see {@link ZeroRegionIndex}. The index
+	 * takes about 8 bytes per cell on the heap (an int per cell plus another one per cell without a mine), eight times
+	 * the board itself, until the game finishes. Boards in mapped files are never indexed
+	 */
+	private static final boolean ZERO_REGION_INDEX = Boolean.getBoolean("minesweeper.reveal.zeroRegionIndex");
+	
+	/**
+	 * Flags of a game within a snapshot
+	 */
+	private static final int SPARSE = 1;
+	private static final int MINES_PLACED = 2;
+	
+	private static final GameState[] GAME_STATES = GameState.values();
+	
 	/**
 	 * Possible states of the game
 	 */
@@ -45,109 +94,257 @@ public class Game {
 	private int colCount;
 	private int mineCount;
 	
+	/**
+	 * Whether or not the board is sparse (see {@link SparseBoard})
+	 */
+	private boolean sparse;
+	
+	/**
+	 * Seed the distribution of mines was generated from
+	 */
+	private long seed;
+	
+	/**
+	 * Whether or not mines were placed, they may be deferred until the first reveal (see
+	 * {@link #Game(int, int, int, boolean, long, boolean)})
+	 */
+	private boolean minesPlaced;
+	
+	/**
+	 * Cell the mines were placed around, if their placement was deferred until the first reveal
+	 */
+	private int safeRow = BoardGenerator.NO_SAFE_CELL;
+	private int safeCol = BoardGenerator.NO_SAFE_CELL;
+	
 	/**
 	 * Counter for empty cells revealed
 	 */
-	private int emptyCellsRevealed;
+	private long emptyCellsRevealed;
+	
+	/**
+	 * Version of the board, increased with every move
+	 */
+	private long version;
+	
+	/**
+	 * (row, col) pairs of the cells whose state was changed by the last move (or batch of moves), along with the amount
+	 * of pairs and the version of the board before the changes
+	 */
+	private int[] changes;
+	private int changeCount;
+	private long changesBaseVersion;
+	
+	/**
+	 * Whether or not every cell changed by the last move (or batch of moves) was tracked
+	 */
+	private boolean changesTracked = true;
+	
+	/**
+	 * Whether or not changes are being accumulated across the moves of a batch
+	 */
+	private boolean batching;
+	
+	/**
+	 * State of the board that the player can see along with the distribution of mines within it
+	 */
+	private Board board;
 	
 	/**
-	 * State of the board that the player can see
+	 * Pending (row, col) seeds of the reveal cascade, kept between reveals so it is only grown once
 	 */
-	private Cell[][] board;
+	private int[] revealSeeds;
 	
 	/**
-	 * Distribution of mines within the board
+	 * Amount of cells above which huge reveal cascades continue in parallel
 	 */
-	private boolean[][] mines;
+	private long parallelRevealThreshold = PARALLEL_REVEAL_THRESHOLD;
+	
+	/**
+	 * Regions reveal cascades open, null unless they are indexed
+	 */
+	private ZeroRegionIndex zeroRegions;
+	
+	/**
+	 * Whether or not the memory held by the board was freed
+	 */
+	private boolean released;
+	
+	/**
+	 * Last time (see {@link System#nanoTime()}) the game was used, after which it may be evicted from memory (see
+	 * {@link GameService#evictGames()})
+	 */
+	private volatile long accessTime = System.nanoTime();
 	
 	/**
 	 * Initializes a game of minesweeper
 	 */
 	public Game(int rowCount, int colCount, int mineCount) {
-		this.id = UUID.randomUUID();
+		this(rowCount, colCount, mineCount, false);
+	}
+	
+	/**
+	 * Initializes a game of minesweeper, optionally with a sparse board meant for enormous, mostly empty games (boards
+	 * too big to be held in an array are always sparse, unless they can be kept in mapped files, see
+	 * {@link MappedBoard})
+	 */
+	public Game(int rowCount, int colCount, int mineCount, boolean sparse) {
+		this(rowCount, colCount, mineCount, sparse, ThreadLocalRandom.current().nextLong());
+	}
+	
+	/**
+	 * Initializes a game of minesweeper whose mines are generated from the given seed, so that games with the same
+	 * seed and parameters have the same mines
+	 */
+	public Game(int rowCount, int colCount, int mineCount, boolean sparse, long seed) {
+		this(rowCount, colCount, mineCount, sparse, seed, null, null);
+	}
+	
+	/**
+	 * Initializes a game of minesweeper whose mines are generated from the given seed, optionally deferring their
+	 * placement until the first reveal so that neither the revealed cell nor its neighbours have mines (the first
+	 * reveal always opens a region and games abandoned before it cost nearly nothing)
+	 */
+	public Game(int rowCount, int colCount, int mineCount, boolean sparse, long seed, boolean safeFirstReveal) {
+		this(rowCount, colCount, mineCount, sparse, seed, safeFirstReveal ? new SparseBoard(rowCount, colCount, new LongHashSet(0)) : null, null);
+		this.minesPlaced = !safeFirstReveal;
+	}
+	
+	/**
+	 * Initializes a game of minesweeper that was already created with the given id and creation date, before the
+	 * application was restarted (see {@link MoveLog})
+	 */
+	Game(UUID id, Date creationDate, int rowCount, int colCount, int mineCount, boolean sparse, long seed, boolean safeFirstReveal) {
+		this(rowCount, colCount, mineCount, sparse, seed, safeFirstReveal);
+		this.id = id;
+		this.creationDate = creationDate;
+	}
+	
+	/**
+	 * Initializes a game of minesweeper with a dense board that was already generated from the given seed (see
+	 * {@link BoardPool})
+	 */
+	Game(int rowCount, int colCount, int mineCount, long seed, Board board) {
+		this(rowCount, colCount, mineCount, false, seed, board, null);
+	}
+	
+	/**
+	 * Initializes a game of minesweeper with a board taken from the pool, along with the index of its regions if the
+	 * pool built one (see {@link BoardPool})
+	 */
+	Game(int rowCount, int colCount, int mineCount, PooledBoard pooledBoard) {
+		this(rowCount, colCount, mineCount, false, pooledBoard.seed, pooledBoard.board, pooledBoard.zeroRegions);
+	}
+	
+	/**
+	 * Initializes a game of minesweeper, generating its board unless one is received, and indexing its regions unless
+	 * an index is received
+	 */
+	private Game(int rowCount, int colCount, int mineCount, boolean sparse, long seed, Board board, ZeroRegionIndex zeroRegions) {
+		this(UUID.randomUUID(), new Date(), rowCount, colCount, mineCount, sparse, seed);
 		
-		this.creationDate = new Date();
+		if (board != null) {
+			this.board = board;
+		} else {
+			initBoard();
+		}
+		
+		this.minesPlaced = true;
+		
+		if (zeroRegions != null) {
+			this.zeroRegions = zeroRegions;
+		} else if (shouldIndexZeroRegions(this.board)) {
+			indexZeroRegions();
+		}
+	}
+	
+	/**
+	 * Initializes a game of minesweeper in progress, leaving the board to the caller
+	 */
+	private Game(UUID id, Date creationDate, int rowCount, int colCount, int mineCount, boolean sparse, long seed) {
+		this.id = id;
+		
+		this.creationDate = creationDate;
 		
 		this.rowCount = rowCount;
 		this.colCount = colCount;
 		this.mineCount = mineCount;
+		this.sparse = sparse || !GENERATOR.canBeDense((long) rowCount * colCount);
+		this.seed = seed;
+		
+		// rejected right away, as mines may only be placed on the first reveal
+		if (this.sparse && mineCount > LongHashSet.MAX_SIZE) {
+			throw new IllegalArgumentException("Sparse boards can't have more than " + LongHashSet.MAX_SIZE + " mines");
+		}
 		
 		this.emptyCellsRevealed = 0;
 		
 		this.state = GameState.IN_PROGRESS;
-
-		initBoard();
 	}
 	
 	/**
 	 * Initializes the board with all unknown cells and a random distribution of mines
 	 */
 	private void initBoard() {
-		this.board = new Cell[rowCount][colCount];
-		this.mines = new boolean[rowCount][colCount];
-		
-		List<Boolean> cells = new ArrayList<>(rowCount * colCount);
-		
-		IntStream.range(0, rowCount * colCount - mineCount).forEach(cellIndex -> cells.add(Boolean.FALSE));
-		IntStream.range(0, mineCount).forEach(cellIndex -> cells.add(Boolean.TRUE));
-		
-		Collections.shuffle(cells);
-		
-		IntStream.range(0, rowCount * colCount)
-			.forEach(cellIndex -> {
-				int row = cellIndex / colCount;
-				int col = cellIndex - row * colCount;
-				board[row][col] = new Cell(Cell.State.UNKNOWN, countAdjacentMines(cells, row, col));
-				mines[row][col] = cells.get(cellIndex);
-			});
+		this.board = generateBoard();
+	}
+	
+	/**
+	 * Generates the board from the seed, around the safe cell (if any)
+	 */
+	private Board generateBoard() {
+		return sparse ?
+				GENERATOR.generateSparse(rowCount, colCount, mineCount, seed, safeRow, safeCol) :
+				GENERATOR.generate(rowCount, colCount, mineCount, seed, safeRow, safeCol);
 	}
 	
 	/**
-	 * Returns the number of adjacent mines of the cell 
+	 * Replaces the board without mines by one generated from the seed, without mines around the given cell, keeping
+	 * the state of the cells that were flagged or marked. The amount of mines becomes the amount actually placed, as
+	 * the game is won once every other cell is revealed and mines that don't fit around the safe cells are left out
 	 */
-	private int countAdjacentMines(List<Boolean> cells, int row, int col) {
-		int adjacentMines = 0;
+	private void placeMines(int safeRow, int safeCol) {
+		this.safeRow = safeRow;
+		this.safeCol = safeCol;
+		this.mineCount = GENERATOR.countMines(rowCount, colCount, mineCount, safeRow, safeCol);
 		
-		if (row > 0 && col > 0 && cells.get(toCellIndex(row - 1, col - 1))) {
-			adjacentMines++;
-		}
-
-		if (row > 0 && cells.get(toCellIndex(row - 1, col))) {
-			adjacentMines++;
-		}
-
-		if (row > 0 && col < colCount - 1 && cells.get(toCellIndex(row - 1, col + 1))) {
-			adjacentMines++;
-		}
+		Board placedBoard = generateBoard();
 		
-		if (col < colCount - 1 && cells.get(toCellIndex(row, col + 1))) {
-			adjacentMines++;
-		}
+		((SparseBoard) board).copyStatesTo(placedBoard);
 		
-		if (col > 0 && cells.get(toCellIndex(row, col - 1))) {
-			adjacentMines++;
-		}
+		board = placedBoard;
+		minesPlaced = true;
 		
-		if (row < rowCount - 1 && col > 0 && cells.get(toCellIndex(row + 1, col - 1))) {
-			adjacentMines++;
-		}
-
-		if (row < rowCount - 1 && cells.get(toCellIndex(row + 1, col))) {
-			adjacentMines++;
+		if (shouldIndexZeroRegions(board)) {
+			indexZeroRegions();
 		}
-
-		if (row < rowCount - 1 && col < colCount - 1 && cells.get(toCellIndex(row + 1, col + 1))) {
-			adjacentMines++;
-		}
-
-		return adjacentMines;
 	}
 	
 	/**
-	 * Maps the bidimensional coordinates in the board to a monodimensional coordinate of the cell array
+	 * Returns whether or not the regions of a board with mines placed are indexed (see {@link ZeroRegionIndex})
 	 */
-	private int toCellIndex(int row, int col) {
-		return col + row * colCount;
+	static boolean shouldIndexZeroRegions(Board board) {
+		return ZERO_REGION_INDEX && !(board instanceof SparseBoard || board instanceof MappedBoard);
+	}
+	
+	/**
+	 * Indexes the regions reveal cascades open, so that a reveal into a region nobody touched yet opens it at once
+	 * (mines must be placed)
+	 */
+	@VisibleForTesting
+	void indexZeroRegions() {
+		zeroRegions = new ZeroRegionIndex(board);
+		
+		for (int region = 0; region < zeroRegions.getRegionCount(); region++) {
+			for (int cellIndex = 0; cellIndex < zeroRegions.getCellCount(region); cellIndex++) {
+				int row = zeroRegions.getRow(region, cellIndex);
+				int col = zeroRegions.getCol(region, cellIndex);
+				State state = board.getState(row, col);
+				
+				if (State.UNKNOWN != state) {
+					zeroRegions.stateChanged(row, col, State.UNKNOWN, state);
+				}
+			}
+		}
 	}
 	
 	/**
@@ -172,12 +369,51 @@ public class Game {
 	 */
 	public void reveal(int row, int col) throws IllegalAccessException {
 		validateMove(row, col);
+		startMove();
 		
-		if (mines[row][col]) {
-			board[row][col] = board[row][col].changeState(State.MINED);
-			state = GameState.LOST;
-		} else {
-			revealRecursive(row, col);
+		if (!minesPlaced) {
+			placeMines(row, col);
+		}
+		
+		open(row, col);
+		
+		if (GameState.IN_PROGRESS != state) {
+			finish();
+		}
+	}
+	
+	/**
+	 * Reveals every neighbour of a revealed cell that isn't revealed or flagged (as a middle click does) as long as the
+	 * amount of flagged neighbours matches the amount of adjacent mines, otherwise nothing changes (not even the
+	 * version). If a neighbour turns out to be mined (because of a wrong flag) the game is lost
+	 * 
+	 * @throws IllegalAccessException if game is no longer in progress (player either lost or won)
+	 */
+	public void chord(int row, int col) throws IllegalAccessException {
+		validateMove(row, col);
+		
+		byte cell = board.get(row, col);
+		
+		if (State.EMPTY != Board.state(cell) || countFlaggedNeighbours(row, col) != Board.adjacentMines(cell) || !hasClosedNeighbours(row, col)) {
+			return;
+		}
+		
+		startMove();
+		
+		for (int neighbourRow = row - 1; neighbourRow <= row + 1; neighbourRow++) {
+			for (int neighbourCol = col - 1; neighbourCol <= col + 1; neighbourCol++) {
+				if (GameState.IN_PROGRESS == state && isClosed(neighbourRow, neighbourCol)) {
+					if (State.MARKED == board.getState(neighbourRow, neighbourCol)) {
+						unmark(neighbourRow, neighbourCol);
+					}
+					
+					open(neighbourRow, neighbourCol);
+				}
+			}
+		}
+		
+		if (GameState.IN_PROGRESS != state) {
+			finish();
 		}
 	}
 	
@@ -188,7 +424,8 @@ public class Game {
 	 */
 	public void flag(int row, int col) throws IllegalAccessException {
 		validateMove(row, col);
-		board[row][col] = board[row][col].changeState(State.FLAGGED);
+		startMove();
+		changeState(row, col, State.FLAGGED);
 	}
 	
 	/**
@@ -198,7 +435,8 @@ public class Game {
 	 */
 	public void mark(int row, int col) throws IllegalAccessException {
 		validateMove(row, col);
-		board[row][col] = board[row][col].changeState(State.MARKED);
+		startMove();
+		changeState(row, col, State.MARKED);
 	}
 	
 	/**
@@ -208,7 +446,8 @@ public class Game {
 	 */
 	public void clear(int row, int col) throws IllegalAccessException {
 		validateMove(row, col);
-		board[row][col] = board[row][col].changeState(State.UNKNOWN);
+		startMove();
+		changeState(row, col, State.UNKNOWN);
 	}
 	
 	/**
@@ -218,6 +457,50 @@ public class Game {
 		return state;
 	}
 	
+	/**
+	 * Returns the version of the board, which is increased with every move made
+	 */
+	public long getVersion() {
+		return version;
+	}
+	
+	/**
+	 * Returns the version of the board the changes of the last move (or batch of moves) were made on
+	 */
+	public long getChangesBaseVersion() {
+		return changesBaseVersion;
+	}
+	
+	/**
+	 * Returns the amount of cells whose state was changed by the last move (or batch of moves), 0 if they weren't
+	 * tracked (see {@link #areChangesTracked()})
+	 */
+	public int getChangeCount() {
+		return changeCount;
+	}
+	
+	/**
+	 * Returns whether or not the cells changed by the last move (or batch of moves) were tracked, otherwise they were
+	 * too many to be listed and the board has to be read again
+	 */
+	public boolean areChangesTracked() {
+		return changesTracked;
+	}
+	
+	/**
+	 * Returns the row of one of the cells changed by the last move (or batch of moves)
+	 */
+	public int getChangedRow(int changeIndex) {
+		return changes[changeIndex * 2];
+	}
+	
+	/**
+	 * Returns the column of one of the cells changed by the last move (or batch of moves)
+	 */
+	public int getChangedCol(int changeIndex) {
+		return changes[changeIndex * 2 + 1];
+	}
+	
 	/**
 	 * Returns the amount of rows of the board
 	 */
@@ -239,62 +522,581 @@ public class Game {
 		return mineCount;
 	}
 	
+	/**
+	 * Returns whether or not the game has a sparse board
+	 */
+	public boolean isSparse() {
+		return sparse;
+	}
+	
+	/**
+	 * Returns the seed the distribution of mines was generated from
+	 */
+	public long getSeed() {
+		return seed;
+	}
+	
 	/**
 	 * Returns a cell from the board
 	 */
 	public Cell getCell(int row, int col) {
-		return board[row][col];
+		byte cell = board.get(row, col);
+		return new Cell(Board.state(cell), Board.adjacentMines(cell));
 	}
 	
 	/**
-	 * Returns a snapshot of the board's state
+	 * Returns the version of the chunk that holds a cell, which is increased whenever any of its cells changes. It can
+	 * be read before the cells of the chunk to tell whether they have to be read again
 	 */
-	public Cell[][] getBoard() {
-		Cell[][] board = new Cell[rowCount][colCount];
+	public long getChunkVersion(int row, int col) {
+		return board.getChunkVersion(row, col);
+	}
+	
+	/**
+	 * Returns the state of a cell as seen by the player (without creating a {@link Cell})
+	 */
+	public Cell.State getCellState(int row, int col) {
+		return board.getState(row, col);
+	}
+	
+	/**
+	 * Returns the amount of mines adjacent to a cell as seen by the player, that is, -1 unless the cell was revealed
+	 * (without creating a {@link Cell})
+	 */
+	public int getRevealedAdjacentMines(int row, int col) {
+		byte cell = board.get(row, col);
+		return Cell.State.EMPTY == Board.state(cell) ? Board.adjacentMines(cell) : -1;
+	}
+	
+	/**
+	 * Returns whether or not a cell has a mine
+	 */
+	@VisibleForTesting
+	boolean isMined(int row, int col) {
+		return board.isMined(row, col);
+	}
+	
+	/**
+	 * Frees the memory held by the board (see {@link DirectBoard}), the game can't be used afterwards
+	 */
+	void release() {
+		released = true;
+		board.release();
+	}
+	
+	/**
+	 * Returns whether or not the memory held by the board was freed
+	 */
+	boolean isReleased() {
+		return released;
+	}
+	
+	/**
+	 * Returns whether or not the board is kept in the compact read-only form of finished games (see
+	 * {@link FinishedBoard})
+	 */
+	@VisibleForTesting
+	boolean isCompacted() {
+		return board instanceof FinishedBoard;
+	}
+	
+	/**
+	 * Returns the last time the game was used (see {@link System#nanoTime()})
+	 */
+	long getAccessTime() {
+		return accessTime;
+	}
+	
+	/**
+	 * Records that the game was just used
+	 */
+	void touch() {
+		accessTime = System.nanoTime();
+	}
+	
+	/**
+	 * Writes the game to a snapshot: its parameters, its progress and the states of its cells (see
+	 * {@link Board#writeStates(DataOutput)}), from which {@link #readSnapshot(ByteBuffer)} restores it
+	 * 
+	 * @throws IOException if the snapshot can't be written
+	 */
+	void writeSnapshot(DataOutput out) throws IOException {
+		out.writeLong(id.getMostSignificantBits());
+		out.writeLong(id.getLeastSignificantBits());
+		out.writeLong(creationDate.getTime());
+		out.writeInt(rowCount);
+		out.writeInt(colCount);
+		out.writeInt(mineCount);
+		out.writeByte((sparse ? SPARSE : 0) | (minesPlaced ? MINES_PLACED : 0));
+		out.writeLong(seed);
+		out.writeInt(safeRow);
+		out.writeInt(safeCol);
+		out.writeByte(state.ordinal());
+		out.writeLong(version);
+		out.writeLong(emptyCellsRevealed);
+		
+		board.writeStates(out);
+	}
+	
+	/**
+	 * Restores a game written to a snapshot by {@link #writeSnapshot(DataOutput)}, leaving the buffer right after it.
+	 * Its board is only generated once it's used (see {@link DeferredBoard}) and keeps a view of the buffer until then
+	 */
+	static Game readSnapshot(ByteBuffer snapshot) {
+		UUID id = new UUID(snapshot.getLong(), snapshot.getLong());
+		Date creationDate = new Date(snapshot.getLong());
+		int rowCount = snapshot.getInt();
+		int colCount = snapshot.getInt();
+		int mineCount = snapshot.getInt();
+		byte flags = snapshot.get();
+		long seed = snapshot.getLong();
+		int safeRow = snapshot.getInt();
+		int safeCol = snapshot.getInt();
+		GameState state = GAME_STATES[snapshot.get()];
+		long version = snapshot.getLong();
+		long emptyCellsRevealed = snapshot.getLong();
+		
+		int statesStart = snapshot.position();
+		Board.skipStates(snapshot);
+		
+		ByteBuffer states = snapshot.duplicate();
+		states.position(statesStart).limit(snapshot.position());
+		states = states.slice();
+		
+		boolean sparse = (flags & SPARSE) != 0;
+		boolean minesPlaced = (flags & MINES_PLACED) != 0;
+		
+		// nothing else is generated, so restoring a game costs little more than reading it
+		Game game = new Game(id, creationDate, rowCount, colCount, mineCount, sparse, seed);
+		
+		if (minesPlaced) {
+			game.board = new DeferredBoard(rowCount, colCount, game::generateBoard, states, GameState.IN_PROGRESS != state);
+		} else {
+			game.board = new SparseBoard(rowCount, colCount, new LongHashSet(0));
+			game.board.readStates(states);
+		}
+		
+		game.minesPlaced = minesPlaced;
+		game.safeRow = safeRow;
+		game.safeCol = safeCol;
+		game.state = state;
+		game.version = version;
+		game.changesBaseVersion = version;
+		game.emptyCellsRevealed = emptyCellsRevealed;
+		
+		return game;
+	}
+	
+	/**
+	 * Changes the amount of cells above which huge reveal cascades continue in parallel
+	 */
+	@VisibleForTesting
+	void setParallelRevealThreshold(long parallelRevealThreshold) {
+		this.parallelRevealThreshold = parallelRevealThreshold;
+	}
+	
+	/**
+	 * Returns a read-only view of the board's state as seen by the player. Nothing is copied, so the view reflects any
+	 * move made after it was created
+	 */
+	public BoardView getBoard() {
+		return new RegionView(0, 0, rowCount, colCount);
+	}
+	
+	/**
+	 * Returns a read-only view (like {@link #getBoard()}) of a rectangular region of the board, whose coordinates are
+	 * relative to the region's top left cell. The region is clipped to the limits of the board
+	 * 
+	 * @throws IllegalArgumentException if the top left cell is outside the board or the region is empty
+	 */
+	public BoardView getBoard(int row, int col, int rowCount, int colCount) {
+		if (row < 0 || row >= this.rowCount || col < 0 || col >= this.colCount) {
+			throw new IllegalArgumentException("Cell coordinates (" + row + ", " + col + ") outside existing board");
+		}
+		
+		if (rowCount < 1 || colCount < 1) {
+			throw new IllegalArgumentException("Region must have at least one row and one column");
+		}
+		
+		return new RegionView(row, col, Math.min(rowCount, this.rowCount - row), Math.min(colCount, this.colCount - col));
+	}
+	
+	/**
+	 * View of a rectangular region of the board
+	 */
+	private class RegionView implements BoardView {
 		
-		IntStream.range(0, rowCount)
-			.forEach(row -> {
-				IntStream.range(0, colCount)
-					.forEach(col -> {
-						Cell cell = getCell(row, col);
-						board[row][col] = new Cell(cell.getState(), Cell.State.EMPTY == cell.getState() ? cell.getAdjacentMines() : -1);
-					});
-			});
+		private final int firstRow;
+		private final int firstCol;
+		private final int rowCount;
+		private final int colCount;
 		
-		return board;
+		private RegionView(int firstRow, int firstCol, int rowCount, int colCount) {
+			this.firstRow = firstRow;
+			this.firstCol = firstCol;
+			this.rowCount = rowCount;
+			this.colCount = colCount;
+		}
+
+		@Override
+		public int getRowCount() {
+			return rowCount;
+		}
+
+		@Override
+		public int getColCount() {
+			return colCount;
+		}
+
+		@Override
+		public Cell.State getState(int row, int col) {
+			return getCellState(firstRow + row, firstCol + col);
+		}
+
+		@Override
+		public int getAdjacentMines(int row, int col) {
+			return getRevealedAdjacentMines(firstRow + row, firstCol + col);
+		}
+	}
+	
+	/**
+	 * Reveals a cell, losing the game if it has a mine (mines must be placed)
+	 */
+	private void open(int row, int col) {
+		if (board.isMined(row, col)) {
+			changeState(row, col, State.MINED);
+			state = GameState.LOST;
+		} else {
+			revealCascade(row, col);
+		}
 	}
 	
 	/**
-	 * Recursively reveals all adjacent cells that need to be revealed
+	 * Returns the amount of flagged neighbours of a cell
 	 */
-	private void revealRecursive(int row, int col) {
-		if (shouldBeRevealed(row, col)) {
-			board[row][col] = board[row][col].changeState(State.EMPTY);
-			emptyCellsRevealed++;
+	private int countFlaggedNeighbours(int row, int col) {
+		int flaggedNeighbours = 0;
+		
+		for (int neighbourRow = row - 1; neighbourRow <= row + 1; neighbourRow++) {
+			for (int neighbourCol = col - 1; neighbourCol <= col + 1; neighbourCol++) {
+				if (isInside(neighbourRow, neighbourCol) && State.FLAGGED == board.getState(neighbourRow, neighbourCol)) {
+					flaggedNeighbours++;
+				}
+			}
+		}
+		
+		return flaggedNeighbours;
+	}
+	
+	/**
+	 * Takes the question mark off a cell that's about to be opened, without tracking it as a change (opening the cell
+	 * changes it again)
+	 */
+	private void unmark(int row, int col) {
+		board.setState(row, col, State.UNKNOWN);
+		
+		if (zeroRegions != null) {
+			zeroRegions.stateChanged(row, col, State.MARKED, State.UNKNOWN);
+		}
+	}
+	
+	/**
+	 * Returns whether or not any neighbour of a cell is neither revealed nor flagged
+	 */
+	private boolean hasClosedNeighbours(int row, int col) {
+		for (int neighbourRow = row - 1; neighbourRow <= row + 1; neighbourRow++) {
+			for (int neighbourCol = col - 1; neighbourCol <= col + 1; neighbourCol++) {
+				if (isClosed(neighbourRow, neighbourCol)) {
+					return true;
+				}
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Returns whether or not a cell is inside the board and it's neither revealed nor flagged (UNKNOWN or MARKED)
+	 */
+	private boolean isClosed(int row, int col) {
+		if (!isInside(row, col)) {
+			return false;
+		}
+		
+		State cellState = board.getState(row, col);
+		
+		return State.UNKNOWN == cellState || State.MARKED == cellState;
+	}
+	
+	/**
+	 * Returns whether or not a cell is inside the board
+	 */
+	private boolean isInside(int row, int col) {
+		return row >= 0 && row < rowCount && col >= 0 && col < colCount;
+	}
+	
+	/**
+	 * Reveals all cells reachable from the given one that need to be revealed. A scanline fill over an explicit
+	 * seed stack is used (instead of recursion) so that cascades over huge boards can't overflow the thread's stack.
+	 * Cascades on dense boards above the parallel threshold continue in parallel (see {@link ParallelReveal}) once
+	 * they revealed enough cells. Regions that were indexed and nobody touched yet are opened at once
+	 */
+	private void revealCascade(int row, int col) {
+		if (!shouldBeRevealed(row, col)) {
+			return;
+		}
+		
+		if (zeroRegions != null && zeroRegions.isUntouched(zeroRegions.getRegion(row, col))) {
+			revealRegion(zeroRegions.getRegion(row, col));
+			return;
+		}
+		
+		boolean parallel = board instanceof ChunkedBoard && (long) rowCount * colCount > parallelRevealThreshold;
+		long revealed = 0;
+		int seedCount = pushSeed(0, row, col);
+		
+		while (seedCount > 0) {
+			if (parallel && revealed > SEQUENTIAL_REVEAL_BUDGET) {
+				revealInParallel(seedCount);
+				return;
+			}
+			
+			seedCount -= 2;
+			int seedRow = revealSeeds[seedCount];
+			int seedCol = revealSeeds[seedCount + 1];
 			
-			if (emptyCellsRevealed == rowCount * colCount - mineCount) {
-				state = GameState.WON;
+			if (!shouldBeRevealed(seedRow, seedCol)) {
+				continue;
 			}
 			
-			revealRecursive(row + 1, col);
-			revealRecursive(row - 1, col);
-			revealRecursive(row, col + 1);
-			revealRecursive(row, col - 1);
+			int left = seedCol;
+			while (shouldBeRevealed(seedRow, left - 1)) {
+				left--;
+			}
+			
+			int right = seedCol;
+			while (shouldBeRevealed(seedRow, right + 1)) {
+				right++;
+			}
+			
+			for (int spanCol = left; spanCol <= right; spanCol++) {
+				revealCell(seedRow, spanCol);
+			}
+			
+			revealed += right - left + 1;
+			
+			seedCount = pushSpanSeeds(seedCount, seedRow - 1, left, right);
+			seedCount = pushSpanSeeds(seedCount, seedRow + 1, left, right);
+		}
+	}
+	
+	/**
+	 * Reveals every cell of an indexed region, which are all UNKNOWN
+	 */
+	private void revealRegion(int region) {
+		int cellCount = zeroRegions.getCellCount(region);
+		
+		for (int cellIndex = 0; cellIndex < cellCount; cellIndex++) {
+			int row = zeroRegions.getRow(region, cellIndex);
+			int col = zeroRegions.getCol(region, cellIndex);
+			
+			board.setState(row, col, State.EMPTY);
+			recordChange(row, col);
+		}
+		
+		zeroRegions.regionRevealed(region);
+		emptyCellsRevealed += cellCount;
+		
+		if (emptyCellsRevealed == (long) rowCount * colCount - mineCount) {
+			state = GameState.WON;
+		}
+	}
+	
+	/**
+	 * Reveals in parallel every cell reachable from the pending seeds, keeping track of the revealed cells
+	 */
+	private void revealInParallel(int seedCount) {
+		long revealed = 0;
+		
+		for (int[] cells : new ParallelReveal((ChunkedBoard) board).reveal(revealSeeds, seedCount)) {
+			for (int cellIndex = 0; cellIndex < cells.length; cellIndex += 2) {
+				recordChange(cells[cellIndex], cells[cellIndex + 1]);
+				
+				if (zeroRegions != null) {
+					zeroRegions.stateChanged(cells[cellIndex], cells[cellIndex + 1], State.UNKNOWN, State.EMPTY);
+				}
+			}
+			
+			revealed += cells.length / 2;
+		}
+		
+		emptyCellsRevealed += revealed;
+		
+		if (emptyCellsRevealed == (long) rowCount * colCount - mineCount) {
+			state = GameState.WON;
+		}
+	}
+	
+	/**
+	 * Pushes a seed for every run of cells that should be revealed within the columns [left, right] of a row
+	 */
+	private int pushSpanSeeds(int seedCount, int row, int left, int right) {
+		boolean inRun = false;
+		
+		for (int col = left; col <= right; col++) {
+			if (shouldBeRevealed(row, col)) {
+				if (!inRun) {
+					seedCount = pushSeed(seedCount, row, col);
+					inRun = true;
+				}
+			} else {
+				inRun = false;
+			}
+		}
+		
+		return seedCount;
+	}
+	
+	/**
+	 * Pushes a cell onto the seed stack (growing it if needed) and returns the new stack size
+	 */
+	private int pushSeed(int seedCount, int row, int col) {
+		if (revealSeeds == null) {
+			revealSeeds = new int[64];
+		} else if (seedCount + 2 > revealSeeds.length) {
+			revealSeeds = Arrays.copyOf(revealSeeds, revealSeeds.length * 2);
+		}
+		
+		revealSeeds[seedCount] = row;
+		revealSeeds[seedCount + 1] = col;
+		
+		return seedCount + 2;
+	}
+	
+	/**
+	 * Reveals a single empty cell and checks whether the game has been won
+	 */
+	private void revealCell(int row, int col) {
+		changeState(row, col, State.EMPTY);
+		emptyCellsRevealed++;
+		
+		if (emptyCellsRevealed == (long) rowCount * colCount - mineCount) {
+			state = GameState.WON;
 		}
 	}
 
 	/**
-	 * Returns whether or not a cell should be revealed by recursion
+	 * Returns whether or not a cell should be revealed by the cascade
 	 */
 	private boolean shouldBeRevealed(int row, int col) {
-		return 
-				row >= 0 && row < rowCount &&
-				col >= 0 && col < colCount &&
-				GameState.IN_PROGRESS == state &&
-				Cell.State.UNKNOWN == board[row][col].getState() &&
-				!mines[row][col];
+		if (row < 0 || row >= rowCount || col < 0 || col >= colCount || GameState.IN_PROGRESS != state) {
+			return false;
+		}
+		
+		byte cell = board.get(row, col);
+		
+		return Cell.State.UNKNOWN == Board.state(cell) && !Board.isMined(cell);
 	}
 
+	/**
+	 * Starts accumulating the changes of the following moves, until {@link #endBatch()} is called
+	 */
+	void startBatch() {
+		resetChanges();
+		batching = true;
+	}
+	
+	/**
+	 * Stops accumulating changes, so that every following move tracks only its own changes
+	 */
+	void endBatch() {
+		batching = false;
+	}
+	
+	/**
+	 * Drops what only moves use once the game finished, as it never changes again, and keeps its board in a compact
+	 * read-only form (see {@link Board#toFinished()}). The changes of the last move are still read, but their buffer
+	 * won't grow anymore
+	 */
+	private void finish() {
+		board = board.toFinished();
+		zeroRegions = null;
+		revealSeeds = null;
+		
+		if (changes != null) {
+			changes = Arrays.copyOf(changes, changeCount * 2);
+		}
+	}
+	
+	/**
+	 * Starts tracking the changes of a new move (unless a batch is in progress) and increases the board's version
+	 */
+	private void startMove() {
+		if (!batching) {
+			resetChanges();
+		}
+		
+		version++;
+	}
+	
+	/**
+	 * Forgets the changes tracked so far
+	 */
+	private void resetChanges() {
+		changeCount = 0;
+		changesBaseVersion = version;
+		changesTracked = true;
+		
+		// a huge cascade shouldn't keep its buffer alive for the rest of the game
+		if (changes != null && changes.length > MAX_RETAINED_CHANGES) {
+			changes = null;
+		}
+	}
+	
+	/**
+	 * Changes the state of a cell and keeps track of the change (if the state is actually different)
+	 */
+	private void changeState(int row, int col, State state) {
+		State previousState = board.getState(row, col);
+		
+		if (previousState == state) {
+			return;
+		}
+		
+		board.setState(row, col, state);
+		recordChange(row, col);
+		
+		if (zeroRegions != null) {
+			zeroRegions.stateChanged(row, col, previousState, state);
+		}
+	}
+	
+	/**
+	 * Keeps track of a changed cell
+	 */
+	private void recordChange(int row, int col) {
+		if (!changesTracked) {
+			return;
+		}
+		
+		if (changeCount == MAX_TRACKED_CHANGES) {
+			changes = null;
+			changeCount = 0;
+			changesTracked = false;
+			return;
+		}
+		
+		if (changes == null) {
+			changes = new int[16];
+		} else if (changeCount * 2 + 2 > changes.length) {
+			changes = Arrays.copyOf(changes, changes.length * 2);
+		}
+		
+		changes[changeCount * 2] = row;
+		changes[changeCount * 2 + 1] = col;
+		changeCount++;
+	}
+	
 	/**
 	 * Validates a given move
 	 *
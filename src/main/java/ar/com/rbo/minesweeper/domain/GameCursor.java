@@ -0,0 +1,89 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.util.Date;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Position of a {@link Game} within the games ordered by creation date (ties are broken by id). Used both as the key
+ * of {@link GameService}'s indexes and as the cursor of paginated listings, in the form "{creationTime}_{id}"
+ */
+public final class GameCursor implements Comparable<GameCursor> {
+	
+	private static final UUID LOWEST_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+	
+	private final long creationTime;
+	private final UUID id;
+	
+	/**
+	 * Initializes the cursor
+	 */
+	public GameCursor(long creationTime, UUID id) {
+		this.creationTime = creationTime;
+		this.id = id;
+	}
+	
+	/**
+	 * Returns the position of a game
+	 */
+	public static GameCursor of(Game game) {
+		return new GameCursor(game.getCreationDate().getTime(), game.getId());
+	}
+	
+	/**
+	 * Returns the position before every game created at the given date (or later)
+	 */
+	static GameCursor first(Date date) {
+		return new GameCursor(date.getTime(), LOWEST_ID);
+	}
+	
+	/**
+	 * Parses a cursor in the form returned by {@link #toString()}
+	 * 
+	 * @throws IllegalArgumentException if the cursor is malformed
+	 */
+	public static GameCursor parse(String cursor) {
+		int separator = cursor.indexOf('_');
+		
+		if (separator < 0) {
+			throw new IllegalArgumentException("Malformed cursor " + cursor);
+		}
+		
+		return new GameCursor(Long.parseLong(cursor.substring(0, separator)), UUID.fromString(cursor.substring(separator + 1)));
+	}
+	
+	/**
+	 * Returns the creation time of the game (in milliseconds since epoch)
+	 */
+	public long getCreationTime() {
+		return creationTime;
+	}
+	
+	/**
+	 * Returns the id of the game
+	 */
+	public UUID getId() {
+		return id;
+	}
+
+	@Override
+	public int compareTo(GameCursor other) {
+		int comparison = Long.compare(creationTime, other.creationTime);
+		return comparison != 0 ? comparison : id.compareTo(other.id);
+	}
+	
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof GameCursor && compareTo((GameCursor) other) == 0;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(creationTime, id);
+	}
+	
+	@Override
+	public String toString() {
+		return creationTime + "_" + id;
+	}
+}
@@ -1,64 +1,707 @@
 package ar.com.rbo.minesweeper.domain;
 
-import java.util.Collection;
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.Striped;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import ar.com.rbo.minesweeper.domain.BoardPool.PooledBoard;
+import ar.com.rbo.minesweeper.domain.Game.GameState;
 
 /**
- * Service class for {@link Game} entity
+ * Service class for {@link Game} entity. Games are kept in a concurrent map and moves are serialized per game through
+ * striped locks, so moves on the same game never overlap while moves on different games (most probably) run in parallel.
+ * Games created and moves made are recorded in a {@link MoveLog} (if one is configured) and the service
+ * answers only once they are on disk, so no acknowledged move is lost on a restart. Snapshots of every game are taken
+ * in the background (if the log takes them) so that recovering only replays the moves made since the last one.
+ * <p>
+ * Games nobody used for a while (or the least recently used ones, while there are more than fit in memory) are evicted
+ * to a {@link ColdStorage} in the background, if one is configured, and loaded back as soon as they are looked up by id.
+ * The indexes keep every game, so listings include the evicted ones (read from the storage without loading them back)
  */
 @Service
 public class GameService {
 	
+	/**
+	 * Amount of locks games are spread across
+	 */
+	private static final int LOCK_STRIPES = Runtime.getRuntime().availableProcessors() * 16;
+	
+	/**
+	 * Seconds between evictions of games to the cold storage
+	 */
+	private static final long EVICTION_INTERVAL = 1;
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(GameService.class);
+	
+	/**
+	 * Games kept in memory, by id
+	 */
 	private Map<UUID, Game> games;
 	
+	/**
+	 * Secondary indexes of games ordered by creation date (including the ones evicted from memory): one with every
+	 * game and one per state
+	 */
+	private NavigableSet<GameCursor> gamesByCreation;
+	private Map<GameState, NavigableSet<GameCursor>> gamesByState;
+	
+	private Striped<Lock> locks;
+	
+	@Autowired(required = false)
+	private BoardPool pool = BoardPool.EMPTY;
+	
+	private MoveLog log = MoveLog.DISABLED;
+	
+	private ScheduledExecutorService snapshotExecutor;
+	
+	private ColdStorage storage = ColdStorage.DISABLED;
+	
+	private ScheduledExecutorService evictionExecutor;
+	
+	/**
+	 * Version of each game the cold storage refused for being too big, which isn't written again until it changes
+	 */
+	private final Map<UUID, Long> oversizedGames = new ConcurrentHashMap<>();
+	
+	/**
+	 * Held while the log is replayed, while snapshots are taken and while games are evicted, so that no game is evicted
+	 * (and its memory freed) meanwhile
+	 */
+	private final Object maintenanceLock = new Object();
+	
+	/**
+	 * Lookups of games by id served from memory and from the cold storage, and games evicted to it
+	 */
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	
 	/**
 	 * Initializes the service with no games being played
 	 */
 	public GameService() {
-		this(new HashMap<>());
+		this(new ConcurrentHashMap<>());
+	}
+	
+	@VisibleForTesting
+	GameService(Map<UUID, Game> games, BoardPool pool) {
+		this(games);
+		this.pool = pool;
 	}
 	
 	@VisibleForTesting
 	public GameService(Map<UUID, Game> games) {
 		this.games = games;
+		this.gamesByCreation = new ConcurrentSkipListSet<>();
+		this.gamesByState = new EnumMap<>(GameState.class);
+		this.locks = Striped.lock(LOCK_STRIPES);
+		
+		for (GameState state : GameState.values()) {
+			gamesByState.put(state, new ConcurrentSkipListSet<>());
+		}
+	}
+	
+	/**
+	 * Recovers the games recorded in a log (restoring its snapshot and replaying the moves made since) and starts
+	 * recording every game created and move made in it, along with taking snapshots periodically (see
+	 * {@link MoveLog#getSnapshotInterval()})
+	 * 
+	 * @throws IOException if the log can't be read
+	 */
+	@Autowired(required = false)
+	public void setMoveLog(MoveLog log) throws IOException {
+		synchronized (maintenanceLock) {
+			log.replay(new MoveLog.Replayer() {
+				
+				@Override
+				public void gameCreated(Game game) {
+					// games created while a snapshot was taken are in both the snapshot and the log
+					if (!games.containsKey(game.getId())) {
+						store(game);
+					}
+				}
+				
+				@Override
+				public void moveMade(UUID gameId, long version, Move move) {
+					Game game = games.get(gameId);
+					
+					// moves already accounted for by the game's state are skipped
+					if (game == null || game.getVersion() >= version) {
+						return;
+					}
+					
+					GameState previousState = game.getState();
+					
+					try {
+						move.apply(game);
+					} catch (IllegalAccessException e) {
+						throw new IllegalStateException("Move log doesn't match game " + gameId + ": " + e.getMessage());
+					} finally {
+						reindex(game, previousState);
+					}
+				}
+			});
+		}
+		
+		this.log = log;
+		
+		if (log.getSnapshotInterval() > 0) {
+			snapshotExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+					.setNameFormat("snapshot-writer")
+					.setDaemon(true)
+					.build());
+			
+			// a failed snapshot leaves the log as it was, so the next one just tries again
+			snapshotExecutor.scheduleWithFixedDelay(() -> {
+				try {
+					takeSnapshot();
+				} catch (IOException e) {
+					LOGGER.error("Snapshot of the move log failed", e);
+				}
+			}, log.getSnapshotInterval(), log.getSnapshotInterval(), TimeUnit.SECONDS);
+		}
+	}
+	
+	/**
+	 * Starts evicting games to a cold storage in the background: the games nobody used for longer than its idle time
+	 * and then the least recently used ones, while there are more games in memory than its capacity (see
+	 * {@link ColdStorage#getIdleTime()} and {@link ColdStorage#getCapacity()})
+	 */
+	@Autowired(required = false)
+	public void setColdStorage(ColdStorage storage) {
+		this.storage = storage;
+		
+		if (storage.getCapacity() > 0 || storage.getIdleTime() > 0) {
+			evictionExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+					.setNameFormat("game-evictor")
+					.setDaemon(true)
+					.build());
+			
+			// a failed eviction leaves the games in memory, so the next one just tries again
+			evictionExecutor.scheduleWithFixedDelay(() -> {
+				try {
+					evictGames();
+				} catch (IOException | UncheckedIOException e) {
+					LOGGER.error("Eviction of games to cold storage failed", e);
+				}
+			}, EVICTION_INTERVAL, EVICTION_INTERVAL, TimeUnit.SECONDS);
+		}
+	}
+	
+	/**
+	 * Writes a snapshot of every game to the log, holding each game's lock only while it's copied, and drops the part
+	 * of the log the snapshot accounts for. Evicted games are copied from the cold storage, and the copies are freed
+	 * once written
+	 * 
+	 * @throws IOException if the snapshot can't be written
+	 */
+	public void takeSnapshot() throws IOException {
+		synchronized (maintenanceLock) {
+			log.snapshot(Iterables.filter(Iterables.transform(gamesByCreation, this::peekGame), Objects::nonNull), game -> locks.get(game.getId()),
+					this::releaseIfEvicted);
+		}
+	}
+	
+	/**
+	 * Moves games to the cold storage (see {@link #setColdStorage(ColdStorage)}) and compacts it if needed
+	 * 
+	 * @throws IOException if the storage can't be written
+	 */
+	public void evictGames() throws IOException {
+		evictGames(System.nanoTime());
+	}
+	
+	/**
+	 * Moves games to the cold storage as of the given time (see {@link System#nanoTime()}) and compacts it if needed
+	 * 
+	 * @throws IOException if the storage can't be written
+	 */
+	@VisibleForTesting
+	void evictGames(long now) throws IOException {
+		synchronized (maintenanceLock) {
+			if (storage.getIdleTime() > 0) {
+				long idleSince = now - TimeUnit.SECONDS.toNanos(storage.getIdleTime());
+				
+				for (Game game : games.values()) {
+					if (game.getAccessTime() - idleSince < 0) {
+						evict(game, idleSince);
+					}
+				}
+			}
+			
+			int excess = games.size() - storage.getCapacity();
+			
+			if (storage.getCapacity() > 0 && excess > 0) {
+				// access times change while they are sorted, so they are copied first
+				long[] accessTimes = games.values().stream().mapToLong(Game::getAccessTime).toArray();
+				Arrays.sort(accessTimes);
+				
+				long lastAccessTime = accessTimes[Math.min(excess, accessTimes.length) - 1];
+				
+				for (Iterator<Game> iterator = games.values().iterator(); excess > 0 && iterator.hasNext(); ) {
+					Game game = iterator.next();
+					
+					if (game.getAccessTime() - lastAccessTime <= 0 && evict(game, lastAccessTime + 1)) {
+						excess--;
+					}
+				}
+			}
+			
+			storage.compact();
+		}
+	}
+	
+	/**
+	 * Evicts games right away (instead of leaving it to the background) once games are created or loaded back faster
+	 * than they are evicted, i.e. while there are an eighth more games in memory than the capacity of the cold storage.
+	 * Waits for the eviction (or snapshot) in progress, so callers are held back until memory is within bounds again
+	 */
+	private void evictGamesIfOverCapacity() {
+		int capacity = storage.getCapacity();
+		
+		if (capacity > 0 && games.size() - capacity > capacity / 8) {
+			try {
+				evictGames();
+			} catch (IOException | UncheckedIOException e) {
+				LOGGER.error("Eviction of games to cold storage failed", e);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the amount of games in memory and in the cold storage, along with how many lookups each one served and
+	 * how many games were evicted
+	 */
+	public StorageMetrics getStorageMetrics() {
+		return new StorageMetrics(games.size(), storage.size(), hits.sum(), misses.sum(), evictions.sum());
 	}
 	
 	/**
-	 * Returns all stored games
+	 * Returns the result of applying a function to up to a limited amount of games ordered by creation date (from
+	 * oldest to newest), served from the secondary indexes. Evicted games are read from the cold storage, but they
+	 * aren't loaded back. The function is applied while holding each game's lock, so it sees no move half made and the
+	 * game's board isn't freed meanwhile
+	 * 
+	 * @param state state of the games to return (or null for any state)
+	 * @param from date since which games were created, inclusive (or null for no lower bound)
+	 * @param to date until which games were created, exclusive (or null for no upper bound)
+	 * @param after position after which games are returned (or null to start with the oldest game)
+	 * @param limit maximum amount of games to return
+	 * @param function function applied to each game, whose result can't keep the game itself (evicted games are read
+	 *        into a copy that's freed right afterwards)
 	 */
-	public Collection<Game> findGames() {
-		return games.values();
+	public <T> List<T> findGames(GameState state, Date from, Date to, GameCursor after, int limit, Function<Game, T> function) {
+		NavigableSet<GameCursor> index = state == null ? gamesByCreation : gamesByState.get(state);
+		GameCursor start = from == null ? null : GameCursor.first(from);
+		GameCursor end = to == null ? null : GameCursor.first(to);
+		
+		if (after != null && (start == null || after.compareTo(start) >= 0)) {
+			index = index.tailSet(after, false);
+		} else if (start != null) {
+			index = index.tailSet(start, true);
+		}
+		
+		List<T> found = new ArrayList<>(Math.min(limit, 1024));
+		
+		for (GameCursor cursor : index) {
+			if (found.size() == limit || (end != null && cursor.compareTo(end) >= 0)) {
+				break;
+			}
+			
+			peekGame(cursor, function).ifPresent(found::add);
+		}
+		
+		return found;
 	}
 	
 	/**
-	 * Returns the game that matches the received id (if found) 
+	 * Returns the result of applying a function to the game that matches the received id (if found), loading it back
+	 * from the cold storage if it was evicted. The function is applied while holding the game's lock, so it sees no
+	 * move half made and the game's board isn't freed meanwhile
 	 */
-	public Optional<Game> findGame(UUID id) {
-		return Optional.ofNullable(games.get(id));
+	public <T> Optional<T> findGame(UUID id, Function<Game, T> function) {
+		Lock lock = locks.get(id);
+		lock.lock();
+		
+		try {
+			return Optional.ofNullable(loadGame(id)).map(function);
+		} finally {
+			lock.unlock();
+			evictGamesIfOverCapacity();
+		}
 	}
 	
 	/**
 	 * Creates a game with the given parameters and returns the created game
 	 */
 	public Game createGame(int rowCount, int colCount, int mineCount) {
-		Game game = new Game(rowCount, colCount, mineCount);
-		games.put(game.getId(), game);
-		return game;
+		return createGame(rowCount, colCount, mineCount, false, null, false);
+	}
+	
+	/**
+	 * Creates a new game, optionally with a sparse board (see {@link Game#Game(int, int, int, boolean)}), with its
+	 * mines generated from the given seed (a random one is used if it's null) and with their placement deferred until
+	 * the first reveal (see {@link Game#Game(int, int, int, boolean, long, boolean)})
+	 */
+	public Game createGame(int rowCount, int colCount, int mineCount, boolean sparse, Long seed, boolean safeFirstReveal) {
+		return createGame(rowCount, colCount, mineCount, sparse, seed, safeFirstReveal, Function.identity());
+	}
+	
+	/**
+	 * Creates a new game (see {@link #createGame(int, int, int, boolean, Long, boolean)}) and returns the result of
+	 * applying a function to it. The function is applied while holding the game's lock, so it sees no move made on the
+	 * game meanwhile
+	 */
+	public <T> T createGame(int rowCount, int colCount, int mineCount, boolean sparse, Long seed, boolean safeFirstReveal, Function<Game, T> function) {
+		Game game = newGame(rowCount, colCount, mineCount, sparse, seed, safeFirstReveal);
+		long logPosition = 0;
+		
+		Lock lock = locks.get(game.getId());
+		lock.lock();
+		
+		try {
+			// stored before being logged, so that a snapshot taken meanwhile has it whichever segment its record falls
+			// in, while holding the lock, so that no move made on it as soon as it's stored is logged before it
+			store(game);
+			logPosition = log.appendCreation(game, safeFirstReveal);
+			
+			return function.apply(game);
+		} finally {
+			lock.unlock();
+			log.awaitDurable(logPosition);
+			evictGamesIfOverCapacity();
+		}
+	}
+	
+	/**
+	 * Returns the presets of the pool boards are taken from
+	 */
+	public List<BoardPool.Preset> getPoolPresets() {
+		return pool.getPresets();
+	}
+	
+	/**
+	 * Initializes a game, taking its board from the pool if possible (only dense games with a random seed whose mines
+	 * are placed upfront can be pooled) or generating it otherwise
+	 */
+	private Game newGame(int rowCount, int colCount, int mineCount, boolean sparse, Long seed, boolean safeFirstReveal) {
+		if (safeFirstReveal) {
+			return new Game(rowCount, colCount, mineCount, sparse, seed != null ? seed : ThreadLocalRandom.current().nextLong(), true);
+		}
+		
+		if (seed != null) {
+			return new Game(rowCount, colCount, mineCount, sparse, seed);
+		}
+		
+		Optional<PooledBoard> pooledBoard = sparse ? Optional.empty() : pool.take(rowCount, colCount, mineCount);
+		
+		if (pooledBoard.isPresent()) {
+			return new Game(rowCount, colCount, mineCount, pooledBoard.get());
+		}
+		
+		return new Game(rowCount, colCount, mineCount, sparse);
 	}
 	
 	/**
-	 * Updates a game by making a move and returns the updated game
+	 * Updates a game by making a move (while holding the game's lock) and returns the updated game
+	 * 
+	 * @throws NoSuchElementException if there is no game with the received id
 	 */
 	public Game updateGame(UUID id, Move move) throws IllegalAccessException {
+		return updateGame(id, move, Function.identity());
+	}
+	
+	/**
+	 * Updates a game by making a move and returns the result of applying a function to the updated game. Both the move
+	 * and the function run while holding the game's lock, so the function sees exactly the changes made by the move
+	 * 
+	 * @throws NoSuchElementException if there is no game with the received id
+	 */
+	public <T> T updateGame(UUID id, Move move, Function<Game, T> function) throws IllegalAccessException {
+		long logPosition = 0;
+		
+		Lock lock = locks.get(id);
+		lock.lock();
+		
+		try {
+			Game game = loadGame(id);
+			
+			if (game == null) {
+				throw new NoSuchElementException("Could not find game with id " + id);
+			}
+			
+			GameState previousState = game.getState();
+			long previousVersion = game.getVersion();
+			
+			try {
+				move.apply(game);
+			} finally {
+				reindex(game, previousState);
+			}
+			
+			// moves that did nothing (such as a chord that can't open any cell) aren't logged
+			if (game.getVersion() != previousVersion) {
+				logPosition = log.appendMove(game, move);
+			}
+			
+			return function.apply(game);
+		} finally {
+			lock.unlock();
+			
+			// waiting for the log without the lock lets the next moves on the game share the same write
+			log.awaitDurable(logPosition);
+			evictGamesIfOverCapacity();
+		}
+	}
+	
+	/**
+	 * Updates a game by making several moves in a row and returns the result of applying a function to the updated game.
+	 * The moves and the function run while holding the game's lock (so no other move can be made in between) and the
+	 * changes of all the moves are tracked as if they were a single one. Moves stop at the first illegal one, but the
+	 * ones before it remain made
+	 * 
+	 * @throws NoSuchElementException if there is no game with the received id
+	 * @throws IllegalBatchMoveException if any of the moves is illegal
+	 */
+	public <T> T updateGame(UUID id, List<Move> moves, Function<Game, T> function) throws IllegalBatchMoveException {
+		long logPosition = 0;
+		
+		Lock lock = locks.get(id);
+		lock.lock();
+		
+		try {
+			Game game = loadGame(id);
+			
+			if (game == null) {
+				throw new NoSuchElementException("Could not find game with id " + id);
+			}
+			
+			GameState previousState = game.getState();
+			
+			game.startBatch();
+			
+			try {
+				for (int moveIndex = 0; moveIndex < moves.size(); moveIndex++) {
+					long previousVersion = game.getVersion();
+					
+					try {
+						moves.get(moveIndex).apply(game);
+					} catch (IllegalAccessException e) {
+						throw new IllegalBatchMoveException(moveIndex, e.getMessage());
+					}
+					
+					if (game.getVersion() != previousVersion) {
+						logPosition = log.appendMove(game, moves.get(moveIndex));
+					}
+				}
+			} finally {
+				game.endBatch();
+				reindex(game, previousState);
+			}
+			
+			return function.apply(game);
+		} finally {
+			lock.unlock();
+			
+			// the moves made before an illegal one are logged (and waited for) as well
+			log.awaitDurable(logPosition);
+			evictGamesIfOverCapacity();
+		}
+	}
+	
+	/**
+	 * Returns the game with the given id (or null if there is none), loading it back from the cold storage if it was
+	 * evicted. Has to be called while holding the game's lock
+	 */
+	private Game loadGame(UUID id) {
 		Game game = games.get(id);
-		move.apply(game);
-		return game;		
+		
+		if (game != null) {
+			hits.increment();
+			game.touch();
+			
+			return game;
+		}
+		
+		game = readEvictedGame(id);
+		
+		if (game != null) {
+			// put in memory before being dropped from the storage, so that lookups without the lock find it somewhere
+			games.put(id, game);
+			storage.delete(id);
+			misses.increment();
+		}
+		
+		return game;
+	}
+	
+	/**
+	 * Returns the game at a position of the indexes (or null if it's nowhere to be found), as it's kept in memory or
+	 * as a copy read from the cold storage if it was evicted (see {@link #releaseIfEvicted(Game)}), without loading it
+	 * back
+	 */
+	private Game peekGame(GameCursor cursor) {
+		Game game = games.get(cursor.getId());
+		
+		if (game != null) {
+			return game;
+		}
+		
+		Lock lock = locks.get(cursor.getId());
+		lock.lock();
+		
+		try {
+			game = games.get(cursor.getId());
+			return game != null ? game : readEvictedGame(cursor.getId());
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns the result of applying a function (while holding the game's lock) to the game at a position of the
+	 * indexes, if it's found. Evicted games are read into a copy that's freed once the function is applied
+	 */
+	private <T> Optional<T> peekGame(GameCursor cursor, Function<Game, T> function) {
+		Lock lock = locks.get(cursor.getId());
+		lock.lock();
+		
+		try {
+			Game game = games.get(cursor.getId());
+			
+			if (game != null) {
+				return Optional.ofNullable(function.apply(game));
+			}
+			
+			game = readEvictedGame(cursor.getId());
+			
+			if (game == null) {
+				return Optional.empty();
+			}
+			
+			try {
+				return Optional.ofNullable(function.apply(game));
+			} finally {
+				game.release();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Frees the memory of a copy of an evicted game (see {@link #peekGame(GameCursor)}), as its board may have been
+	 * generated meanwhile. Has to be called while holding the game's lock
+	 */
+	private void releaseIfEvicted(Game game) {
+		if (!game.isReleased() && games.get(game.getId()) != game) {
+			game.release();
+		}
+	}
+	
+	/**
+	 * Reads a game from the cold storage (or returns null if it isn't there)
+	 * 
+	 * @throws UncheckedIOException if the storage can't be read
+	 */
+	private Game readEvictedGame(UUID id) {
+		try {
+			return storage.read(id).orElse(null);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not load game with id " + id, e);
+		}
+	}
+	
+	/**
+	 * Moves a game to the cold storage (while holding the game's lock) and frees its memory, unless it was used since
+	 * the given time, it's gone from memory meanwhile or it's too big for the storage (which is only found out again
+	 * once the game changes, as writing it costs as much as serializing the whole game)
+	 * 
+	 * @return whether or not the game was evicted
+	 * @throws IOException if the storage can't be written
+	 */
+	private boolean evict(Game game, long accessedBefore) throws IOException {
+		Lock lock = locks.get(game.getId());
+		lock.lock();
+		
+		try {
+			if (games.get(game.getId()) != game || game.getAccessTime() - accessedBefore >= 0) {
+				return false;
+			}
+			
+			Long oversizedVersion = oversizedGames.get(game.getId());
+			
+			if (oversizedVersion != null && oversizedVersion == game.getVersion()) {
+				return false;
+			}
+			
+			if (!storage.write(game)) {
+				oversizedGames.put(game.getId(), game.getVersion());
+				return false;
+			}
+			
+			oversizedGames.remove(game.getId());
+			
+			// written before being dropped from memory, so that lookups without the lock find it somewhere
+			games.remove(game.getId());
+			game.release();
+			evictions.increment();
+			
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Adds a game to the map and to the indexes
+	 */
+	private void store(Game game) {
+		GameCursor cursor = GameCursor.of(game);
+		
+		games.put(game.getId(), game);
+		gamesByCreation.add(cursor);
+		gamesByState.get(game.getState()).add(cursor);
+	}
+	
+	/**
+	 * Moves a game to the index of its current state (if it changed)
+	 */
+	private void reindex(Game game, GameState previousState) {
+		if (previousState != game.getState()) {
+			GameCursor cursor = GameCursor.of(game);
+			gamesByState.get(previousState).remove(cursor);
+			gamesByState.get(game.getState()).add(cursor);
+		}
 	}
 }
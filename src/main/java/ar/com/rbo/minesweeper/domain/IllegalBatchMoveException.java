@@ -0,0 +1,26 @@
+package ar.com.rbo.minesweeper.domain;
+
+/**
+ * Thrown when one of the moves of a batch turns out to be illegal
+ */
+public class IllegalBatchMoveException extends IllegalAccessException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final int index;
+	
+	/**
+	 * Initializes the exception with the index of the illegal move within the batch and the reason why it is illegal
+	 */
+	public IllegalBatchMoveException(int index, String reason) {
+		super("Move " + index + " is illegal: " + reason);
+		this.index = index;
+	}
+	
+	/**
+	 * Returns the index of the illegal move within the batch
+	 */
+	public int getIndex() {
+		return index;
+	}
+}
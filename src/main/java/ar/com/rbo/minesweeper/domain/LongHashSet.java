@@ -0,0 +1,138 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.util.Arrays;
+
+/**
+ * Set of non negative longs, kept unboxed in an open addressing table with linear probing
+ */
+class LongHashSet {
+	
+	private static final long FREE = -1;
+	
+	/**
+	 * Length of the biggest table, as the next power of two doesn't fit in an array
+	 */
+	private static final int MAX_CAPACITY = 1 << 30;
+	
+	/**
+	 * Maximum amount of values, as the table is kept at most half full
+	 */
+	static final int MAX_SIZE = MAX_CAPACITY >> 1;
+	
+	private long[] table;
+	private int size;
+	
+	/**
+	 * Initializes an empty set with room for the expected amount of values (it grows as needed)
+	 * 
+	 * @throws IllegalArgumentException if more than {@link #MAX_SIZE} values are expected
+	 */
+	LongHashSet(int expectedSize) {
+		if (expectedSize > MAX_SIZE) {
+			throw new IllegalArgumentException("Set can't hold more than " + MAX_SIZE + " values");
+		}
+		
+		this.table = newTable((int) Math.max(16, Math.min(MAX_CAPACITY, (long) Integer.highestOneBit(Math.max(1, expectedSize)) << 2)));
+	}
+	
+	/**
+	 * Returns the amount of values in the set
+	 */
+	int size() {
+		return size;
+	}
+	
+	/**
+	 * Returns whether or not the value is in the set
+	 */
+	boolean contains(long value) {
+		long[] table = this.table;
+		int mask = table.length - 1;
+		
+		for (int index = indexOf(value, mask); table[index] != FREE; index = (index + 1) & mask) {
+			if (table[index] == value) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Adds a value to the set, returns false if it was already there
+	 * 
+	 * @throws IllegalStateException if the set already holds {@link #MAX_SIZE} values
+	 */
+	boolean add(long value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("Value " + value + " is negative");
+		}
+		
+		int mask = table.length - 1;
+		int index = indexOf(value, mask);
+		
+		while (table[index] != FREE) {
+			if (table[index] == value) {
+				return false;
+			}
+			
+			index = (index + 1) & mask;
+		}
+		
+		// the biggest table can't grow, so it's never let more than half full
+		if (size == MAX_SIZE) {
+			throw new IllegalStateException("Set can't hold more than " + MAX_SIZE + " values");
+		}
+		
+		table[index] = value;
+		size++;
+		
+		// table is kept at most half full so that probe sequences stay short
+		if (size > table.length >> 1) {
+			rehash();
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Moves every value to a table twice as big
+	 */
+	private void rehash() {
+		long[] oldTable = table;
+		long[] newTable = newTable(oldTable.length << 1);
+		int mask = newTable.length - 1;
+		
+		for (long value : oldTable) {
+			if (value != FREE) {
+				int index = indexOf(value, mask);
+				
+				while (newTable[index] != FREE) {
+					index = (index + 1) & mask;
+				}
+				
+				newTable[index] = value;
+			}
+		}
+		
+		table = newTable;
+	}
+	
+	/**
+	 * Returns the slot where the probe sequence of a value starts, mixing its bits so that consecutive values
+	 * spread through the table
+	 */
+	private static int indexOf(long value, int mask) {
+		long hash = value * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ hash >>> 32) & mask;
+	}
+	
+	/**
+	 * Creates a table with all its slots free
+	 */
+	private static long[] newTable(int length) {
+		long[] table = new long[length];
+		Arrays.fill(table, FREE);
+		return table;
+	}
+}
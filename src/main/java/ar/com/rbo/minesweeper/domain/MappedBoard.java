@@ -0,0 +1,171 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link Board} whose cells are kept in a file mapped into memory, for boards bigger than the heap (or than any array):
+ * the operating system pages regions of the board in and out as they are used. Cells are laid out by chunks, so each
+ * chunk takes a single page of 4KB and reading a region or revealing a cascade only pages in the chunks it touches.
+ * Boards over 2GB are mapped in several shards (mappings can't exceed 2GB), none of which splits a chunk, while the
+ * versions of the chunks stay on the heap as in {@link ChunkedBoard}.
+ * <p>
+ * Mapping the file grows it without writing anything, so on file systems with sparse files only the chunks that were
+ * written take disk space. The board isn't meant to outlive the application ({@link MoveLog} does that), so the file
+ * is never forced to disk and it's deleted once it's closed by {@link #release()}, or as soon as it's opened where
+ * open files can be deleted (its space is reclaimed once it's unmapped), so none is left behind by a crash
+ */
+class MappedBoard extends Board {
+	
+	/**
+	 * Default size of each shard, 2^18 chunks
+	 */
+	static final int DEFAULT_SHARD_SHIFT = 30;
+	
+	private static final int CHUNK_BYTES_SHIFT = CHUNK_SHIFT * 2;
+	
+	private final int shardShift;
+	private final int shardMask;
+	
+	private final int chunkColCount;
+	
+	private final FileChannel channel;
+	
+	/**
+	 * Mappings holding the cells, null once released
+	 */
+	private MappedByteBuffer[] shards;
+	
+	/**
+	 * Versions are written after the cells they cover (and read before them), so a reader that sees a version also
+	 * sees every change it accounts for
+	 */
+	private final AtomicLongArray chunkVersions;
+	
+	/**
+	 * Initializes a board with all cells in UNKNOWN state, without mines, in a new file of the given directory
+	 *
+	 * @throws UncheckedIOException if the file can't be created or mapped
+	 */
+	MappedBoard(int rowCount, int colCount, Path directory) {
+		this(rowCount, colCount, directory, DEFAULT_SHARD_SHIFT);
+	}
+	
+	/**
+	 * Initializes a board with all cells in UNKNOWN state, without mines, in a new file of the given directory mapped
+	 * in shards of 2^shardShift bytes (at least a chunk)
+	 *
+	 * @throws UncheckedIOException if the file can't be created or mapped
+	 */
+	MappedBoard(int rowCount, int colCount, Path directory, int shardShift) {
+		super(rowCount, colCount);
+		
+		this.chunkColCount = (colCount + CHUNK_MASK) >>> CHUNK_SHIFT;
+		long chunkCount = (long) ((rowCount + CHUNK_MASK) >>> CHUNK_SHIFT) * chunkColCount;
+		
+		if (chunkCount > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Board can't have more than " + Integer.MAX_VALUE + " chunks");
+		}
+		
+		this.shardShift = Math.max(shardShift, CHUNK_BYTES_SHIFT);
+		this.shardMask = (1 << this.shardShift) - 1;
+		this.chunkVersions = new AtomicLongArray((int) chunkCount);
+		
+		long size = chunkCount << CHUNK_BYTES_SHIFT;
+		FileChannel channel = null;
+		
+		try {
+			// a file that was never written reads as zeros, i.e. UNKNOWN cells without mines
+			channel = FileChannel.open(Files.createTempFile(directory, "board", ".cells"), StandardOpenOption.READ,
+					StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+			
+			MappedByteBuffer[] shards = new MappedByteBuffer[(int) ((size + shardMask) >>> this.shardShift)];
+			
+			for (int shardIndex = 0; shardIndex < shards.length; shardIndex++) {
+				long shardStart = (long) shardIndex << this.shardShift;
+				shards[shardIndex] = channel.map(FileChannel.MapMode.READ_WRITE, shardStart, Math.min(shardMask + 1L, size - shardStart));
+			}
+			
+			this.channel = channel;
+			this.shards = shards;
+		} catch (IOException e) {
+			closeQuietly(channel);
+			throw new UncheckedIOException("Board file can't be mapped in " + directory, e);
+		}
+	}
+	
+	@Override
+	byte get(int row, int col) {
+		long position = position(row, col);
+		return shards[(int) (position >>> shardShift)].get((int) position & shardMask);
+	}
+	
+	@Override
+	void set(int row, int col, byte cell) {
+		long position = position(row, col);
+		shards[(int) (position >>> shardShift)].put((int) position & shardMask, cell);
+		
+		int chunkIndex = chunkIndex(row, col);
+		chunkVersions.lazySet(chunkIndex, chunkVersions.get(chunkIndex) + 1);
+	}
+	
+	@Override
+	long getChunkChangeCount(int row, int col) {
+		return chunkVersions.get(chunkIndex(row, col));
+	}
+	
+	/**
+	 * Deletes the file of the board, whose pages are unmapped once the garbage collector reclaims the mappings. Reading
+	 * the board afterwards fails
+	 */
+	@Override
+	synchronized void release() {
+		if (shards == null) {
+			return;
+		}
+		
+		shards = null;
+		closeQuietly(channel);
+	}
+	
+	/**
+	 * The board is kept as it is, a copy would have to fit in the heap
+	 */
+	@Override
+	Board toFinished() {
+		return this;
+	}
+	
+	/**
+	 * Returns the position of a cell within the file
+	 */
+	private long position(int row, int col) {
+		return (long) chunkIndex(row, col) << CHUNK_BYTES_SHIFT | offset(row, col);
+	}
+	
+	/**
+	 * Returns the index of the chunk that holds a cell
+	 */
+	private int chunkIndex(int row, int col) {
+		return (row >>> CHUNK_SHIFT) * chunkColCount + (col >>> CHUNK_SHIFT);
+	}
+	
+	/**
+	 * Closes the file (deleting it), if it was opened
+	 */
+	private static void closeQuietly(FileChannel channel) {
+		try {
+			if (channel != null) {
+				channel.close();
+			}
+		} catch (IOException e) {
+			// the file is left behind, there is nothing else to do
+		}
+	}
+}
@@ -8,6 +8,37 @@ public abstract class Move {
 	private int row;
 	private int col;
 	
+	/**
+	 * Visitor interface for {@link Move} implementations
+	 */
+	public interface Visitor<T> {
+		
+		/**
+		 * Visit {@link Reveal}
+		 */
+		public T visit(Reveal move);
+		
+		/**
+		 * Visit {@link Flag}
+		 */
+		public T visit(Flag move);
+		
+		/**
+		 * Visit {@link Mark}
+		 */
+		public T visit(Mark move);
+		
+		/**
+		 * Visit {@link Clear}
+		 */
+		public T visit(Clear move);
+		
+		/**
+		 * Visit {@link Chord}
+		 */
+		public T visit(Chord move);
+	}
+	
 	/**
 	 * {@link Move}'s reveal implementation
 	 */
@@ -24,6 +55,11 @@ public abstract class Move {
 		public void apply(Game game) throws IllegalAccessException {
 			game.reveal(getRow(), getCol());
 		}
+		
+		@Override
+		public <T> T accept(Visitor<T> visitor) {
+			return visitor.visit(this);
+		}
 	}
 	
 	/**
@@ -42,6 +78,11 @@ public abstract class Move {
 		public void apply(Game game) throws IllegalAccessException {
 			game.flag(getRow(), getCol());
 		}
+		
+		@Override
+		public <T> T accept(Visitor<T> visitor) {
+			return visitor.visit(this);
+		}
 	}
 	
 	/**
@@ -60,6 +101,11 @@ public abstract class Move {
 		public void apply(Game game) throws IllegalAccessException {
 			game.mark(getRow(), getCol());
 		}
+		
+		@Override
+		public <T> T accept(Visitor<T> visitor) {
+			return visitor.visit(this);
+		}
 	}
 	
 	/**
@@ -78,6 +124,34 @@ public abstract class Move {
 		public void apply(Game game) throws IllegalAccessException {
 			game.clear(getRow(), getCol());
 		}
+		
+		@Override
+		public <T> T accept(Visitor<T> visitor) {
+			return visitor.visit(this);
+		}
+	}
+	
+	/**
+	 * {@link Move}'s chord implementation
+	 */
+	public static class Chord extends Move {
+		
+		/**
+		 * Initializes the move
+		 */
+		public Chord(int row, int col) {
+			super(row, col);
+		}
+		
+		@Override
+		public void apply(Game game) throws IllegalAccessException {
+			game.chord(getRow(), getCol());
+		}
+		
+		@Override
+		public <T> T accept(Visitor<T> visitor) {
+			return visitor.visit(this);
+		}
 	}
 
 	/**
@@ -92,6 +166,11 @@ public abstract class Move {
 	 * Applies the move to the given {@link Game}
 	 */
 	public abstract void apply(Game game) throws IllegalAccessException;
+	
+	/**
+	 * Accepts an instance of {@link Visitor}
+	 */
+	public abstract <T> T accept(Visitor<T> visitor);
 
 	/**
 	 * Returns the move's row
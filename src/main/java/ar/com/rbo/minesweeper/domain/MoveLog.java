@@ -0,0 +1,667 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of the games created and the moves made on them, so that games survive a restart by replaying it
+ * (see {@link #replay(Replayer)}). Games are recorded along with their seed, so replaying their moves rebuilds exactly
+ * the same board.
+ * <p>
+ * Records are compact binary ones of a fixed size per type, each one followed by its CRC32, so that a record torn by a
+ * crash is detected on replay (and dropped along with anything after it). Records are appended to a buffer in memory
+ * and a single background thread writes everything appended since its last write and forces it to disk at once (group
+ * commit), so one fsync covers the moves made meanwhile on every game. Callers wait for their records to be on disk
+ * with {@link #awaitDurable(long)}.
+ * <p>
+ * So that replaying doesn't take longer and longer, a {@link Snapshot} of every game is taken from time to time (see
+ * {@link #snapshot(Iterable, Function, Consumer)}). Right before it the log moves on to a new segment, and the previous one
+ * (whose records the snapshot accounts for) is dropped once the snapshot is on disk. Recovering reads the snapshot,
+ * the previous segment (if the last snapshot didn't make it) and the current one, skipping the moves a game's version
+ * already accounts for
+ */
+public class MoveLog implements AutoCloseable {
+	
+	/**
+	 * Log that doesn't record anything, used while no file is configured
+	 */
+	public static final MoveLog DISABLED = new MoveLog();
+	
+	/**
+	 * First bytes of every log ("MSWL") followed by the version of the format
+	 */
+	private static final int MAGIC = 0x4D53574C;
+	private static final byte FORMAT_VERSION = 1;
+	private static final int HEADER_SIZE = Integer.BYTES + 1;
+	
+	/**
+	 * Types of record
+	 */
+	private static final byte CREATION = 1;
+	private static final byte MOVE = 2;
+	
+	/**
+	 * Types of move
+	 */
+	private static final byte REVEAL = 1;
+	private static final byte FLAG = 2;
+	private static final byte MARK = 3;
+	private static final byte CLEAR = 4;
+	private static final byte CHORD = 5;
+	
+	/**
+	 * Size of each type of record: its type, the id of its game, its payload and its checksum
+	 */
+	private static final int RECORD_OVERHEAD = 1 + 2 * Long.BYTES + Integer.BYTES;
+	private static final int CREATION_SIZE = RECORD_OVERHEAD + 2 * Long.BYTES + 3 * Integer.BYTES + 1;
+	private static final int MOVE_SIZE = RECORD_OVERHEAD + Long.BYTES + 1 + 2 * Integer.BYTES;
+	
+	/**
+	 * Flags of a creation record
+	 */
+	private static final int SPARSE = 1;
+	private static final int SAFE_FIRST_REVEAL = 2;
+	
+	private static final int BUFFER_SIZE = 1 << 20;
+	
+	private static final Move.Visitor<Byte> MOVE_TYPES = new Move.Visitor<Byte>() {
+		
+		@Override
+		public Byte visit(Move.Reveal move) {
+			return REVEAL;
+		}
+		
+		@Override
+		public Byte visit(Move.Flag move) {
+			return FLAG;
+		}
+		
+		@Override
+		public Byte visit(Move.Mark move) {
+			return MARK;
+		}
+		
+		@Override
+		public Byte visit(Move.Clear move) {
+			return CLEAR;
+		}
+		
+		@Override
+		public Byte visit(Move.Chord move) {
+			return CHORD;
+		}
+	};
+	
+	/**
+	 * Receiver of the records of a log while it's replayed
+	 */
+	interface Replayer {
+		
+		/**
+		 * Receives a game rebuilt from its creation record
+		 */
+		void gameCreated(Game game);
+		
+		/**
+		 * Receives a move made on a game, along with the version of the game right after it
+		 */
+		void moveMade(UUID gameId, long version, Move move);
+	}
+	
+	private final Path path;
+	private final Path previousPath;
+	private final Path snapshotPath;
+	
+	/**
+	 * Seconds between snapshots (none are taken if it's 0)
+	 */
+	private final long snapshotInterval;
+	
+	/**
+	 * Channel of the current segment, only replaced by the writer
+	 */
+	private FileChannel channel;
+	
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition recordsAppended = lock.newCondition();
+	private final Condition recordsWritten = lock.newCondition();
+	
+	/**
+	 * Records appended but not written yet, and the buffer being written (swapped on every write). Both of them, along
+	 * with the following fields, are guarded by the lock
+	 */
+	private ByteBuffer pendingRecords = ByteBuffer.allocate(BUFFER_SIZE);
+	private ByteBuffer writtenRecords = ByteBuffer.allocate(BUFFER_SIZE);
+	
+	private final CRC32 checksum = new CRC32();
+	
+	/**
+	 * Positions of the log right after the last record appended and right after the last one forced to disk
+	 */
+	private long appendedPosition;
+	private long durablePosition;
+	
+	private Thread writer;
+	private IOException failure;
+	private boolean closed;
+	
+	/**
+	 * Whether or not the writer has to move on to a new segment, along with the amount of times it did
+	 */
+	private boolean rotationRequested;
+	private long rotationCount;
+	
+	/**
+	 * Initializes the disabled log
+	 */
+	private MoveLog() {
+		this.path = null;
+		this.previousPath = null;
+		this.snapshotPath = null;
+		this.snapshotInterval = 0;
+	}
+	
+	/**
+	 * Opens a log without snapshots (see {@link #MoveLog(Path, long)})
+	 *
+	 * @throws IOException if the file can't be opened or it isn't a log
+	 */
+	public MoveLog(Path path) throws IOException {
+		this(path, 0);
+	}
+		
+	/**
+	 * Opens a log (creating it if it doesn't exist), which has to be replayed before anything is appended to it. The
+	 * previous segment and the snapshot are kept next to it, with the same name plus ".previous" and ".snapshot"
+	 *
+	 * @param snapshotInterval seconds between snapshots, 0 for none
+	 * @throws IOException if the file can't be opened or it isn't a log
+	 */
+	public MoveLog(Path path, long snapshotInterval) throws IOException {
+		this.path = path;
+		this.previousPath = path.resolveSibling(path.getFileName() + ".previous");
+		this.snapshotPath = path.resolveSibling(path.getFileName() + ".snapshot");
+		this.snapshotInterval = snapshotInterval;
+		this.channel = openSegment(path);
+	}
+	
+	/**
+	 * Returns the seconds between snapshots, 0 if none are taken
+	 */
+	public long getSnapshotInterval() {
+		return snapshotInterval;
+	}
+	
+	/**
+	 * Reads every record of the log (dropping a torn or corrupted one at its end, along with anything after it) and
+	 * starts accepting new ones
+	 *
+	 * @throws IOException if the log can't be read
+	 */
+	void replay(Replayer replayer) throws IOException {
+		if (path == null) {
+			return;
+		}
+		
+		Snapshot.read(snapshotPath, replayer::gameCreated);
+		
+		if (Files.exists(previousPath)) {
+			try (FileChannel previousChannel = openSegment(previousPath)) {
+				read(previousChannel, replayer);
+			}
+		}
+		
+		long endPosition = read(channel, replayer);
+		
+		if (channel.size() > endPosition) {
+			channel.truncate(endPosition);
+			channel.force(true);
+		}
+		
+		channel.position(endPosition);
+		
+		lock.lock();
+		
+		try {
+			if (writer != null || closed) {
+				throw new IllegalStateException("Move log can only be replayed once");
+			}
+			
+			appendedPosition = endPosition;
+			durablePosition = endPosition;
+			
+			writer = new Thread(this::write, "move-log-writer");
+			writer.setDaemon(true);
+			writer.start();
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Appends the creation of a game and returns the position the log has to reach for it to be durable
+	 */
+	long appendCreation(Game game, boolean safeFirstReveal) {
+		if (path == null) {
+			return 0;
+		}
+		
+		lock.lock();
+		
+		try {
+			int start = startRecord(CREATION, game.getId());
+			pendingRecords.putLong(game.getCreationDate().getTime());
+			pendingRecords.putInt(game.getRowCount());
+			pendingRecords.putInt(game.getColCount());
+			pendingRecords.putInt(game.getMineCount());
+			pendingRecords.putLong(game.getSeed());
+			pendingRecords.put((byte) ((game.isSparse() ? SPARSE : 0) | (safeFirstReveal ? SAFE_FIRST_REVEAL : 0)));
+			return endRecord(start);
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Appends a move that was just made on a game and returns the position the log has to reach for it to be durable
+	 */
+	long appendMove(Game game, Move move) {
+		if (path == null) {
+			return 0;
+		}
+		
+		lock.lock();
+		
+		try {
+			int start = startRecord(MOVE, game.getId());
+			pendingRecords.putLong(game.getVersion());
+			pendingRecords.put(move.accept(MOVE_TYPES));
+			pendingRecords.putInt(move.getRow());
+			pendingRecords.putInt(move.getCol());
+			return endRecord(start);
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Waits until the log was forced to disk up to the given position
+	 *
+	 * @throws UncheckedIOException if the log couldn't be written
+	 */
+	void awaitDurable(long position) {
+		if (path == null) {
+			return;
+		}
+		
+		lock.lock();
+		
+		try {
+			while (durablePosition < position && failure == null) {
+				recordsWritten.awaitUninterruptibly();
+			}
+			
+			if (durablePosition < position) {
+				throw new UncheckedIOException("Could not write move log " + path, failure);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Writes whatever is left to write and closes the log
+	 */
+	@Override
+	public void close() throws IOException {
+		if (path == null) {
+			return;
+		}
+		
+		lock.lock();
+		
+		try {
+			closed = true;
+			recordsAppended.signal();
+		} finally {
+			lock.unlock();
+		}
+		
+		if (writer != null) {
+			try {
+				writer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		channel.close();
+	}
+	
+	/**
+	 * Writes a snapshot of the given games (while holding the lock of each one) and drops the part of the log it
+	 * accounts for. Moves go on meanwhile, only waiting for the game they are made on to be copied
+	 *
+	 * @param locks function that returns the lock of a game
+	 * @param done function called with each game once it's copied, while still holding its lock
+	 * @throws IOException if the snapshot can't be written
+	 */
+	synchronized void snapshot(Iterable<Game> games, Function<Game, Lock> locks, Consumer<Game> done) throws IOException {
+		if (path == null) {
+			return;
+		}
+		
+		// if the previous segment is still there (the last snapshot failed) it's dropped along with this one instead
+		if (!Files.exists(previousPath)) {
+			rotate();
+		}
+		
+		// every record of the previous segment was appended before any game is copied, so they are all accounted for
+		Snapshot.write(snapshotPath, games, locks, done);
+		
+		Files.deleteIfExists(previousPath);
+		syncDirectory(path);
+	}
+	
+	/**
+	 * Makes the writer move the current segment to the previous one (once its records are written) and start a new
+	 * one, and waits for it
+	 *
+	 * @throws IOException if the log couldn't be written
+	 */
+	private void rotate() throws IOException {
+		lock.lock();
+		
+		try {
+			checkWritable();
+			
+			long rotation = rotationCount + 1;
+			rotationRequested = true;
+			recordsAppended.signal();
+			
+			while (rotationCount < rotation && failure == null) {
+				recordsWritten.awaitUninterruptibly();
+			}
+			
+			if (rotationCount < rotation) {
+				throw new IOException("Could not write move log " + path, failure);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Opens a segment of the log positioned at its end, writing its header if it's a new one
+	 *
+	 * @throws IOException if the file can't be opened or it isn't a log
+	 */
+	private static FileChannel openSegment(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		
+		if (channel.size() == 0) {
+			header.putInt(MAGIC).put(FORMAT_VERSION).flip();
+			channel.write(header, 0);
+			channel.force(true);
+		} else if (channel.read(header, 0) < HEADER_SIZE || header.getInt(0) != MAGIC || header.get(Integer.BYTES) != FORMAT_VERSION) {
+			channel.close();
+			throw new IOException(path + " is not a move log");
+		}
+		
+		channel.position(channel.size());
+		return channel;
+	}
+	
+	/**
+	 * Forces the directory of a file to disk, so that files created, moved or deleted within it survive a crash
+	 */
+	static void syncDirectory(Path path) {
+		try (FileChannel directory = FileChannel.open(path.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+			directory.force(true);
+		} catch (IOException e) {
+			// directories can't be opened on every platform, where there is nothing else to do
+		}
+	}
+	
+	/**
+	 * Starts a record in the buffer of pending ones (growing it if needed) and returns its position within it
+	 */
+	private int startRecord(byte type, UUID gameId) {
+		checkWritable();
+		
+		if (pendingRecords.remaining() < CREATION_SIZE) {
+			ByteBuffer records = ByteBuffer.allocate(pendingRecords.capacity() * 2);
+			pendingRecords.flip();
+			pendingRecords = records.put(pendingRecords);
+		}
+		
+		int start = pendingRecords.position();
+		
+		pendingRecords.put(type);
+		pendingRecords.putLong(gameId.getMostSignificantBits());
+		pendingRecords.putLong(gameId.getLeastSignificantBits());
+		
+		return start;
+	}
+	
+	/**
+	 * Checks that records can be appended
+	 *
+	 * @throws IllegalStateException if the log isn't replayed yet or it's closed
+	 * @throws UncheckedIOException if the log couldn't be written
+	 */
+	private void checkWritable() {
+		if (writer == null || closed) {
+			throw new IllegalStateException("Move log is " + (closed ? "closed" : "not replayed yet"));
+		}
+		
+		if (failure != null) {
+			throw new UncheckedIOException("Could not write move log " + path, failure);
+		}
+	}
+	
+	/**
+	 * Ends a record with its checksum, wakes up the writer and returns the position of the log right after the record
+	 */
+	private long endRecord(int start) {
+		checksum.reset();
+		checksum.update(pendingRecords.array(), start, pendingRecords.position() - start);
+		pendingRecords.putInt((int) checksum.getValue());
+		
+		appendedPosition += pendingRecords.position() - start;
+		recordsAppended.signal();
+		
+		return appendedPosition;
+	}
+	
+	/**
+	 * Loop of the writer thread: takes every pending record, writes them and forces them to disk, until the log is
+	 * closed (and nothing is left to write) or writing fails
+	 */
+	private void write() {
+		while (true) {
+			ByteBuffer records;
+			long position;
+			boolean rotate;
+			
+			lock.lock();
+			
+			try {
+				while (pendingRecords.position() == 0 && !rotationRequested && !closed) {
+					recordsAppended.awaitUninterruptibly();
+				}
+				
+				if (pendingRecords.position() == 0 && !rotationRequested) {
+					return;
+				}
+				
+				rotate = rotationRequested;
+				records = pendingRecords;
+				pendingRecords = writtenRecords;
+				writtenRecords = records;
+				position = appendedPosition;
+			} finally {
+				lock.unlock();
+			}
+			
+			records.flip();
+			
+			try {
+				if (records.hasRemaining()) {
+					while (records.hasRemaining()) {
+						channel.write(records);
+					}
+					
+					channel.force(false);
+				}
+				
+				// the channel keeps writing to the segment once it's moved, but nothing is left to write to it
+				if (rotate) {
+					Files.move(path, previousPath);
+					FileChannel segment = openSegment(path);
+					channel.close();
+					channel = segment;
+					syncDirectory(path);
+				}
+			} catch (IOException e) {
+				lock.lock();
+				
+				try {
+					failure = e;
+					recordsWritten.signalAll();
+				} finally {
+					lock.unlock();
+				}
+				
+				return;
+			}
+			
+			records.clear();
+			
+			lock.lock();
+			
+			try {
+				durablePosition = position;
+				
+				if (rotate) {
+					rotationRequested = false;
+					rotationCount++;
+				}
+				
+				recordsWritten.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+	
+	/**
+	 * Reads records until the end of the log (or the first torn or corrupted one) and returns the position right after
+	 * the last valid one
+	 */
+	private static long read(FileChannel channel, Replayer replayer) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		buffer.flip();
+		
+		CRC32 recordChecksum = new CRC32();
+		long readPosition = HEADER_SIZE;
+		long recordPosition = HEADER_SIZE;
+		
+		while (true) {
+			if (buffer.remaining() < CREATION_SIZE) {
+				buffer.compact();
+				
+				int read;
+				while (buffer.hasRemaining() && (read = channel.read(buffer, readPosition)) > 0) {
+					readPosition += read;
+				}
+				
+				buffer.flip();
+			}
+			
+			int start = buffer.position();
+			int size = buffer.hasRemaining() ? recordSize(buffer.get(start)) : -1;
+			
+			if (size < 0 || buffer.remaining() < size) {
+				return recordPosition;
+			}
+			
+			recordChecksum.reset();
+			recordChecksum.update(buffer.array(), start, size - Integer.BYTES);
+			
+			if ((int) recordChecksum.getValue() != buffer.getInt(start + size - Integer.BYTES)) {
+				return recordPosition;
+			}
+			
+			replayRecord(buffer, replayer);
+			
+			buffer.position(start + size);
+			recordPosition += size;
+		}
+	}
+	
+	/**
+	 * Returns the size of a type of record, -1 if it's unknown
+	 */
+	private static int recordSize(byte type) {
+		switch (type) {
+			case CREATION: return CREATION_SIZE;
+			case MOVE: return MOVE_SIZE;
+			default: return -1;
+		}
+	}
+	
+	/**
+	 * Hands the record at the buffer's position to the replayer
+	 */
+	private static void replayRecord(ByteBuffer buffer, Replayer replayer) throws IOException {
+		byte type = buffer.get();
+		UUID gameId = new UUID(buffer.getLong(), buffer.getLong());
+		
+		if (CREATION == type) {
+			Date creationDate = new Date(buffer.getLong());
+			int rowCount = buffer.getInt();
+			int colCount = buffer.getInt();
+			int mineCount = buffer.getInt();
+			long seed = buffer.getLong();
+			byte flags = buffer.get();
+			
+			replayer.gameCreated(new Game(gameId, creationDate, rowCount, colCount, mineCount, (flags & SPARSE) != 0, seed, (flags & SAFE_FIRST_REVEAL) != 0));
+		} else {
+			long version = buffer.getLong();
+			byte moveType = buffer.get();
+			int row = buffer.getInt();
+			int col = buffer.getInt();
+			
+			replayer.moveMade(gameId, version, toMove(moveType, row, col));
+		}
+	}
+	
+	/**
+	 * Returns the move of a type on the given cell
+	 */
+	private static Move toMove(byte moveType, int row, int col) throws IOException {
+		switch (moveType) {
+			case REVEAL: return new Move.Reveal(row, col);
+			case FLAG: return new Move.Flag(row, col);
+			case MARK: return new Move.Mark(row, col);
+			case CLEAR: return new Move.Clear(row, col);
+			case CHORD: return new Move.Chord(row, col);
+			default: throw new IOException("Unknown type of move " + moveType);
+		}
+	}
+}
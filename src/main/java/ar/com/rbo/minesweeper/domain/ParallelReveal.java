@@ -0,0 +1,218 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import ar.com.rbo.minesweeper.domain.Cell.State;
+
+/**
+ * Parallel flood fill for huge reveal cascades on a {@link ChunkedBoard}. Tasks of the common fork/join pool grow the
+ * revealed region from a set of seeds, span by span like the sequential cascade, each one with its own stack of seeds,
+ * and hand half of their stack to a new task whenever it grows big enough and few tasks are waiting (idle workers
+ * steal those tasks). Cells are claimed with a CAS on a bitmap before being revealed, so each one is revealed exactly
+ * once.
+ * <p>
+ * Cells are written without increasing the versions of their chunks, which are increased once the fill is over, so
+ * readers never see a version that doesn't account for every change made before it
+ */
+class ParallelReveal {
+	
+	/**
+	 * Cells on a task's stack above which half of them are handed to a new task
+	 */
+	private static final int SPLIT_SIZE = 1024;
+	
+	private final ChunkedBoard board;
+	
+	private final AtomicIntegerArray claims;
+	
+	/**
+	 * Chunks with revealed cells, written concurrently (only ever set to true)
+	 */
+	private final boolean[] touchedChunks;
+	private final int chunkColCount;
+	
+	/**
+	 * (row, col) pairs revealed by each task
+	 */
+	private final Queue<int[]> revealedCells = new ConcurrentLinkedQueue<>();
+	
+	/**
+	 * Initializes the fill for a board
+	 */
+	ParallelReveal(ChunkedBoard board) {
+		this.board = board;
+		this.claims = new AtomicIntegerArray((int) (((long) board.getRowCount() * board.getColCount() + 31) >>> 5));
+		this.chunkColCount = (board.getColCount() + Board.CHUNK_MASK) >>> Board.CHUNK_SHIFT;
+		this.touchedChunks = new boolean[((board.getRowCount() + Board.CHUNK_MASK) >>> Board.CHUNK_SHIFT) * chunkColCount];
+	}
+	
+	/**
+	 * Reveals every UNKNOWN cell without mine reachable from the given (row, col) seeds and returns the revealed cells,
+	 * as arrays of (row, col) pairs
+	 */
+	List<int[]> reveal(int[] seeds, int seedCount) {
+		ForkJoinPool.commonPool().invoke(new RevealTask(Arrays.copyOf(seeds, Math.max(seedCount, 2 * SPLIT_SIZE)), seedCount));
+		
+		for (int chunkIndex = 0; chunkIndex < touchedChunks.length; chunkIndex++) {
+			if (touchedChunks[chunkIndex]) {
+				board.touchChunk(chunkIndex / chunkColCount << Board.CHUNK_SHIFT, chunkIndex % chunkColCount << Board.CHUNK_SHIFT);
+			}
+		}
+		
+		return new ArrayList<>(revealedCells);
+	}
+	
+	/**
+	 * Returns whether or not a cell should be revealed (without claiming it)
+	 */
+	private boolean shouldBeRevealed(int row, int col) {
+		if (row < 0 || row >= board.getRowCount() || col < 0 || col >= board.getColCount()) {
+			return false;
+		}
+		
+		byte cell = board.get(row, col);
+		
+		return State.UNKNOWN == Board.state(cell) && !Board.isMined(cell);
+	}
+	
+	/**
+	 * Claims a cell for the calling task, returns false if it was already claimed
+	 */
+	private boolean claim(int row, int col) {
+		long cellIndex = (long) row * board.getColCount() + col;
+		int wordIndex = (int) (cellIndex >>> 5);
+		int bit = 1 << (int) (cellIndex & 31);
+		
+		while (true) {
+			int word = claims.get(wordIndex);
+			
+			if ((word & bit) != 0) {
+				return false;
+			}
+			
+			if (claims.compareAndSet(wordIndex, word, word | bit)) {
+				return true;
+			}
+		}
+	}
+	
+	/**
+	 * Task that reveals the region reachable from the cells on its stack
+	 */
+	private class RevealTask extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private int[] stack;
+		private int stackSize;
+		
+		private int[] revealed = new int[2 * SPLIT_SIZE];
+		private int revealedSize;
+		
+		private RevealTask(int[] stack, int stackSize) {
+			this.stack = stack;
+			this.stackSize = stackSize;
+		}
+		
+		@Override
+		protected void compute() {
+			List<RevealTask> forkedTasks = new ArrayList<>();
+			
+			while (stackSize > 0) {
+				stackSize -= 2;
+				int row = stack[stackSize];
+				int col = stack[stackSize + 1];
+				
+				if (!shouldBeRevealed(row, col) || !claim(row, col)) {
+					continue;
+				}
+				
+				reveal(row, col);
+				
+				// the span of the seed is extended as far as this task can claim it
+				int left = col;
+				while (shouldBeRevealed(row, left - 1) && claim(row, left - 1)) {
+					reveal(row, --left);
+				}
+				
+				int right = col;
+				while (shouldBeRevealed(row, right + 1) && claim(row, right + 1)) {
+					reveal(row, ++right);
+				}
+				
+				pushSpanSeeds(row - 1, left, right);
+				pushSpanSeeds(row + 1, left, right);
+				
+				// half of the stack (its bottom, farther from this task's current cells) is handed to a new task, as
+				// long as there aren't already enough tasks waiting to be stolen
+				if (stackSize > 2 * SPLIT_SIZE && getSurplusQueuedTaskCount() < 2) {
+					int half = stackSize / 4 * 2;
+					RevealTask task = new RevealTask(Arrays.copyOf(stack, Math.max(half, 2 * SPLIT_SIZE)), half);
+					System.arraycopy(stack, half, stack, 0, stackSize - half);
+					stackSize -= half;
+					
+					task.fork();
+					forkedTasks.add(task);
+				}
+			}
+			
+			revealedCells.add(Arrays.copyOf(revealed, revealedSize));
+			
+			for (RevealTask task : forkedTasks) {
+				task.join();
+			}
+		}
+		
+		/**
+		 * Pushes a seed for every run of cells that should be revealed within the columns [left, right] of a row
+		 */
+		private void pushSpanSeeds(int row, int left, int right) {
+			boolean inRun = false;
+			
+			for (int col = left; col <= right; col++) {
+				if (shouldBeRevealed(row, col)) {
+					if (!inRun) {
+						push(row, col);
+						inRun = true;
+					}
+				} else {
+					inRun = false;
+				}
+			}
+		}
+		
+		/**
+		 * Reveals a claimed cell and keeps track of it
+		 */
+		private void reveal(int row, int col) {
+			board.setConcurrently(row, col, Board.withState(board.get(row, col), State.EMPTY));
+			touchedChunks[(row >>> Board.CHUNK_SHIFT) * chunkColCount + (col >>> Board.CHUNK_SHIFT)] = true;
+			
+			if (revealedSize + 2 > revealed.length) {
+				revealed = Arrays.copyOf(revealed, revealed.length * 2);
+			}
+			
+			revealed[revealedSize++] = row;
+			revealed[revealedSize++] = col;
+		}
+		
+		/**
+		 * Pushes a cell onto the stack
+		 */
+		private void push(int row, int col) {
+			if (stackSize + 2 > stack.length) {
+				stack = Arrays.copyOf(stack, stack.length * 2);
+			}
+			
+			stack[stackSize++] = row;
+			stack[stackSize++] = col;
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Allocator of blocks of memory off the heap, carved from big direct buffers (slabs) so that the garbage collector
+ * only sees a few long lived buffers no matter how many blocks are in use. Block sizes are powers of two (from
+ * {@link #MIN_BLOCK_SIZE} up to a whole slab) and freed blocks are kept in a list per size to be reused. Memory is
+ * never returned to the operating system, and since free blocks are neither split nor coalesced they only serve blocks
+ * of their own size: reserved memory stays at the peak of blocks in use as long as sizes are stable, but it can grow
+ * beyond it when freed blocks of one size are followed by requests for another one.
+ * <p>
+ * Blocks must be freed explicitly (see {@link #free(ByteBuffer)}) and must not be used afterwards, since they may
+ * already hold the cells of another board
+ */
+class SlabAllocator {
+	
+	/**
+	 * Default size of the slabs (16MB)
+	 */
+	static final int DEFAULT_SLAB_SIZE = 1 << 24;
+	
+	/**
+	 * Size of the smallest block
+	 */
+	static final int MIN_BLOCK_SIZE = 64;
+	
+	private final int slabSize;
+	
+	/**
+	 * Freed blocks by size (indexed by the power of two of their size)
+	 */
+	private final Deque<ByteBuffer>[] freeBlocks;
+	
+	/**
+	 * Slab blocks are being carved from, along with the position of its first free byte
+	 */
+	private ByteBuffer currentSlab;
+	private int currentSlabPosition;
+	
+	private long slabCount;
+	private long usedBytes;
+	
+	/**
+	 * Initializes an allocator with the default slab size
+	 */
+	SlabAllocator() {
+		this(DEFAULT_SLAB_SIZE);
+	}
+	
+	/**
+	 * Initializes an allocator of slabs of the given size, which has to be a power of two
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	SlabAllocator(int slabSize) {
+		if (Integer.bitCount(slabSize) != 1 || slabSize < MIN_BLOCK_SIZE) {
+			throw new IllegalArgumentException("Slab size must be a power of two of at least " + MIN_BLOCK_SIZE + " bytes");
+		}
+		
+		this.slabSize = slabSize;
+		this.freeBlocks = new Deque[Integer.numberOfTrailingZeros(slabSize) + 1];
+		
+		for (int sizeShift = 0; sizeShift < freeBlocks.length; sizeShift++) {
+			freeBlocks[sizeShift] = new ArrayDeque<>();
+		}
+	}
+	
+	/**
+	 * Returns the size of the slabs, which is the size of the biggest block
+	 */
+	int getSlabSize() {
+		return slabSize;
+	}
+	
+	/**
+	 * Allocates a block of at least the given size (rounded up to a power of two) filled with zeros
+	 */
+	synchronized ByteBuffer allocate(int size) {
+		if (size > slabSize) {
+			throw new IllegalArgumentException("Blocks can't have more than " + slabSize + " bytes");
+		}
+		
+		int blockSize = Math.max(MIN_BLOCK_SIZE, Integer.highestOneBit(size - 1) << 1);
+		ByteBuffer block = freeBlocks[Integer.numberOfTrailingZeros(blockSize)].poll();
+		
+		if (block != null) {
+			clear(block);
+		} else {
+			block = carve(blockSize);
+		}
+		
+		usedBytes += blockSize;
+		
+		return block;
+	}
+	
+	/**
+	 * Returns a block to the allocator, so that it can be reused
+	 */
+	synchronized void free(ByteBuffer block) {
+		freeBlocks[Integer.numberOfTrailingZeros(block.capacity())].push(block);
+		usedBytes -= block.capacity();
+	}
+	
+	/**
+	 * Returns the amount of bytes reserved off the heap (the size of every slab)
+	 */
+	synchronized long getReservedBytes() {
+		return slabCount * slabSize;
+	}
+	
+	/**
+	 * Returns the amount of bytes of the blocks in use
+	 */
+	synchronized long getUsedBytes() {
+		return usedBytes;
+	}
+	
+	/**
+	 * Carves a new block from the current slab, starting a new one if it doesn't fit (whatever is left of the former
+	 * slab is split in blocks that are kept as free ones)
+	 */
+	private ByteBuffer carve(int blockSize) {
+		if (blockSize == slabSize) {
+			return newSlab();
+		}
+		
+		if (currentSlab == null || slabSize - currentSlabPosition < blockSize) {
+			if (currentSlab != null) {
+				freeRemainder();
+			}
+			
+			currentSlab = newSlab();
+			currentSlabPosition = 0;
+		}
+		
+		ByteBuffer block = slice(currentSlab, currentSlabPosition, blockSize);
+		currentSlabPosition += blockSize;
+		
+		return block;
+	}
+	
+	/**
+	 * Splits what is left of the current slab in free blocks, each one as big as both the space left and the alignment
+	 * of its position allow (positions are always a multiple of the minimum block size)
+	 */
+	private void freeRemainder() {
+		while (slabSize - currentSlabPosition >= MIN_BLOCK_SIZE) {
+			int blockSize = Integer.lowestOneBit(currentSlabPosition);
+			
+			while (blockSize > slabSize - currentSlabPosition) {
+				blockSize >>>= 1;
+			}
+			
+			freeBlocks[Integer.numberOfTrailingZeros(blockSize)].push(slice(currentSlab, currentSlabPosition, blockSize));
+			currentSlabPosition += blockSize;
+		}
+	}
+	
+	/**
+	 * Allocates a new slab
+	 */
+	private ByteBuffer newSlab() {
+		slabCount++;
+		return ByteBuffer.allocateDirect(slabSize);
+	}
+	
+	/**
+	 * Returns a block that shares the memory of a slab
+	 */
+	private static ByteBuffer slice(ByteBuffer slab, int position, int size) {
+		ByteBuffer block = slab.duplicate();
+		block.position(position).limit(position + size);
+		return block.slice();
+	}
+	
+	/**
+	 * Fills a block with zeros
+	 */
+	private static void clear(ByteBuffer block) {
+		for (int position = 0; position < block.capacity(); position += Long.BYTES) {
+			block.putLong(position, 0);
+		}
+	}
+}
@@ -0,0 +1,181 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact binary snapshot of every game (see {@link Game#writeSnapshot(java.io.DataOutput)}), so that recovering
+ * games doesn't replay every move since they were created (see {@link MoveLog}). Games are written one at a time while
+ * holding their lock, so moves only wait for the game they are made on to be copied.
+ * <p>
+ * Snapshots are written to a temporary file that replaces the previous snapshot once it's on disk, and they are read
+ * by mapping them into memory, so restored boards (see {@link DeferredBoard}) keep their states without copying them
+ */
+final class Snapshot {
+	
+	/**
+	 * First bytes of every snapshot ("MSWS") followed by the version of the format
+	 */
+	private static final int MAGIC = 0x4D535753;
+	private static final byte FORMAT_VERSION = 1;
+	
+	/**
+	 * Length that marks the end of the games, followed by their amount and the checksum of everything before it
+	 */
+	private static final int END = -1;
+	
+	/**
+	 * Maximum size of each region of the snapshot mapped into memory at once
+	 */
+	private static final long MAPPING_SIZE = Integer.MAX_VALUE;
+	
+	private Snapshot() {
+	}
+	
+	/**
+	 * Writes a snapshot of the given games, skipping those whose memory was freed (see {@link Game#release()}) before
+	 * they were reached, and returns the amount of games written
+	 *
+	 * @param locks function that returns the lock held while each game is written
+	 * @param done function called with each game once it's written or skipped, while still holding its lock
+	 * @throws IOException if the snapshot can't be written
+	 */
+	static long write(Path path, Iterable<Game> games, Function<Game, Lock> locks, Consumer<Game> done) throws IOException {
+		Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+		ByteArrayOutputStream gameBytes = new ByteArrayOutputStream(1024);
+		DataOutputStream gameOut = new DataOutputStream(gameBytes);
+		CRC32 checksum = new CRC32();
+		long gameCount = 0;
+		
+		try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), checksum));
+			
+			out.writeInt(MAGIC);
+			out.writeByte(FORMAT_VERSION);
+			
+			for (Game game : games) {
+				Lock lock = locks.apply(game);
+				lock.lock();
+				
+				try {
+					if (game.isReleased()) {
+						continue;
+					}
+					
+					gameBytes.reset();
+					game.writeSnapshot(gameOut);
+				} finally {
+					try {
+						done.accept(game);
+					} finally {
+						lock.unlock();
+					}
+				}
+				
+				out.writeInt(gameBytes.size());
+				gameBytes.writeTo(out);
+				gameCount++;
+			}
+			
+			out.writeInt(END);
+			out.writeLong(gameCount);
+			out.flush();
+			
+			// the checksum covers everything before itself
+			ByteBuffer trailer = ByteBuffer.allocate(Integer.BYTES).putInt((int) checksum.getValue());
+			trailer.flip();
+			
+			while (trailer.hasRemaining()) {
+				channel.write(trailer);
+			}
+			
+			channel.force(true);
+		}
+		
+		Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		MoveLog.syncDirectory(path);
+		
+		return gameCount;
+	}
+	
+	/**
+	 * Reads every game of a snapshot (if there is one)
+	 *
+	 * @throws IOException if the snapshot can't be read or it's corrupted
+	 */
+	static void read(Path path, Consumer<Game> consumer) throws IOException {
+		if (!Files.exists(path)) {
+			return;
+		}
+		
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			CRC32 checksum = new CRC32();
+			long gameCount = 0;
+			
+			MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAPPING_SIZE));
+			long regionStart = 0;
+			
+			if (size < Integer.BYTES + 1 || region.getInt() != MAGIC || region.get() != FORMAT_VERSION) {
+				throw new IOException(path + " is not a snapshot");
+			}
+			
+			while (true) {
+				boolean lengthFits = region.remaining() >= Integer.BYTES;
+				int length = lengthFits ? region.getInt(region.position()) : 0;
+				
+				if (length < 0 && length != END) {
+					throw new IOException("Snapshot " + path + " is corrupted");
+				}
+				
+				long recordSize = Integer.BYTES + (!lengthFits ? 0 : length == END ? Long.BYTES + Integer.BYTES : length);
+				
+				// records never span regions, so a record that doesn't fit in this one starts the next one
+				if (region.remaining() < recordSize) {
+					if (regionStart + region.limit() == size || region.position() == 0) {
+						throw new IOException("Snapshot " + path + " is truncated");
+					}
+					
+					checksum.update((ByteBuffer) region.duplicate().limit(region.position()).position(0));
+					
+					regionStart += region.position();
+					region = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, Math.min(size - regionStart, MAPPING_SIZE));
+					continue;
+				}
+				
+				region.getInt();
+				
+				if (length == END) {
+					break;
+				}
+				
+				int gameEnd = region.position() + length;
+				consumer.accept(Game.readSnapshot(region));
+				region.position(gameEnd);
+				gameCount++;
+			}
+			
+			long writtenGameCount = region.getLong();
+			checksum.update((ByteBuffer) region.duplicate().limit(region.position()).position(0));
+			
+			if ((int) checksum.getValue() != region.getInt() || writtenGameCount != gameCount) {
+				throw new IOException("Snapshot " + path + " is corrupted");
+			}
+		}
+	}
+}
@@ -0,0 +1,237 @@
+package ar.com.rbo.minesweeper.domain;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import ar.com.rbo.minesweeper.domain.Cell.State;
+
+/**
+ * {@link Board} for enormous, mostly empty games. Mines are kept in a {@link LongHashSet} of cell indexes, and cells
+ * are only stored once they change (i.e. they are revealed, flagged or marked), in square chunks allocated on demand.
+ * Adjacent mine counts are computed lazily, when a chunk is allocated or a cell of a missing chunk is read, so memory
+ * is proportional to the amount of mines plus the changed area
+ */
+class SparseBoard extends Board {
+	
+	private final LongHashSet mines;
+	
+	private final Map<Long, Chunk> chunks = new ConcurrentHashMap<>();
+	
+	/**
+	 * Last chunk that was accessed, cascades tend to access the same chunk many times in a row
+	 */
+	private Chunk lastChunk;
+	
+	/**
+	 * Initializes a board with all cells in UNKNOWN state and mines in the given cells (by row-major index)
+	 */
+	SparseBoard(int rowCount, int colCount, LongHashSet mines) {
+		super(rowCount, colCount);
+		this.mines = mines;
+	}
+	
+	@Override
+	byte get(int row, int col) {
+		Chunk chunk = findChunk(row, col);
+		
+		if (chunk != null) {
+			return chunk.cells[offset(row, col)];
+		}
+		
+		return pack(State.UNKNOWN, isMinedCell(row, col), countAdjacentMines(row, col));
+	}
+	
+	@Override
+	void set(int row, int col, byte cell) {
+		Chunk chunk = findChunk(row, col);
+		
+		if (chunk == null) {
+			chunk = allocateChunk(row, col);
+		}
+		
+		chunk.cells[offset(row, col)] = cell;
+		chunk.version++;
+	}
+	
+	@Override
+	long getChunkChangeCount(int row, int col) {
+		Chunk chunk = findChunk(row, col);
+		return chunk != null ? chunk.version : 0;
+	}
+	
+	@Override
+	State getState(int row, int col) {
+		Chunk chunk = findChunk(row, col);
+		return chunk != null ? state(chunk.cells[offset(row, col)]) : State.UNKNOWN;
+	}
+	
+	@Override
+	boolean isMined(int row, int col) {
+		Chunk chunk = findChunk(row, col);
+		return chunk != null ? isMined(chunk.cells[offset(row, col)]) : isMinedCell(row, col);
+	}
+	
+	/**
+	 * Writes the states of the changed cells, going only through the allocated chunks
+	 */
+	@Override
+	void writeStates(DataOutput out) throws IOException {
+		for (Chunk chunk : chunks.values()) {
+			int firstRow = (int) (chunk.key >>> 32) << CHUNK_SHIFT;
+			int firstCol = (int) chunk.key << CHUNK_SHIFT;
+			
+			writeStates(out, firstRow, Math.min(getRowCount(), firstRow + CHUNK_SIZE), firstCol, Math.min(getColCount(), firstCol + CHUNK_SIZE));
+		}
+		
+		out.writeInt(0);
+	}
+	
+	/**
+	 * Sparse boards already take less than a copy would, as they only hold their mines and the chunks that changed
+	 */
+	@Override
+	Board toFinished() {
+		return this;
+	}
+	
+	/**
+	 * Copies the state of every changed cell (i.e. whose state isn't UNKNOWN) to another board of the same size
+	 */
+	void copyStatesTo(Board board) {
+		for (Chunk chunk : chunks.values()) {
+			int firstRow = (int) (chunk.key >>> 32) << CHUNK_SHIFT;
+			int firstCol = (int) chunk.key << CHUNK_SHIFT;
+			
+			for (int row = firstRow; row < Math.min(getRowCount(), firstRow + CHUNK_SIZE); row++) {
+				for (int col = firstCol; col < Math.min(getColCount(), firstCol + CHUNK_SIZE); col++) {
+					State state = state(chunk.cells[offset(row, col)]);
+					
+					if (state != State.UNKNOWN) {
+						board.setState(row, col, state);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns the amount of chunks allocated so far
+	 */
+	@VisibleForTesting
+	int getChunkCount() {
+		return chunks.size();
+	}
+	
+	/**
+	 * Returns the chunk that holds a cell, or null if it wasn't allocated yet
+	 */
+	private Chunk findChunk(int row, int col) {
+		long key = chunkKey(row, col);
+		Chunk chunk = lastChunk;
+		
+		if (chunk == null || chunk.key != key) {
+			chunk = chunks.get(key);
+			
+			if (chunk != null) {
+				lastChunk = chunk;
+			}
+		}
+		
+		return chunk;
+	}
+	
+	/**
+	 * Allocates the chunk that holds a cell, with its cells packed from the mines within it and around it
+	 */
+	private Chunk allocateChunk(int row, int col) {
+		int firstRow = row & ~CHUNK_MASK;
+		int firstCol = col & ~CHUNK_MASK;
+		int lastRow = Math.min(getRowCount(), firstRow + CHUNK_SIZE) - 1;
+		int lastCol = Math.min(getColCount(), firstCol + CHUNK_SIZE) - 1;
+		
+		// mines of the chunk plus a halo of one cell around it, so each mine is looked up only once
+		boolean[][] mined = new boolean[CHUNK_SIZE + 2][CHUNK_SIZE + 2];
+		
+		for (int haloRow = Math.max(0, firstRow - 1); haloRow <= Math.min(getRowCount() - 1, lastRow + 1); haloRow++) {
+			for (int haloCol = Math.max(0, firstCol - 1); haloCol <= Math.min(getColCount() - 1, lastCol + 1); haloCol++) {
+				mined[haloRow - firstRow + 1][haloCol - firstCol + 1] = isMinedCell(haloRow, haloCol);
+			}
+		}
+		
+		Chunk chunk = new Chunk(chunkKey(row, col));
+		
+		for (int chunkRow = 1; chunkRow <= lastRow - firstRow + 1; chunkRow++) {
+			for (int chunkCol = 1; chunkCol <= lastCol - firstCol + 1; chunkCol++) {
+				int adjacentMines = 0;
+				
+				for (int neighbourRow = chunkRow - 1; neighbourRow <= chunkRow + 1; neighbourRow++) {
+					for (int neighbourCol = chunkCol - 1; neighbourCol <= chunkCol + 1; neighbourCol++) {
+						if (mined[neighbourRow][neighbourCol] && (neighbourRow != chunkRow || neighbourCol != chunkCol)) {
+							adjacentMines++;
+						}
+					}
+				}
+				
+				chunk.cells[(chunkRow - 1) << CHUNK_SHIFT | chunkCol - 1] = pack(State.UNKNOWN, mined[chunkRow][chunkCol], adjacentMines);
+			}
+		}
+		
+		chunks.put(chunk.key, chunk);
+		lastChunk = chunk;
+		
+		return chunk;
+	}
+	
+	/**
+	 * Counts the mines adjacent to a cell by looking each neighbour up
+	 */
+	private int countAdjacentMines(int row, int col) {
+		int adjacentMines = 0;
+		
+		for (int neighbourRow = Math.max(0, row - 1); neighbourRow <= Math.min(getRowCount() - 1, row + 1); neighbourRow++) {
+			for (int neighbourCol = Math.max(0, col - 1); neighbourCol <= Math.min(getColCount() - 1, col + 1); neighbourCol++) {
+				if ((neighbourRow != row || neighbourCol != col) && isMinedCell(neighbourRow, neighbourCol)) {
+					adjacentMines++;
+				}
+			}
+		}
+		
+		return adjacentMines;
+	}
+	
+	/**
+	 * Returns whether or not a cell was generated with a mine
+	 */
+	private boolean isMinedCell(int row, int col) {
+		return mines.contains((long) row * getColCount() + col);
+	}
+	
+	/**
+	 * Returns the key of the chunk that holds a cell
+	 */
+	private static long chunkKey(int row, int col) {
+		return (long) (row >>> CHUNK_SHIFT) << 32 | col >>> CHUNK_SHIFT;
+	}
+	
+	/**
+	 * Square block of packed cells
+	 */
+	private static class Chunk {
+		
+		private final long key;
+		private final byte[] cells = new byte[CHUNK_SIZE * CHUNK_SIZE];
+		
+		/**
+		 * Only changed while holding the game's lock, it's volatile so that readers see it after the cells it covers
+		 */
+		private volatile long version;
+		
+		private Chunk(long key) {
+			this.key = key;
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package ar.com.rbo.minesweeper.domain;
+
+/**
+ * Metrics of where {@link GameService} keeps its games: in memory or evicted to its {@link ColdStorage}
+ */
+public final class StorageMetrics {
+	
+	private final int residentGames;
+	private final int evictedGames;
+	
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+	
+	/**
+	 * Initializes the metrics
+	 */
+	public StorageMetrics(int residentGames, int evictedGames, long hits, long misses, long evictions) {
+		this.residentGames = residentGames;
+		this.evictedGames = evictedGames;
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+	}
+	
+	/**
+	 * Returns the amount of games kept in memory
+	 */
+	public int getResidentGames() {
+		return residentGames;
+	}
+	
+	/**
+	 * Returns the amount of games evicted to the cold storage
+	 */
+	public int getEvictedGames() {
+		return evictedGames;
+	}
+	
+	/**
+	 * Returns the amount of lookups by id of games kept in memory
+	 */
+	public long getHits() {
+		return hits;
+	}
+	
+	/**
+	 * Returns the amount of lookups by id of games loaded back from the cold storage
+	 */
+	public long getMisses() {
+		return misses;
+	}
+	
+	/**
+	 * Returns the amount of games evicted to the cold storage
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+}
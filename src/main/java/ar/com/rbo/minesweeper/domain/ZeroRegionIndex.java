@@ -0,0 +1,221 @@
+package ar.com.rbo.minesweeper.domain;
+
+import ar.com.rbo.minesweeper.domain.Cell.State;
+
+/**
+ * Index of the regions a reveal cascade can open, that is, the groups of cells without mines connected horizontally or
+ * vertically. They are fixed once mines are placed, so they are labeled a single time with union-find and their cells
+ * are kept grouped by region, which lets a reveal into a region whose cells are all still UNKNOWN open it without
+ * traversing the board.
+ * <p>
+ * The amount of cells of each region that aren't UNKNOWN is kept up to date through
+ * {@link #stateChanged(int, int, State, State)}, since a flagged, marked or revealed cell stops the cascade and the
+ * region can then only be opened cell by cell
+ */
+class ZeroRegionIndex {
+	
+	private final int colCount;
+	
+	/**
+	 * Region of each cell (by its index, row * colCount + col), -1 for mined cells
+	 */
+	private final int[] regions;
+	
+	/**
+	 * Indexes of the cells without mines grouped by region, the cells of a region go from its start to the start of
+	 * the next one
+	 */
+	private final int[] cells;
+	private final int[] regionStarts;
+	
+	/**
+	 * Amount of cells of each region that aren't UNKNOWN
+	 */
+	private final int[] touchedCells;
+	
+	/**
+	 * Labels the regions of a board (only its mines are taken into account)
+	 */
+	ZeroRegionIndex(Board board) {
+		if ((long) board.getRowCount() * board.getColCount() > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Boards with more than " + Integer.MAX_VALUE + " cells can't be indexed");
+		}
+		
+		this.colCount = board.getColCount();
+		this.regions = new int[board.getRowCount() * colCount];
+		
+		int freeCellCount = union(board);
+		int regionCount = label();
+		
+		this.regionStarts = new int[regionCount + 1];
+		this.cells = new int[freeCellCount];
+		this.touchedCells = new int[regionCount];
+		
+		group();
+	}
+	
+	/**
+	 * Joins every cell without mines with its neighbours above and to the left, leaving the parent of each cell on the
+	 * regions array (roots are always the first cell of their region), and returns the amount of cells without mines
+	 */
+	private int union(Board board) {
+		int freeCellCount = 0;
+		
+		for (int row = 0, cell = 0; row < board.getRowCount(); row++) {
+			for (int col = 0; col < colCount; col++, cell++) {
+				if (Board.isMined(board.get(row, col))) {
+					regions[cell] = -1;
+					continue;
+				}
+				
+				regions[cell] = cell;
+				freeCellCount++;
+				
+				if (col > 0 && regions[cell - 1] >= 0) {
+					join(cell, cell - 1);
+				}
+				
+				if (row > 0 && regions[cell - colCount] >= 0) {
+					join(cell, cell - colCount);
+				}
+			}
+		}
+		
+		return freeCellCount;
+	}
+	
+	/**
+	 * Joins the regions of two cells, the root with the greatest index is linked to the other one
+	 */
+	private void join(int cell, int otherCell) {
+		int root = find(cell);
+		int otherRoot = find(otherCell);
+		
+		if (root < otherRoot) {
+			regions[otherRoot] = root;
+		} else if (otherRoot < root) {
+			regions[root] = otherRoot;
+		}
+	}
+	
+	/**
+	 * Returns the root of a cell's region, halving its path along the way
+	 */
+	private int find(int cell) {
+		while (regions[cell] != cell) {
+			regions[cell] = regions[regions[cell]];
+			cell = regions[cell];
+		}
+		
+		return cell;
+	}
+	
+	/**
+	 * Replaces the parent of each cell by the number of its region and returns the amount of regions. Since parents
+	 * always come before their children, a single pass in order is enough
+	 */
+	private int label() {
+		int regionCount = 0;
+		
+		for (int cell = 0; cell < regions.length; cell++) {
+			int parent = regions[cell];
+			
+			if (parent < 0) {
+				continue;
+			}
+			
+			regions[cell] = parent == cell ? regionCount++ : regions[parent];
+		}
+		
+		return regionCount;
+	}
+	
+	/**
+	 * Groups the cells by region (a counting sort)
+	 */
+	private void group() {
+		for (int region : regions) {
+			if (region >= 0) {
+				regionStarts[region + 1]++;
+			}
+		}
+		
+		for (int region = 0; region < touchedCells.length; region++) {
+			regionStarts[region + 1] += regionStarts[region];
+		}
+		
+		int[] nextCells = regionStarts.clone();
+		
+		for (int cell = 0; cell < regions.length; cell++) {
+			if (regions[cell] >= 0) {
+				cells[nextCells[regions[cell]]++] = cell;
+			}
+		}
+	}
+	
+	/**
+	 * Returns the region of a cell, -1 if it has a mine
+	 */
+	int getRegion(int row, int col) {
+		return regions[row * colCount + col];
+	}
+	
+	/**
+	 * Returns the amount of regions
+	 */
+	int getRegionCount() {
+		return touchedCells.length;
+	}
+	
+	/**
+	 * Returns whether or not every cell of a region is still UNKNOWN, so that a reveal into it opens all of them
+	 */
+	boolean isUntouched(int region) {
+		return touchedCells[region] == 0;
+	}
+	
+	/**
+	 * Returns the amount of cells of a region
+	 */
+	int getCellCount(int region) {
+		return regionStarts[region + 1] - regionStarts[region];
+	}
+	
+	/**
+	 * Returns the row of one of the cells of a region
+	 */
+	int getRow(int region, int cellIndex) {
+		return cells[regionStarts[region] + cellIndex] / colCount;
+	}
+	
+	/**
+	 * Returns the column of one of the cells of a region
+	 */
+	int getCol(int region, int cellIndex) {
+		return cells[regionStarts[region] + cellIndex] % colCount;
+	}
+	
+	/**
+	 * Keeps track of a cell whose state changed
+	 */
+	void stateChanged(int row, int col, State previousState, State state) {
+		int region = getRegion(row, col);
+		
+		if (region < 0) {
+			return;
+		}
+		
+		if (State.UNKNOWN == previousState) {
+			touchedCells[region]++;
+		} else if (State.UNKNOWN == state) {
+			touchedCells[region]--;
+		}
+	}
+	
+	/**
+	 * Marks every cell of a region as revealed (the caller changes their state)
+	 */
+	void regionRevealed(int region) {
+		touchedCells[region] = getCellCount(region);
+	}
+}
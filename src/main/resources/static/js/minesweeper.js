@@ -1,5 +1,11 @@
 var MINESWEEPER = {}
 
+// the board is shown through a viewport, whose cells are loaded in square tiles as they become visible
+MINESWEEPER.TILE_SIZE = 16;
+MINESWEEPER.VIEWPORT_ROWS = 16;
+MINESWEEPER.VIEWPORT_COLS = 32;
+MINESWEEPER.MAX_SIZE = 10000;
+
 // show elapsed time below the board (it will start showing once the game is in progress)
 setInterval(function() { 
 	if ('IN_PROGRESS' == MINESWEEPER.state) {
@@ -17,11 +23,11 @@ MINESWEEPER.newGame = function() {
 
 	var validationMessages = new Array();
 
-	if (rows.length < 0 || rows < 1 || rows > 30 || isNaN(rows)) {
+	if (rows.length < 0 || rows < 1 || rows > MINESWEEPER.MAX_SIZE || isNaN(rows)) {
 		validationMessages.push('You must input a valid amount of rows');
 	}
 
-	if (cols.length < 0 || cols < 1 || cols > 30 || isNaN(cols)) {
+	if (cols.length < 0 || cols < 1 || cols > MINESWEEPER.MAX_SIZE || isNaN(cols)) {
 		validationMessages.push('You must input a valid amount of columns');
 	}
 
@@ -37,16 +43,18 @@ MINESWEEPER.newGame = function() {
 }
 
 /**
- * Makes a request to create a new game, if successful the new game is rendered
+ * Makes a request to create a new game (without its board, which is loaded by tiles), if successful the new game is
+ * rendered
  */
 MINESWEEPER.createGame = function(rows, cols, mines) { 
 	var payload = {
 		    'rowCount': rows,
 		    'colCount': cols,
-		    'mineCount': mines
+		    'mineCount': mines,
+		    'safeFirstReveal': true
 		};
 	
-	this.request('POST', 'games', this.update, payload);
+	this.request('POST', 'games?summary=true', this.update, payload);
 }
 
 /**
@@ -57,9 +65,125 @@ MINESWEEPER.update = function(game) {
 	// game status is updated
 	MINESWEEPER.gameId = game.id;
 	MINESWEEPER.startTime = Date.parse(game.creationDate);
-	MINESWEEPER.state = game.state;
+	MINESWEEPER.version = game.version;
+	MINESWEEPER.rowCount = game.rowCount;
+	MINESWEEPER.colCount = game.colCount;
+	
+	// tiles of a previous game are discarded and the viewport goes back to the top left corner
+	MINESWEEPER.tiles = {};
+	MINESWEEPER.viewportRow = 0;
+	MINESWEEPER.viewportCol = 0;
 	
 	// state change is handled
+	MINESWEEPER.updateState(game.state);
+	
+	// updated board is rendered
+	MINESWEEPER.renderBoard();
+}
+
+/**
+ * Applies the changes made by a move to the loaded tiles (only the changed cells are rendered again), unless
+ * some other change was missed, in which case every tile is requested again. Moves that changed too many cells
+ * come without them, so every tile is requested again as well
+ */
+MINESWEEPER.applyDelta = function(delta) {
+	if (delta.baseVersion != MINESWEEPER.version) {
+		MINESWEEPER.tiles = {};
+		MINESWEEPER.renderViewport();
+		return;
+	}
+	
+	MINESWEEPER.version = delta.version;
+	
+	if (!delta.cells) {
+		MINESWEEPER.tiles = {};
+		MINESWEEPER.renderViewport();
+		MINESWEEPER.updateState(delta.state);
+		return;
+	}
+	
+	for (var cellIndex = 0; cellIndex < delta.cells.length; cellIndex++) {
+		var cell = delta.cells[cellIndex];
+		
+		// changes to tiles that haven't been loaded are ignored, they will be up to date once they are loaded
+		var tile = MINESWEEPER.tiles[MINESWEEPER.tileKey(cell.row, cell.col)];
+		
+		if (tile) {
+			tile.board[cell.row - tile.row][cell.col - tile.col] = cell;
+		}
+	}
+	
+	MINESWEEPER.renderViewport();
+	MINESWEEPER.updateState(delta.state);
+}
+
+/**
+ * Stores a loaded tile and renders it. A tile older than the game is requested again and a newer one means some
+ * change was missed, in which case every other tile is discarded
+ */
+MINESWEEPER.applyTile = function(region) {
+	if (region.id != MINESWEEPER.gameId) {
+		return;
+	}
+	
+	var key = MINESWEEPER.tileKey(region.row, region.col);
+	
+	if (region.version < MINESWEEPER.version) {
+		delete MINESWEEPER.tiles[key];
+	} else {
+		if (region.version > MINESWEEPER.version) {
+			MINESWEEPER.tiles = {};
+			MINESWEEPER.version = region.version;
+			MINESWEEPER.updateState(region.state);
+		}
+		
+		MINESWEEPER.tiles[key] = region;
+	}
+	
+	MINESWEEPER.renderViewport();
+}
+
+/**
+ * Returns the key of the tile that contains the cell in the received coordinates
+ */
+MINESWEEPER.tileKey = function(row, col) {
+	return Math.floor(row / MINESWEEPER.TILE_SIZE) + '_' + Math.floor(col / MINESWEEPER.TILE_SIZE);
+}
+
+/**
+ * Makes a request to load the tile that contains the cell in the received coordinates
+ */
+MINESWEEPER.loadTile = function(row, col) {
+	var tileRow = row - row % MINESWEEPER.TILE_SIZE;
+	var tileCol = col - col % MINESWEEPER.TILE_SIZE;
+	
+	// tile is marked as loading so that it's requested only once
+	MINESWEEPER.tiles[MINESWEEPER.tileKey(row, col)] = null;
+	
+	this.request('GET', 'games/' + MINESWEEPER.gameId + '/region?row=' + tileRow + '&col=' + tileCol
+			+ '&rowCount=' + MINESWEEPER.TILE_SIZE + '&colCount=' + MINESWEEPER.TILE_SIZE, this.applyTile);
+}
+
+/**
+ * Moves the viewport by the received amount of rows and columns (without leaving the board) and renders it
+ */
+MINESWEEPER.scroll = function(rows, cols) {
+	if (!MINESWEEPER.gameId) {
+		return;
+	}
+	
+	MINESWEEPER.viewportRow = Math.max(0, Math.min(MINESWEEPER.viewportRow + rows, MINESWEEPER.rowCount - MINESWEEPER.buttons.length));
+	MINESWEEPER.viewportCol = Math.max(0, Math.min(MINESWEEPER.viewportCol + cols, MINESWEEPER.colCount - MINESWEEPER.buttons[0].length));
+	
+	MINESWEEPER.renderViewport();
+}
+
+/**
+ * Updates the state of the game and lets the player know if it was either lost or won
+ */
+MINESWEEPER.updateState = function(state) {
+	MINESWEEPER.state = state;
+	
 	if ('LOST' == MINESWEEPER.state) {
 		alert('BOOM!!!');
 	}
@@ -67,15 +191,12 @@ MINESWEEPER.update = function(game) {
 	if ('WON' == MINESWEEPER.state) {
 		alert('You discovered all the mines!!!');
 	}
-	
-	// updated board is rendered
-	MINESWEEPER.renderBoard(game);
 }
 
 /**
- * Renders the board according to the state of the game
+ * Renders the viewport's buttons and the cells of the board it shows
  */
-MINESWEEPER.renderBoard = function(game) {
+MINESWEEPER.renderBoard = function() {
 	var board = document.getElementById('board');
 	
 	this.removeElementChildren(board);
@@ -83,18 +204,27 @@ MINESWEEPER.renderBoard = function(game) {
 	var table = document.createElement('table');
 	var tableBody = document.createElement('tbody');
 	
-	for (var rowIndex = 0; rowIndex < game.rowCount; rowIndex++) {
+	var rowCount = Math.min(MINESWEEPER.rowCount, MINESWEEPER.VIEWPORT_ROWS);
+	var colCount = Math.min(MINESWEEPER.colCount, MINESWEEPER.VIEWPORT_COLS);
+	
+	// buttons are kept so that cells can be rendered again individually
+	this.buttons = new Array(rowCount);
+	
+	for (var rowIndex = 0; rowIndex < rowCount; rowIndex++) {
 		
 		var row = document.createElement('tr');
 		
-		for (var colIndex = 0; colIndex < game.colCount; colIndex++) {
+		this.buttons[rowIndex] = new Array(colCount);
+		
+		for (var colIndex = 0; colIndex < colCount; colIndex++) {
 			
 			var cell = document.createElement('td');
 			
 			var button = document.createElement('button');
-			button.innerHTML = this.renderCell(game.board[rowIndex][colIndex]);
 			button.onclick = this.createOnClickHandler(rowIndex, colIndex);
 			
+			this.buttons[rowIndex][colIndex] = button;
+			
 			cell.appendChild(button);
 			
 			row.appendChild(cell);
@@ -106,6 +236,29 @@ MINESWEEPER.renderBoard = function(game) {
 	table.appendChild(tableBody);
 	
 	board.appendChild(table);
+	
+	this.renderViewport();
+}
+
+/**
+ * Renders the cells shown by the viewport, requesting the tiles that weren't loaded yet
+ */
+MINESWEEPER.renderViewport = function() {
+	for (var rowIndex = 0; rowIndex < this.buttons.length; rowIndex++) {
+		for (var colIndex = 0; colIndex < this.buttons[rowIndex].length; colIndex++) {
+			var row = MINESWEEPER.viewportRow + rowIndex;
+			var col = MINESWEEPER.viewportCol + colIndex;
+			var key = MINESWEEPER.tileKey(row, col);
+			
+			if (!(key in MINESWEEPER.tiles)) {
+				MINESWEEPER.loadTile(row, col);
+			}
+			
+			var tile = MINESWEEPER.tiles[key];
+			
+			this.buttons[rowIndex][colIndex].innerHTML = tile ? this.renderCell(tile.board[row - tile.row][col - tile.col]) : '&hellip;';
+		}
+	}
 }
 
 /**
@@ -137,7 +290,7 @@ MINESWEEPER.updateElapsedTime = function() {
 }
 
 /**
- * Makes a request to reveal the cell in the received coordinates, if successful, the game is updated
+ * Makes a request to reveal the cell in the received coordinates, if successful, the changes are applied to the board
  */
 MINESWEEPER.reveal = function(row, col) {
 	var payload = {
@@ -146,15 +299,15 @@ MINESWEEPER.reveal = function(row, col) {
 		    'type': 'reveal'
 		};
 	
-	this.request('POST', 'games/' + MINESWEEPER.gameId + '/moves', this.update, payload);
+	this.request('POST', 'games/' + MINESWEEPER.gameId + '/moves?delta=true', this.applyDelta, payload);
 }
 
 /**
- * Auxiliary function to create a handler for the onclick event 
+ * Auxiliary function to create a handler for the onclick event of a viewport's button
  */
-MINESWEEPER.createOnClickHandler = function(row, col) {
+MINESWEEPER.createOnClickHandler = function(rowIndex, colIndex) {
 	return function() {
-		MINESWEEPER.reveal(row, col);
+		MINESWEEPER.reveal(MINESWEEPER.viewportRow + rowIndex, MINESWEEPER.viewportCol + colIndex);
 	}
 }
 
@@ -0,0 +1,45 @@
+package ar.com.rbo.minesweeper.controller;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ar.com.rbo.minesweeper.domain.BoardView;
+import ar.com.rbo.minesweeper.domain.Cell;
+import ar.com.rbo.minesweeper.domain.Game;
+
+/**
+ * Tests for {@link BoardViewSerializer} and {@link BoardViewDeserializer}
+ */
+public class BoardViewSerializerTest {
+	
+	private ObjectMapper objectMapper = new ObjectMapper();
+	
+	@Test
+	public void testSerialization() throws Exception {
+		Game game = new Game(1, 2, 0);
+		game.flag(0, 0);
+		game.reveal(0, 1);
+		
+		String json = objectMapper.writeValueAsString(new GameMapper().toPayload(game));
+		
+		assertEquals(true, json.contains("\"board\":[[{\"state\":\"FLAGGED\",\"adjacentMines\":-1},{\"state\":\"EMPTY\",\"adjacentMines\":0}]]"));
+	}
+	
+	@Test
+	public void testDeserialization() throws Exception {
+		Game game = new Game(2, 3, 0);
+		game.mark(1, 2);
+		
+		GamePayload gamePayload = objectMapper.readValue(objectMapper.writeValueAsString(new GameMapper().toPayload(game)), GamePayload.class);
+		BoardView board = gamePayload.getBoard();
+		
+		assertEquals(2, board.getRowCount());
+		assertEquals(3, board.getColCount());
+		assertEquals(Cell.State.MARKED, board.getState(1, 2));
+		assertEquals(Cell.State.UNKNOWN, board.getState(0, 0));
+		assertEquals(-1, board.getAdjacentMines(0, 0));
+	}
+}
@@ -1,13 +1,22 @@
 package ar.com.rbo.minesweeper.controller;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Date;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -17,9 +26,14 @@ import org.mockito.MockitoAnnotations;
 
 import com.google.common.collect.ImmutableList;
 
+import ar.com.rbo.minesweeper.domain.BoardPool;
 import ar.com.rbo.minesweeper.domain.Game;
+import ar.com.rbo.minesweeper.domain.Game.GameState;
+import ar.com.rbo.minesweeper.domain.GameCursor;
 import ar.com.rbo.minesweeper.domain.GameService;
+import ar.com.rbo.minesweeper.domain.IllegalBatchMoveException;
 import ar.com.rbo.minesweeper.domain.Move;
+import ar.com.rbo.minesweeper.domain.StorageMetrics;
 
 /**
  * Tests for {@link GameController}
@@ -44,6 +58,9 @@ public class GameControllerTest {
 	@Mock
 	private GamePayload anotherGamePayloadMock;
 
+	@Mock
+	private GameDeltaPayload gameDeltaPayloadMock;
+
 	@Mock
 	private MovePayload movePayloadMock;
 		
@@ -59,47 +76,143 @@ public class GameControllerTest {
 	private GameController controller;
 	
 	/**
-	 * Initializes mocks and test instance
+	 * Initializes mocks and test instance, with a service that maps games as it finds, creates or updates them
 	 */
+	@SuppressWarnings("unchecked")
 	public GameControllerTest() throws IllegalAccessException {
 		MockitoAnnotations.initMocks(this);
 		
 		when(mapperMock.toPayload(aGameMock)).thenReturn(aGamePayloadMock);
 		when(mapperMock.toPayload(anotherGameMock)).thenReturn(anotherGamePayloadMock);
 		when(mapperMock.toDomain(movePayloadMock)).thenReturn(moveMock);
+		when(mapperMock.toDeltaPayload(aGameMock)).thenReturn(gameDeltaPayloadMock);
 		
-		when(serviceMock.findGames()).thenReturn(ImmutableList.of(aGameMock, anotherGameMock));
-		when(serviceMock.findGame(GAME_ID)).thenReturn(Optional.of(aGameMock));
-		when(serviceMock.findGame(NON_EXISTING_GAME_ID)).thenReturn(Optional.empty());
-		when(serviceMock.createGame(10, 20, 30)).thenReturn(aGameMock);
-		when(serviceMock.updateGame(GAME_ID, moveMock)).thenReturn(aGameMock);
+		when(serviceMock.findGames(isNull(), isNull(), isNull(), isNull(), eq(100), any(Function.class))).then(invocation -> 
+				ImmutableList.of(aGameMock, anotherGameMock).stream().map(invocation.getArgument(5)).collect(Collectors.toList()));
+		when(serviceMock.findGame(eq(GAME_ID), any(Function.class))).then(invocation -> Optional.of(aGameMock).map(invocation.getArgument(1)));
+		when(serviceMock.findGame(eq(NON_EXISTING_GAME_ID), any(Function.class))).thenReturn(Optional.empty());
+		when(serviceMock.createGame(eq(10), eq(20), eq(30), eq(false), isNull(), eq(false), any(Function.class))).then(invocation -> ((Function<Game, ?>) invocation.getArgument(6)).apply(aGameMock));
+		when(serviceMock.updateGame(eq(GAME_ID), eq(moveMock), any(Function.class))).then(invocation -> ((Function<Game, ?>) invocation.getArgument(2)).apply(aGameMock));
 		
 		controller = new GameController(mapperMock, serviceMock);
 	}
 	
 	@Test
 	public void testFindGames() {
-		GamesPayload games = controller.findGames();
+		GamesPayload games = controller.findGames(null, null, null, null, 100, false);
 		
-		verify(serviceMock).findGames();
+		verify(serviceMock).findGames(isNull(), isNull(), isNull(), isNull(), eq(100), any());
 		verify(mapperMock).toPayload(aGameMock);
 		verify(mapperMock).toPayload(anotherGameMock);
 		
 		assertEquals(2, games.getGames().size());
 		assertEquals(aGamePayloadMock, games.getGames().get(0));
 		assertEquals(anotherGamePayloadMock, games.getGames().get(1));
+		assertNull(games.getNextCursor());
+	}
+	
+	@Test
+	public void testFindGamesPage() {
+		Date from = new Date(1000);
+		Date to = new Date(2000);
+		GameCursor cursor = new GameCursor(1500, UUID.randomUUID());
+		
+		when(anotherGamePayloadMock.getId()).thenReturn(GAME_ID);
+		when(anotherGamePayloadMock.getCreationDate()).thenReturn(new Date(1600));
+		when(serviceMock.findGames(eq(GameState.WON), eq(from), eq(to), eq(cursor), eq(2), any(Function.class))).then(invocation -> 
+				ImmutableList.of(aGameMock, anotherGameMock).stream().map(invocation.getArgument(5)).collect(Collectors.toList()));
+		when(mapperMock.toSummaryPayload(aGameMock)).thenReturn(aGamePayloadMock);
+		when(mapperMock.toSummaryPayload(anotherGameMock)).thenReturn(anotherGamePayloadMock);
+		
+		GamesPayload games = controller.findGames(GameState.WON, from, to, cursor.toString(), 2, true);
+		
+		verify(serviceMock).findGames(eq(GameState.WON), eq(from), eq(to), eq(cursor), eq(2), any());
+		verify(mapperMock).toSummaryPayload(aGameMock);
+		verify(mapperMock).toSummaryPayload(anotherGameMock);
+		
+		assertEquals(2, games.getGames().size());
+		assertEquals(new GameCursor(1600, GAME_ID).toString(), games.getNextCursor());
+	}
+	
+	@Test
+	public void testFindGamesWithInvalidLimit() {
+		exception.expect(IllegalArgumentException.class);
+		
+		controller.findGames(null, null, null, null, 0, false);
 	}
 	
 	@Test
 	public void testFindGame() {
 		GamePayload game = controller.findGame(GAME_ID);
 		
-		verify(serviceMock).findGame(GAME_ID);
+		verify(serviceMock).findGame(eq(GAME_ID), any());
 		verify(mapperMock).toPayload(aGameMock);
 		
 		assertEquals(aGamePayloadMock, game);
 	}
 	
+	@Test
+	public void testFindPackedGame() {
+		when(mapperMock.toPackedPayload(aGameMock)).thenReturn(aGamePayloadMock);
+		
+		GamePayload game = controller.findPackedGame(GAME_ID);
+		
+		verify(serviceMock).findGame(eq(GAME_ID), any());
+		verify(mapperMock).toPackedPayload(aGameMock);
+		
+		assertEquals(aGamePayloadMock, game);
+	}
+	
+	@Test
+	public void testFindGameBoard() {
+		byte[] packedBoard = new byte[] { 0x12, 0x34 };
+		when(mapperMock.toPackedBoard(aGameMock)).thenReturn(packedBoard);
+		
+		assertEquals(packedBoard, controller.findGameBoard(GAME_ID));
+		
+		verify(mapperMock).toPackedBoard(aGameMock);
+	}
+	
+	@Test
+	public void testFindGameRegion() {
+		RegionPayload regionPayloadMock = mock(RegionPayload.class);
+		when(mapperMock.toRegionPayload(aGameMock, 10, 20, 30, 40)).thenReturn(regionPayloadMock);
+		
+		assertEquals(regionPayloadMock, controller.findGameRegion(GAME_ID, 10, 20, 30, 40));
+		
+		verify(mapperMock).toRegionPayload(aGameMock, 10, 20, 30, 40);
+	}
+	
+	@Test
+	public void testFindTooLargeGameRegion() {
+		exception.expect(IllegalArgumentException.class);
+		exception.expectMessage("Region can't have more than 1000000 cells");
+		
+		controller.findGameRegion(GAME_ID, 0, 0, 1001, 1000);
+	}
+	
+	@Test
+	public void testFindPoolPresets() {
+		List<BoardPool.Preset> presets = ImmutableList.of(new BoardPool.Preset(9, 9, 10));
+		List<PoolPresetPayload> presetPayloads = ImmutableList.of(new PoolPresetPayload(9, 9, 10, 4, 1, 2));
+		
+		when(serviceMock.getPoolPresets()).thenReturn(presets);
+		when(mapperMock.toPoolPayload(presets)).thenReturn(presetPayloads);
+		
+		assertEquals(presetPayloads, controller.findPoolPresets());
+	}
+	
+	@Test
+	public void testFindStorageMetrics() {
+		StorageMetrics metrics = new StorageMetrics(3, 2, 10, 4, 6);
+		StoragePayload storagePayload = new StoragePayload(3, 2, 10, 4, 6);
+		
+		when(serviceMock.getStorageMetrics()).thenReturn(metrics);
+		when(mapperMock.toStoragePayload(metrics)).thenReturn(storagePayload);
+		
+		assertEquals(storagePayload, controller.findStorageMetrics());
+	}
+	
 	@Test
 	public void testFindNonExistingGame() {
 		exception.expect(NoSuchElementException.class);
@@ -118,23 +231,77 @@ public class GameControllerTest {
 		
 		GamePayload game = controller.createGame(gameCreationPayloadMock);
 		
-		verify(gameCreationPayloadMock).getRowCount();
-		verify(gameCreationPayloadMock).getColCount();
+		verify(gameCreationPayloadMock, times(2)).getRowCount();
+		verify(gameCreationPayloadMock, times(2)).getColCount();
 		verify(gameCreationPayloadMock).getMineCount();
-		verify(serviceMock).createGame(10, 20, 30);
+		verify(gameCreationPayloadMock).isSparse();
+		verify(gameCreationPayloadMock).getSeed();
+		verify(gameCreationPayloadMock).isSafeFirstReveal();
+		verify(mapperMock).checkBoardSize(10, 20);
+		verify(serviceMock).createGame(eq(10), eq(20), eq(30), eq(false), isNull(), eq(false), any());
 		verify(mapperMock).toPayload(aGameMock);
 		
 		assertEquals(aGamePayloadMock, game);
 	}	
+	
+	@Test
+	public void testCreateGameSummary() {
+		GameCreationPayload gameCreationPayloadMock = mock(GameCreationPayload.class);
+		
+		when(gameCreationPayloadMock.getRowCount()).thenReturn(10);
+		when(gameCreationPayloadMock.getColCount()).thenReturn(20);
+		when(gameCreationPayloadMock.getMineCount()).thenReturn(30);
+		when(mapperMock.toSummaryPayload(aGameMock)).thenReturn(aGamePayloadMock);
+		
+		assertEquals(aGamePayloadMock, controller.createGameSummary(gameCreationPayloadMock));
+		
+		verify(serviceMock).createGame(eq(10), eq(20), eq(30), eq(false), isNull(), eq(false), any());
+		verify(mapperMock).toSummaryPayload(aGameMock);
+	}
 
 	@Test
 	public void testUpdateGame() throws IllegalAccessException {
 		GamePayload game = controller.udpateGame(GAME_ID, movePayloadMock);
 		
 		verify(mapperMock).toDomain(movePayloadMock);
-		verify(serviceMock).updateGame(GAME_ID, moveMock);
+		verify(serviceMock).updateGame(eq(GAME_ID), eq(moveMock), any());
 		verify(mapperMock).toPayload(aGameMock);
 		
 		assertEquals(aGamePayloadMock, game);
 	}
+	
+	@Test
+	public void testUpdateGameWithDelta() throws IllegalAccessException {
+		GameDeltaPayload delta = controller.updateGameWithDelta(GAME_ID, movePayloadMock);
+		
+		verify(mapperMock).toDomain(movePayloadMock);
+		verify(mapperMock).toDeltaPayload(aGameMock);
+		
+		assertEquals(gameDeltaPayloadMock, delta);
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testUpdateGameInBatch() throws IllegalAccessException {
+		List<MovePayload> payloads = ImmutableList.of(movePayloadMock);
+		List<Move> moves = ImmutableList.of(moveMock);
+		
+		when(mapperMock.toDomain(payloads)).thenReturn(moves);
+		when(serviceMock.updateGame(eq(GAME_ID), eq(moves), any(Function.class))).then(invocation -> ((Function<Game, ?>) invocation.getArgument(2)).apply(aGameMock));
+		
+		GamePayload game = controller.updateGameInBatch(GAME_ID, payloads);
+		
+		verify(mapperMock).toDomain(payloads);
+		verify(mapperMock).toPayload(aGameMock);
+		
+		assertEquals(aGamePayloadMock, game);
+	}
+	
+	@Test
+	public void testInvalidBatchMove() {
+		MoveErrorPayload error = controller.invalidBatchMove(new IllegalBatchMoveException(3, "Game is no longer in progress"));
+		
+		assertEquals(3, error.getIndex());
+		assertEquals("Move 3 is illegal: Game is no longer in progress", error.getMessage());
+	}
 }
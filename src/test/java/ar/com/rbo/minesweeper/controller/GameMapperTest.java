@@ -1,12 +1,22 @@
 package ar.com.rbo.minesweeper.controller;
 
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
 import org.junit.Test;
 
+import ar.com.rbo.minesweeper.domain.BoardPool;
+import ar.com.rbo.minesweeper.domain.Cell;
 import ar.com.rbo.minesweeper.domain.Game;
 import ar.com.rbo.minesweeper.domain.Move;
+import ar.com.rbo.minesweeper.domain.StorageMetrics;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Tests for {@link GameMapper}
@@ -23,6 +33,157 @@ public class GameMapperTest {
 		assertEquals(30, gamePayload.getMineCount());
 	}
 	
+	@Test
+	public void testPayloadBoardIsACopy() throws IllegalAccessException {
+		Game game = new Game(3, 4, 0);
+		game.flag(0, 0);
+		game.reveal(2, 3);
+		
+		GamePayload gamePayload = mapper.toPayload(game);
+		
+		// the payload is written after the game's lock is released, so later moves don't show up in it
+		game.clear(0, 0);
+		
+		assertEquals(3, gamePayload.getBoard().getRowCount());
+		assertEquals(4, gamePayload.getBoard().getColCount());
+		assertEquals(Cell.State.FLAGGED, gamePayload.getBoard().getState(0, 0));
+		assertEquals(-1, gamePayload.getBoard().getAdjacentMines(0, 0));
+		assertEquals(Cell.State.EMPTY, gamePayload.getBoard().getState(2, 3));
+		assertEquals(0, gamePayload.getBoard().getAdjacentMines(2, 3));
+	}
+	
+	@Test
+	public void testGameToPackedBoardMapping() throws IllegalAccessException {
+		Game game = new Game(1, 3, 0);
+		game.flag(0, 0);
+		game.reveal(0, 2);
+		
+		assertArrayEquals(new byte[] { (byte) 0xA0, 0x00 }, mapper.toPackedBoard(game));
+		assertArrayEquals(new byte[] { (byte) 0x99, (byte) 0x99 }, mapper.toPackedBoard(new Game(2, 2, 4)));
+	}
+	
+	@Test
+	public void testPackedBoardReflectsLaterMoves() throws IllegalAccessException {
+		Game game = new Game(100, 100, 0);
+		
+		assertEquals((byte) 0x99, mapper.toPackedBoard(game)[0]);
+		
+		// only the chunk that changed is packed again, while the other ones are kept
+		game.flag(99, 99);
+		game.mark(0, 0);
+		
+		byte[] packedBoard = mapper.toPackedBoard(game);
+		
+		assertEquals((byte) 0xB9, packedBoard[0]);
+		assertEquals((byte) 0x99, packedBoard[1]);
+		assertEquals((byte) 0x9A, packedBoard[4999]);
+	}
+	
+	@Test
+	public void testLostGameToPackedPayloadMapping() throws IllegalAccessException {
+		Game game = new Game(1, 1, 1);
+		game.reveal(0, 0);
+		
+		GamePayload gamePayload = mapper.toPackedPayload(game);
+		
+		assertEquals(Game.GameState.LOST, gamePayload.getState());
+		assertEquals(null, gamePayload.getBoard());
+		assertEquals(Base64.getEncoder().encodeToString(new byte[] { (byte) 0xC0 }), gamePayload.getPackedBoard());
+	}
+	
+	@Test
+	public void testEnormousGameToPayloadMapping() {
+		try {
+			mapper.toPayload(new Game(100_000, 100_000, 10));
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Boards with more than 100000000 cells can only be requested by regions", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testPoolPresetsToPayloadMapping() {
+		List<PoolPresetPayload> presetPayloads = mapper.toPoolPayload(Arrays.asList(new BoardPool.Preset(9, 9, 10)));
+		
+		assertEquals(1, presetPayloads.size());
+		assertEquals(9, presetPayloads.get(0).getRowCount());
+		assertEquals(9, presetPayloads.get(0).getColCount());
+		assertEquals(10, presetPayloads.get(0).getMineCount());
+		assertEquals(0, presetPayloads.get(0).getReadyBoards());
+		assertEquals(0, presetPayloads.get(0).getHits());
+		assertEquals(0, presetPayloads.get(0).getMisses());
+	}
+	
+	@Test
+	public void testStorageMetricsToPayloadMapping() {
+		StoragePayload storagePayload = mapper.toStoragePayload(new StorageMetrics(3, 2, 10, 4, 6));
+		
+		assertEquals(3, storagePayload.getResidentGames());
+		assertEquals(2, storagePayload.getEvictedGames());
+		assertEquals(10, storagePayload.getHits());
+		assertEquals(4, storagePayload.getMisses());
+		assertEquals(6, storagePayload.getEvictions());
+	}
+	
+	@Test
+	public void testGameToRegionPayloadMapping() throws IllegalAccessException {
+		Game game = new Game(10, 20, 0);
+		game.flag(5, 6);
+		
+		RegionPayload regionPayload = mapper.toRegionPayload(game, 4, 5, 3, 30);
+		
+		assertEquals(game.getId(), regionPayload.getId());
+		assertEquals(1, regionPayload.getVersion());
+		assertEquals(4, regionPayload.getRow());
+		assertEquals(5, regionPayload.getCol());
+		assertEquals(3, regionPayload.getRowCount());
+		assertEquals(15, regionPayload.getColCount());
+		assertEquals(Cell.State.FLAGGED, regionPayload.getBoard().getState(1, 1));
+	}
+	
+	@Test
+	public void testGameToDeltaPayloadMapping() throws IllegalAccessException {
+		Game game = new Game(10, 20, 30);
+		game.flag(2, 3);
+		
+		GameDeltaPayload deltaPayload = mapper.toDeltaPayload(game);
+		
+		assertEquals(game.getId(), deltaPayload.getId());
+		assertEquals(0, deltaPayload.getBaseVersion());
+		assertEquals(1, deltaPayload.getVersion());
+		assertEquals(Game.GameState.IN_PROGRESS, deltaPayload.getState());
+		assertEquals(1, deltaPayload.getCells().size());
+		assertEquals(2, deltaPayload.getCells().get(0).getRow());
+		assertEquals(3, deltaPayload.getCells().get(0).getCol());
+		assertEquals(Cell.State.FLAGGED, deltaPayload.getCells().get(0).getState());
+		assertEquals(-1, deltaPayload.getCells().get(0).getAdjacentMines());
+	}
+	
+	@Test
+	public void testGameToDeltaPayloadMappingWithUntrackedChanges() throws IllegalAccessException {
+		Game game = new Game(1100, 1000, 0);
+		game.reveal(500, 500);
+		
+		GameDeltaPayload deltaPayload = mapper.toDeltaPayload(game);
+		
+		assertEquals(1, deltaPayload.getVersion());
+		assertEquals(Game.GameState.WON, deltaPayload.getState());
+		assertNull(deltaPayload.getCells());
+	}
+	
+	@Test
+	public void testMovesToDomainMapping() {
+		List<Move> moves = mapper.toDomain(Arrays.asList(new MovePayload.FlagPayload(1, 2), new MovePayload.RevealPayload(3, 4)));
+		
+		assertEquals(2, moves.size());
+		assertTrue(moves.get(0) instanceof Move.Flag);
+		assertEquals(1, moves.get(0).getRow());
+		assertEquals(2, moves.get(0).getCol());
+		assertTrue(moves.get(1) instanceof Move.Reveal);
+		assertEquals(3, moves.get(1).getRow());
+		assertEquals(4, moves.get(1).getCol());
+	}
+	
 	@Test
 	public void testRevealMoveToDomainMapping() {
 		Move move = mapper.toDomain(new MovePayload.RevealPayload(10, 15));
@@ -54,4 +215,12 @@ public class GameMapperTest {
 		assertEquals(15, move.getCol());
 		assertTrue(move instanceof Move.Clear);
 	}
+	
+	@Test
+	public void testChordMoveToDomainMapping() {
+		Move move = mapper.toDomain(new MovePayload.ChordPayload(10, 15));
+		assertEquals(10, move.getRow());
+		assertEquals(15, move.getCol());
+		assertTrue(move instanceof Move.Chord);
+	}
 }
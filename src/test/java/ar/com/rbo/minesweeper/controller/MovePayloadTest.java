@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 
 import org.junit.Test;
 
+import ar.com.rbo.minesweeper.controller.MovePayload.ChordPayload;
 import ar.com.rbo.minesweeper.controller.MovePayload.ClearPayload;
 import ar.com.rbo.minesweeper.controller.MovePayload.FlagPayload;
 import ar.com.rbo.minesweeper.controller.MovePayload.MarkPayload;
@@ -39,6 +40,11 @@ public class MovePayloadTest {
 		public MovePayload visit(ClearPayload payload) {
 			return payload;
 		}
+
+		@Override
+		public MovePayload visit(ChordPayload payload) {
+			return payload;
+		}
 	};
 
 	@Test
@@ -73,16 +79,26 @@ public class MovePayloadTest {
 		assertEquals(15, payload.getCol());
 	}
 	
+	@Test
+	public void testChordPayloadCreation() {
+		ChordPayload payload = new MovePayload.ChordPayload(10, 15);
+		
+		assertEquals(10, payload.getRow());
+		assertEquals(15, payload.getCol());
+	}
+	
 	@Test
 	public void testVisitor() {
 		RevealPayload revealPayload = new RevealPayload();
 		FlagPayload flagPayloaad = new FlagPayload();
 		MarkPayload markPayload = new MarkPayload();
 		ClearPayload clearPayload = new ClearPayload();
+		ChordPayload chordPayload = new ChordPayload();
 		
 		assertEquals(revealPayload, revealPayload.accept(TEST_VISITOR));
 		assertEquals(flagPayloaad, flagPayloaad.accept(TEST_VISITOR));
 		assertEquals(markPayload, markPayload.accept(TEST_VISITOR));
 		assertEquals(clearPayload, clearPayload.accept(TEST_VISITOR));
+		assertEquals(chordPayload, chordPayload.accept(TEST_VISITOR));
 	}
 }
@@ -0,0 +1,190 @@
+package ar.com.rbo.minesweeper.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link BoardGenerator}
+ */
+public class BoardGeneratorTest {
+	
+	private static final long SEED = 42;
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private BoardGenerator generator = new BoardGenerator();
+	
+	@Test
+	public void testMineCount() {
+		assertEquals(0, countMines(generator.generate(10, 20, 0, SEED)));
+		assertEquals(30, countMines(generator.generate(10, 20, 30, SEED)));
+		assertEquals(100, countMines(generator.generate(10, 20, 100, SEED)));
+		assertEquals(170, countMines(generator.generate(10, 20, 170, SEED)));
+		assertEquals(200, countMines(generator.generate(10, 20, 200, SEED)));
+	}
+	
+	@Test
+	public void testMineCountOutsideBoardLimits() {
+		assertEquals(0, countMines(generator.generate(10, 20, -5, SEED)));
+		assertEquals(200, countMines(generator.generate(10, 20, 500, SEED)));
+	}
+	
+	@Test
+	public void testAdjacentMineCount() {
+		Board board = generator.generate(30, 40, 300, SEED);
+		
+		for (int row = 0; row < 30; row++) {
+			for (int col = 0; col < 40; col++) {
+				int adjacentMines = 0;
+				
+				for (int neighbourRow = row - 1; neighbourRow <= row + 1; neighbourRow++) {
+					for (int neighbourCol = col - 1; neighbourCol <= col + 1; neighbourCol++) {
+						if ((neighbourRow != row || neighbourCol != col) &&
+								neighbourRow >= 0 && neighbourRow < 30 && neighbourCol >= 0 && neighbourCol < 40 &&
+								board.isMined(neighbourRow, neighbourCol)) {
+							adjacentMines++;
+						}
+					}
+				}
+				
+				assertEquals(adjacentMines, board.getAdjacentMines(row, col));
+			}
+		}
+	}
+	
+	@Test
+	public void testSameSeedGeneratesSameBoard() {
+		assertBoardsEqual(generator.generate(30, 40, 300, 7), generator.generate(30, 40, 300, 7));
+		assertBoardsEqual(generator.generate(30, 40, 1000, 7), generator.generate(30, 40, 1000, 7));
+		assertBoardsEqual(generator.generateSparse(30, 40, 300, 7), generator.generateSparse(30, 40, 300, 7));
+	}
+	
+	@Test
+	public void testSparseAndDenseBoardsWithSameSeedHaveSameMines() {
+		assertBoardsEqual(generator.generate(30, 40, 300, 7), generator.generateSparse(30, 40, 300, 7));
+	}
+	
+	@Test
+	public void testDifferentSeedsGenerateDifferentBoards() {
+		Board board = generator.generate(30, 40, 300, 7);
+		Board otherBoard = generator.generate(30, 40, 300, 8);
+		
+		assertNotEquals(0, countDifferences(board, otherBoard));
+	}
+	
+	@Test
+	public void testParallelCountingMatchesSequentialCounting() {
+		BoardGenerator parallelGenerator = new BoardGenerator(0);
+		BoardGenerator sequentialGenerator = new BoardGenerator(Long.MAX_VALUE);
+		
+		assertBoardsEqual(sequentialGenerator.generate(700, 300, 31500, SEED), parallelGenerator.generate(700, 300, 31500, SEED));
+		assertBoardsEqual(sequentialGenerator.generate(700, 300, 178500, SEED), parallelGenerator.generate(700, 300, 178500, SEED));
+		assertBoardsEqual(sequentialGenerator.generate(5, 3, 4, SEED), parallelGenerator.generate(5, 3, 4, SEED));
+	}
+	
+	@Test
+	public void testOffHeapBoardsMatchHeapBoards() {
+		BoardGenerator offHeapGenerator = new BoardGenerator(0, true);
+		Board board = offHeapGenerator.generate(700, 300, 31500, SEED);
+		
+		assertTrue(board instanceof DirectBoard);
+		assertBoardsEqual(generator.generate(700, 300, 31500, SEED), board);
+		
+		board.release();
+	}
+	
+	@Test
+	public void testMappedBoardsMatchHeapBoards() {
+		BoardGenerator mappedGenerator = new BoardGenerator(0, false, folder.getRoot().toPath(), 100_000);
+		Board board = mappedGenerator.generate(700, 300, 31500, SEED);
+		
+		assertTrue(board instanceof MappedBoard);
+		assertBoardsEqual(generator.generate(700, 300, 31500, SEED), board);
+		
+		// boards below the threshold stay in memory
+		assertTrue(mappedGenerator.generate(300, 300, 9000, SEED) instanceof ChunkedBoard);
+		
+		board.release();
+	}
+	
+	@Test
+	public void testBoardsOfAnySizeCanBeDenseWithMappedFiles() {
+		assertTrue(generator.canBeDense(ChunkedBoard.MAX_CELLS));
+		assertFalse(generator.canBeDense(ChunkedBoard.MAX_CELLS + 1));
+		assertTrue(new BoardGenerator(0, false, folder.getRoot().toPath(), 100_000).canBeDense(ChunkedBoard.MAX_CELLS + 1));
+	}
+	
+	@Test
+	public void testSafeCellAndNeighboursHaveNoMines() {
+		for (Board board : Arrays.asList(
+				generator.generate(10, 20, 100, SEED, 4, 5),
+				generator.generate(10, 20, 191, SEED, 4, 5),
+				generator.generateSparse(10, 20, 100, SEED, 4, 5))) {
+			
+			for (int row = 3; row <= 5; row++) {
+				for (int col = 4; col <= 6; col++) {
+					assertFalse(board.isMined(row, col));
+				}
+			}
+			
+			assertEquals(0, board.getAdjacentMines(4, 5));
+		}
+	}
+	
+	@Test
+	public void testMineCountAroundSafeCell() {
+		assertEquals(191, countMines(generator.generate(10, 20, 300, SEED, 4, 5)));
+		assertEquals(196, countMines(generator.generate(10, 20, 300, SEED, 0, 0)));
+		assertEquals(191, countMines(generator.generateSparse(10, 20, 300, SEED, 4, 5)));
+	}
+	
+	/**
+	 * Asserts that two boards have the same cells
+	 */
+	private void assertBoardsEqual(Board board, Board otherBoard) {
+		assertEquals(0, countDifferences(board, otherBoard));
+	}
+	
+	/**
+	 * Counts the cells that differ between two boards of the same size
+	 */
+	private int countDifferences(Board board, Board otherBoard) {
+		int differences = 0;
+		
+		for (int row = 0; row < board.getRowCount(); row++) {
+			for (int col = 0; col < board.getColCount(); col++) {
+				if (board.get(row, col) != otherBoard.get(row, col)) {
+					differences++;
+				}
+			}
+		}
+		
+		return differences;
+	}
+	
+	/**
+	 * Counts the mines placed on a board
+	 */
+	private int countMines(Board board) {
+		int mines = 0;
+		
+		for (int row = 0; row < board.getRowCount(); row++) {
+			for (int col = 0; col < board.getColCount(); col++) {
+				if (board.isMined(row, col)) {
+					mines++;
+				}
+			}
+		}
+		
+		return mines;
+	}
+}
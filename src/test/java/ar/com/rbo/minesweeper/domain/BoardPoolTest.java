@@ -0,0 +1,97 @@
+package ar.com.rbo.minesweeper.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Optional;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.google.common.collect.ImmutableList;
+
+import ar.com.rbo.minesweeper.domain.BoardPool.PooledBoard;
+import ar.com.rbo.minesweeper.domain.BoardPool.Preset;
+
+/**
+ * Tests for {@link BoardPool}
+ */
+public class BoardPoolTest {
+	
+	@Rule 
+	public ExpectedException exception = ExpectedException.none();
+	
+	@Test
+	public void testPresetParsing() {
+		Preset preset = Preset.parse(" 16x30x99");
+		
+		assertEquals(16, preset.getRowCount());
+		assertEquals(30, preset.getColCount());
+		assertEquals(99, preset.getMineCount());
+	}
+	
+	@Test
+	public void testMalformedPreset() {
+		exception.expect(IllegalArgumentException.class);
+		exception.expectMessage("Malformed preset 16x30");
+		
+		Preset.parse("16x30");
+	}
+	
+	@Test
+	public void testTakeReadyBoard() throws InterruptedException {
+		Preset preset = new Preset(10, 20, 30);
+		
+		try (BoardPool pool = new BoardPool(ImmutableList.of(preset), 2, 1)) {
+			awaitReadyBoards(preset, 2);
+			
+			Optional<PooledBoard> pooledBoard = pool.take(10, 20, 30);
+			
+			assertTrue(pooledBoard.isPresent());
+			assertEquals(1, preset.getHits());
+			assertEquals(0, preset.getMisses());
+			
+			// the board is the one its seed generates
+			Board board = new BoardGenerator().generate(10, 20, 30, pooledBoard.get().seed);
+			
+			for (int row = 0; row < 10; row++) {
+				for (int col = 0; col < 20; col++) {
+					assertEquals(board.get(row, col), pooledBoard.get().board.get(row, col));
+				}
+			}
+			
+			// its regions are indexed in background if games index them
+			assertEquals(Game.shouldIndexZeroRegions(board), pooledBoard.get().zeroRegions != null);
+			
+			// the board taken is replaced
+			awaitReadyBoards(preset, 2);
+		}
+	}
+	
+	@Test
+	public void testMisses() {
+		Preset preset = new Preset(10, 20, 30);
+		
+		try (BoardPool pool = new BoardPool(ImmutableList.of(preset), 0, 1)) {
+			assertFalse(pool.take(10, 20, 30).isPresent());
+			assertFalse(pool.take(10, 20, 31).isPresent());
+			
+			// only games of a preset are counted
+			assertEquals(0, preset.getHits());
+			assertEquals(1, preset.getMisses());
+		}
+	}
+	
+	/**
+	 * Waits (up to 10 seconds) until a preset has the given amount of ready boards
+	 */
+	private void awaitReadyBoards(Preset preset, int readyBoards) throws InterruptedException {
+		for (int attempt = 0; attempt < 1000 && preset.getReadyBoards() < readyBoards; attempt++) {
+			Thread.sleep(10);
+		}
+		
+		assertEquals(readyBoards, preset.getReadyBoards());
+	}
+}
@@ -0,0 +1,146 @@
+package ar.com.rbo.minesweeper.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import ar.com.rbo.minesweeper.domain.Cell.State;
+
+/**
+ * Tests for {@link Board}
+ */
+public class BoardTest {
+
+	@Test
+	public void testBoardCreation() {
+		Board board = new ChunkedBoard(3, 4);
+		
+		assertEquals(3, board.getRowCount());
+		assertEquals(4, board.getColCount());
+		assertEquals(State.UNKNOWN, board.getState(2, 3));
+		assertFalse(board.isMined(2, 3));
+		assertEquals(0, board.getAdjacentMines(2, 3));
+	}
+	
+	@Test
+	public void testPacking() {
+		for (State state : State.values()) {
+			for (int adjacentMines = 0; adjacentMines <= 8; adjacentMines++) {
+				byte minedCell = Board.pack(state, true, adjacentMines);
+				byte cell = Board.pack(state, false, adjacentMines);
+				
+				assertEquals(state, Board.state(minedCell));
+				assertEquals(state, Board.state(cell));
+				assertTrue(Board.isMined(minedCell));
+				assertFalse(Board.isMined(cell));
+				assertEquals(adjacentMines, Board.adjacentMines(minedCell));
+				assertEquals(adjacentMines, Board.adjacentMines(cell));
+			}
+		}
+	}
+	
+	@Test
+	public void testStateChangeKeepsMineAndAdjacentMines() {
+		Board board = new ChunkedBoard(2, 2);
+		board.set(1, 0, Board.pack(State.UNKNOWN, true, 3));
+		
+		board.setState(1, 0, State.MARKED);
+		
+		assertEquals(State.MARKED, board.getState(1, 0));
+		assertTrue(board.isMined(1, 0));
+		assertEquals(3, board.getAdjacentMines(1, 0));
+		assertEquals(State.UNKNOWN, board.getState(0, 0));
+	}
+	
+	@Test
+	public void testChunkVersions() {
+		Board board = new ChunkedBoard(100, 200);
+		
+		board.setState(70, 130, State.FLAGGED);
+		board.setState(99, 191, State.EMPTY);
+		
+		assertEquals(2, board.getChunkChangeCount(64, 128));
+		assertEquals(0, board.getChunkChangeCount(0, 0));
+		assertEquals(0, board.getChunkChangeCount(99, 199));
+		assertEquals(State.FLAGGED, board.getState(70, 130));
+	}
+	
+	@Test
+	public void testEdgeChunksOnlyTakeTheCellsWithinTheBoard() {
+		assertEquals(81, new ChunkedBoard(9, 9).getCellBytes());
+		assertEquals(480, new ChunkedBoard(16, 30).getCellBytes());
+		
+		ChunkedBoard board = new ChunkedBoard(70, 130);
+		
+		assertEquals(70 * 130, board.getCellBytes());
+		
+		for (int row = 0; row < 70; row++) {
+			for (int col = 0; col < 130; col++) {
+				board.set(row, col, Board.pack(State.values()[(row + col) % 5], (row * col) % 2 == 0, (row + col) % 9));
+			}
+		}
+		
+		for (int row = 0; row < 70; row++) {
+			for (int col = 0; col < 130; col++) {
+				assertEquals(Board.pack(State.values()[(row + col) % 5], (row * col) % 2 == 0, (row + col) % 9), board.get(row, col));
+			}
+		}
+	}
+	
+	@Test
+	public void testStatesAreWrittenAsRuns() throws IOException {
+		Board board = new ChunkedBoard(3, 4);
+		board.set(1, 1, Board.pack(State.UNKNOWN, true, 2));
+		board.setState(0, 1, State.EMPTY);
+		board.setState(0, 2, State.EMPTY);
+		board.setState(0, 3, State.EMPTY);
+		board.setState(1, 0, State.EMPTY);
+		board.setState(1, 1, State.FLAGGED);
+		board.setState(2, 3, State.MARKED);
+		
+		ByteBuffer runs = writeStates(board);
+		
+		// runs don't go beyond a row, so there are four of them (plus the empty one that ends them)
+		assertEquals(4 * (Integer.BYTES + Long.BYTES + 1) + Integer.BYTES, runs.remaining());
+		
+		Board otherBoard = new ChunkedBoard(3, 4);
+		otherBoard.set(1, 1, Board.pack(State.UNKNOWN, true, 2));
+		otherBoard.readStates(runs);
+		
+		assertFalse(runs.hasRemaining());
+		
+		for (int row = 0; row < 3; row++) {
+			for (int col = 0; col < 4; col++) {
+				assertEquals(board.get(row, col), otherBoard.get(row, col));
+			}
+		}
+		
+		runs.rewind();
+		Board.skipStates(runs);
+		
+		assertFalse(runs.hasRemaining());
+	}
+	
+	@Test
+	public void testVersionsOfDifferentBoardsDiffer() {
+		assertNotEquals(new ChunkedBoard(10, 10).getChunkVersion(0, 0), new ChunkedBoard(10, 10).getChunkVersion(0, 0));
+	}
+	
+	/**
+	 * Returns the runs of states written by a board
+	 */
+	static ByteBuffer writeStates(Board board) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		board.writeStates(new DataOutputStream(bytes));
+		
+		return ByteBuffer.wrap(bytes.toByteArray());
+	}
+}
@@ -0,0 +1,175 @@
+package ar.com.rbo.minesweeper.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link ColdStorage}
+ */
+public class ColdStorageTest {
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void testGameIsReadBack() throws IOException, IllegalAccessException {
+		try (ColdStorage storage = new ColdStorage(folder.getRoot().toPath(), 0, 0)) {
+			Game game = new Game(16, 30, 99, false, 3, true);
+			game.flag(0, 0);
+			game.reveal(8, 15);
+			
+			assertTrue(storage.write(game));
+			assertTrue(storage.contains(game.getId()));
+			assertEquals(1, storage.size());
+			
+			Game readGame = storage.read(game.getId()).get();
+			
+			assertEquals(game.getId(), readGame.getId());
+			assertEquals(game.getCreationDate(), readGame.getCreationDate());
+			assertEquals(game.getState(), readGame.getState());
+			assertEquals(game.getVersion(), readGame.getVersion());
+			
+			for (int row = 0; row < 16; row++) {
+				for (int col = 0; col < 30; col++) {
+					assertEquals(game.getCellState(row, col), readGame.getCellState(row, col));
+					assertEquals(game.isMined(row, col), readGame.isMined(row, col));
+				}
+			}
+			
+			// reading a game keeps it
+			assertTrue(storage.contains(game.getId()));
+		}
+	}
+	
+	@Test
+	public void testBigGameIsReadBack() throws IOException, IllegalAccessException {
+		try (ColdStorage storage = new ColdStorage(folder.getRoot().toPath(), 0, 0)) {
+			Game game = new Game(40, 40, 0);
+			
+			// scattered flags make plenty of runs of states, so the game is deflated
+			for (int row = 0; row < 40; row++) {
+				for (int col = row % 3; col < 40; col += 3) {
+					game.flag(row, col);
+				}
+			}
+			
+			storage.write(game);
+			Game readGame = storage.read(game.getId()).get();
+			
+			for (int row = 0; row < 40; row++) {
+				for (int col = 0; col < 40; col++) {
+					assertEquals(game.getCellState(row, col), readGame.getCellState(row, col));
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testGameThatIsNotHeld() throws IOException {
+		try (ColdStorage storage = new ColdStorage(folder.getRoot().toPath(), 0, 0)) {
+			assertEquals(Optional.empty(), storage.read(new Game(9, 9, 10).getId()));
+			assertFalse(storage.delete(new Game(9, 9, 10).getId()));
+		}
+	}
+	
+	@Test
+	public void testDeleteGame() throws IOException {
+		try (ColdStorage storage = new ColdStorage(folder.getRoot().toPath(), 0, 0)) {
+			Game game = new Game(9, 9, 10);
+			storage.write(game);
+			
+			assertTrue(storage.delete(game.getId()));
+			assertFalse(storage.contains(game.getId()));
+			assertEquals(Optional.empty(), storage.read(game.getId()));
+			assertEquals(0, storage.size());
+		}
+	}
+	
+	@Test
+	public void testWriteReplacesPreviousRecord() throws IOException, IllegalAccessException {
+		try (ColdStorage storage = new ColdStorage(folder.getRoot().toPath(), 0, 0)) {
+			Game game = new Game(9, 9, 10, false, 1);
+			storage.write(game);
+			
+			game.mark(4, 4);
+			storage.write(game);
+			
+			assertEquals(1, storage.size());
+			assertEquals(Cell.State.MARKED, storage.read(game.getId()).get().getCellState(4, 4));
+		}
+	}
+	
+	@Test
+	public void testCompaction() throws IOException, IllegalAccessException {
+		try (ColdStorage storage = new ColdStorage(folder.getRoot().toPath(), 0, 0, 0)) {
+			List<Game> games = new ArrayList<>();
+			
+			for (int gameIndex = 0; gameIndex < 10; gameIndex++) {
+				Game game = new Game(16, 16, 40, false, gameIndex);
+				game.flag(gameIndex, gameIndex);
+				
+				storage.write(game);
+				games.add(game);
+			}
+			
+			// nothing to reclaim yet
+			assertFalse(storage.compact());
+			
+			for (Game game : games.subList(0, 8)) {
+				storage.delete(game.getId());
+			}
+			
+			assertTrue(storage.compact());
+			assertFalse(storage.compact());
+			
+			for (Game game : games.subList(8, 10)) {
+				Game readGame = storage.read(game.getId()).get();
+				int flaggedCell = (int) game.getSeed();
+				
+				assertEquals(game.getId(), readGame.getId());
+				assertEquals(Cell.State.FLAGGED, readGame.getCellState(flaggedCell, flaggedCell));
+			}
+			
+			// records written after compacting follow the ones kept
+			Game game = new Game(9, 9, 10);
+			storage.write(game);
+			
+			assertEquals(game.getId(), storage.read(game.getId()).get().getId());
+			assertEquals(games.get(9).getId(), storage.read(games.get(9).getId()).get().getId());
+		}
+	}
+	
+	@Test
+	public void testCloseDeletesFile() throws IOException {
+		ColdStorage storage = new ColdStorage(folder.getRoot().toPath().resolve("cold"), 0, 0);
+		storage.write(new Game(9, 9, 10));
+		storage.close();
+		
+		try (Stream<Path> files = Files.list(folder.getRoot().toPath().resolve("cold"))) {
+			assertEquals(0, files.count());
+		}
+	}
+	
+	@Test
+	public void testDisabledStorage() throws IOException {
+		Game game = new Game(9, 9, 10);
+		
+		assertFalse(ColdStorage.DISABLED.write(game));
+		assertFalse(ColdStorage.DISABLED.contains(game.getId()));
+		assertEquals(Optional.empty(), ColdStorage.DISABLED.read(game.getId()));
+		assertFalse(ColdStorage.DISABLED.compact());
+	}
+}
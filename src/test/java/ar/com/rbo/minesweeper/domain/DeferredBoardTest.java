@@ -0,0 +1,95 @@
+package ar.com.rbo.minesweeper.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import ar.com.rbo.minesweeper.domain.Cell.State;
+
+/**
+ * Tests for {@link DeferredBoard}
+ */
+public class DeferredBoardTest {
+	
+	@Test
+	public void testBoardIsGeneratedWhenFirstUsed() throws IOException {
+		AtomicInteger generations = new AtomicInteger();
+		DeferredBoard board = new DeferredBoard(3, 4, countingGenerator(generations), changedStates());
+		
+		assertFalse(board.isGenerated());
+		assertEquals(3, board.getRowCount());
+		
+		assertEquals(State.FLAGGED, board.getState(1, 1));
+		assertTrue(board.isMined(1, 1));
+		assertEquals(State.EMPTY, board.getState(0, 3));
+		assertEquals(State.UNKNOWN, board.getState(2, 2));
+		
+		board.setState(2, 2, State.MARKED);
+		
+		assertTrue(board.isGenerated());
+		assertEquals(1, generations.get());
+		assertEquals(State.MARKED, board.getState(2, 2));
+	}
+	
+	@Test
+	public void testStatesAreWrittenWithoutGeneratingBoard() throws IOException {
+		AtomicInteger generations = new AtomicInteger();
+		ByteBuffer states = changedStates();
+		DeferredBoard board = new DeferredBoard(3, 4, countingGenerator(generations), states);
+		
+		assertEquals(states, BoardTest.writeStates(board));
+		assertEquals(0, generations.get());
+		
+		board.setState(2, 2, State.MARKED);
+		
+		Board otherBoard = new ChunkedBoard(3, 4);
+		otherBoard.readStates(BoardTest.writeStates(board));
+		
+		assertEquals(State.MARKED, otherBoard.getState(2, 2));
+		assertEquals(State.FLAGGED, otherBoard.getState(1, 1));
+	}
+	
+	@Test
+	public void testBoardOfFinishedGameIsCompactedWhenGenerated() throws IOException {
+		AtomicInteger generations = new AtomicInteger();
+		DeferredBoard board = new DeferredBoard(3, 4, countingGenerator(generations), changedStates(), true);
+		
+		assertEquals(State.FLAGGED, board.getState(1, 1));
+		assertTrue(board.isMined(1, 1));
+		assertEquals(1, board.getAdjacentMines(0, 0));
+		assertTrue(board.toFinished() instanceof FinishedBoard);
+		assertEquals(1, generations.get());
+	}
+	
+	/**
+	 * Returns a generator of 3x4 boards with a mine in (1, 1) that counts the boards it generates
+	 */
+	private static Supplier<Board> countingGenerator(AtomicInteger generations) {
+		return () -> {
+			generations.incrementAndGet();
+			
+			Board board = new ChunkedBoard(3, 4);
+			board.set(1, 1, Board.pack(State.UNKNOWN, true, 0));
+			
+			return board;
+		};
+	}
+	
+	/**
+	 * Returns the states of a 3x4 board with a flag in (1, 1) and the top right cell revealed
+	 */
+	private static ByteBuffer changedStates() throws IOException {
+		Board board = new ChunkedBoard(3, 4);
+		board.setState(1, 1, State.FLAGGED);
+		board.setState(0, 3, State.EMPTY);
+		
+		return BoardTest.writeStates(board);
+	}
+}
@@ -0,0 +1,86 @@
+package ar.com.rbo.minesweeper.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import ar.com.rbo.minesweeper.domain.Cell.State;
+
+/**
+ * Tests for {@link DirectBoard}
+ */
+public class DirectBoardTest {
+	
+	@Test
+	public void testBoardCreation() {
+		Board board = new DirectBoard(3, 4, new SlabAllocator(4096));
+		
+		assertEquals(3, board.getRowCount());
+		assertEquals(4, board.getColCount());
+		assertEquals(State.UNKNOWN, board.getState(2, 3));
+		assertFalse(board.isMined(2, 3));
+		assertEquals(0, board.getAdjacentMines(2, 3));
+	}
+	
+	@Test
+	public void testBoardAcrossSeveralBlocks() {
+		SlabAllocator slabs = new SlabAllocator(4096);
+		Board board = new DirectBoard(100, 150, slabs);
+		
+		for (int row = 0; row < 100; row++) {
+			for (int col = 0; col < 150; col++) {
+				board.set(row, col, Board.pack(State.UNKNOWN, (row + col) % 7 == 0, (row * col) % 9));
+			}
+		}
+		
+		for (int row = 0; row < 100; row++) {
+			for (int col = 0; col < 150; col++) {
+				assertEquals((row + col) % 7 == 0, board.isMined(row, col));
+				assertEquals((row * col) % 9, board.getAdjacentMines(row, col));
+			}
+		}
+		
+		// 15000 cells take three whole slabs and a block of 4096 bytes for the last 2712
+		assertEquals(4 * 4096, slabs.getUsedBytes());
+	}
+	
+	@Test
+	public void testChunkVersions() {
+		Board board = new DirectBoard(100, 200, new SlabAllocator(4096));
+		long version = board.getChunkVersion(0, 0);
+		long otherVersion = board.getChunkVersion(99, 199);
+		
+		board.setState(10, 10, State.FLAGGED);
+		
+		assertNotEquals(version, board.getChunkVersion(63, 63));
+		assertEquals(otherVersion, board.getChunkVersion(99, 199));
+	}
+	
+	@Test
+	public void testRelease() {
+		SlabAllocator slabs = new SlabAllocator(4096);
+		Board board = new DirectBoard(100, 150, slabs);
+		board.setState(50, 50, State.FLAGGED);
+		
+		board.release();
+		board.release();
+		
+		assertEquals(0, slabs.getUsedBytes());
+		
+		try {
+			board.get(0, 0);
+			fail("Released board was read");
+		} catch (NullPointerException e) {
+			// boards can't be read once released
+		}
+		
+		// a new board reuses the memory, without the cells of the former one
+		Board otherBoard = new DirectBoard(100, 150, slabs);
+		
+		assertEquals(State.UNKNOWN, otherBoard.getState(50, 50));
+		assertEquals(4 * 4096, slabs.getReservedBytes());
+	}
+}
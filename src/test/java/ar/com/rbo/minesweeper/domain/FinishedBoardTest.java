@@ -0,0 +1,108 @@
+package ar.com.rbo.minesweeper.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import ar.com.rbo.minesweeper.domain.Cell.State;
+
+/**
+ * Tests for {@link FinishedBoard}
+ */
+public class FinishedBoardTest {
+	
+	@Test
+	public void testBoardWithStateRuns() throws IOException {
+		Board board = new BoardGenerator().generate(100, 150, 300, 7);
+		
+		// a revealed band and a few flags make a handful of runs per row
+		for (int row = 0; row < 100; row++) {
+			for (int col = 20; col < 90; col++) {
+				board.setState(row, col, board.isMined(row, col) ? State.FLAGGED : State.EMPTY);
+			}
+		}
+		
+		board.setState(99, 149, State.MARKED);
+		
+		FinishedBoard finishedBoard = new FinishedBoard(board);
+		
+		assertTrue(finishedBoard.hasStateRuns());
+		assertSameCells(board, finishedBoard);
+		assertEquals(BoardTest.writeStates(board), BoardTest.writeStates(finishedBoard));
+	}
+	
+	@Test
+	public void testBoardWithPackedStates() {
+		Board board = new BoardGenerator().generate(60, 70, 500, 3);
+		
+		// a state change on every other cell makes runs take more than packed states
+		for (int row = 0; row < 60; row++) {
+			for (int col = row % 2; col < 70; col += 2) {
+				board.setState(row, col, (row + col) % 3 == 0 ? State.MARKED : State.FLAGGED);
+			}
+		}
+		
+		FinishedBoard finishedBoard = new FinishedBoard(board);
+		
+		assertFalse(finishedBoard.hasStateRuns());
+		assertSameCells(board, finishedBoard);
+	}
+	
+	@Test
+	public void testBoardCantChange() {
+		Board board = new FinishedBoard(new ChunkedBoard(3, 4));
+		
+		try {
+			board.setState(1, 1, State.FLAGGED);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			assertEquals("Board of a finished game can't change", e.getMessage());
+		}
+		
+		assertEquals(State.UNKNOWN, board.getState(1, 1));
+		assertSame(board, board.toFinished());
+	}
+	
+	@Test
+	public void testVersionsDontMatchThoseOfTheBoardCopied() {
+		Board board = new ChunkedBoard(100, 200);
+		board.setState(10, 10, State.FLAGGED);
+		
+		Board finishedBoard = board.toFinished();
+		
+		assertNotEquals(board.getChunkVersion(10, 10), finishedBoard.getChunkVersion(10, 10));
+		assertEquals(finishedBoard.getChunkVersion(10, 10), finishedBoard.getChunkVersion(99, 199));
+	}
+	
+	@Test
+	public void testSparseBoardIsKept() {
+		Board board = new SparseBoard(100, 200, new LongHashSet(0));
+		
+		assertSame(board, board.toFinished());
+	}
+	
+	@Test
+	public void testBoardAboveThresholdIsKept() {
+		Board board = new ChunkedBoard(Board.CHUNK_SIZE, (int) (Board.FINISHED_THRESHOLD / Board.CHUNK_SIZE) + 1);
+		
+		assertSame(board, board.toFinished());
+	}
+	
+	/**
+	 * Asserts that two boards hold the same cells
+	 */
+	private static void assertSameCells(Board board, Board otherBoard) {
+		for (int row = 0; row < board.getRowCount(); row++) {
+			for (int col = 0; col < board.getColCount(); col++) {
+				assertEquals(board.get(row, col), otherBoard.get(row, col));
+			}
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package ar.com.rbo.minesweeper.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for {@link GameCursor}
+ */
+public class GameCursorTest {
+	
+	@Rule 
+	public ExpectedException exception = ExpectedException.none();
+	
+	private static final UUID GAME_ID = UUID.fromString("dd98252b-d8b2-40bb-b777-bb0ab1b2a92c");
+	
+	@Test
+	public void testFormatting() {
+		assertEquals("1580802005332_dd98252b-d8b2-40bb-b777-bb0ab1b2a92c", new GameCursor(1580802005332L, GAME_ID).toString());
+	}
+	
+	@Test
+	public void testParsing() {
+		GameCursor cursor = GameCursor.parse("1580802005332_dd98252b-d8b2-40bb-b777-bb0ab1b2a92c");
+		
+		assertEquals(1580802005332L, cursor.getCreationTime());
+		assertEquals(GAME_ID, cursor.getId());
+	}
+	
+	@Test
+	public void testParsingMalformedCursor() {
+		exception.expect(IllegalArgumentException.class);
+		exception.expectMessage("Malformed cursor dd98252b");
+		
+		GameCursor.parse("dd98252b");
+	}
+	
+	@Test
+	public void testOrdering() {
+		assertTrue(new GameCursor(1, GAME_ID).compareTo(new GameCursor(2, GAME_ID)) < 0);
+		assertTrue(new GameCursor(2, new UUID(0, 1)).compareTo(new GameCursor(2, new UUID(0, 2))) < 0);
+		assertEquals(0, new GameCursor(2, GAME_ID).compareTo(new GameCursor(2, GAME_ID)));
+	}
+}
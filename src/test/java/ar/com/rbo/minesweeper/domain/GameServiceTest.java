@@ -1,26 +1,61 @@
 package ar.com.rbo.minesweeper.domain;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import com.google.common.collect.ImmutableList;
+
+import ar.com.rbo.minesweeper.domain.Game.GameState;
+
 /**
  * Tests for {@link GameService}
  */
 public class GameServiceTest {
 	
+	@Rule 
+	public ExpectedException exception = ExpectedException.none();
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
 	private static final UUID GAME_ID = UUID.randomUUID();
 	
 	@Mock
@@ -42,29 +77,23 @@ public class GameServiceTest {
 		
 		this.service = new GameService(gameMapMock);
 	}
-
+	
 	@Test
 	public void testFindGameById() {
-		service.findGame(GAME_ID);
+		service.findGame(GAME_ID, Function.identity());
 		verify(gameMapMock).get(GAME_ID);
 	}
 	
 	@Test
 	public void testFindGameByIdThatDoesNotExist() {
-		assertEquals(Optional.empty(), service.findGame(UUID.randomUUID()));
-	}
-	
-	@Test
-	public void testFindGames() {
-		service.findGames();
-		verify(gameMapMock).values();
+		assertEquals(Optional.empty(), service.findGame(UUID.randomUUID(), Function.identity()));
 	}
 	
 	@Test
 	public void testCreateGame() {
 		service.createGame(10, 20, 30);
 		verify(gameMapMock).put(any(UUID.class), argThat(new ArgumentMatcher<Game>() {
-
+			
 			@Override
 			public boolean matches(Game game) {
 				return 
@@ -75,6 +104,38 @@ public class GameServiceTest {
 		}));
 	}
 	
+	@Test
+	public void testCreateGameFromPool() throws InterruptedException {
+		BoardPool.Preset preset = new BoardPool.Preset(10, 20, 30);
+		
+		try (BoardPool pool = new BoardPool(ImmutableList.of(preset), 1, 1)) {
+			GameService service = new GameService(new ConcurrentHashMap<>(), pool);
+			
+			for (int attempt = 0; attempt < 1000 && preset.getReadyBoards() == 0; attempt++) {
+				Thread.sleep(10);
+			}
+			
+			Game game = service.createGame(10, 20, 30);
+			
+			assertEquals(1, preset.getHits());
+			assertEquals(30, IntStream.range(0, 200).filter(cellIndex -> game.isMined(cellIndex / 20, cellIndex % 20)).count());
+			
+			// games with a seed are never pooled
+			service.createGame(10, 20, 30, false, 5L, false);
+			
+			assertEquals(1, preset.getHits() + preset.getMisses());
+			assertEquals(ImmutableList.of(preset), service.getPoolPresets());
+		}
+	}
+	
+	@Test
+	public void testCreateGameWithSeed() {
+		Game game = new GameService().createGame(10, 20, 30, false, 99L, false);
+		
+		assertEquals(99, game.getSeed());
+		assertFalse(game.isSparse());
+	}
+	
 	@Test
 	public void testUpdateGame() throws IllegalAccessException {
 		Move moveMock = mock(Move.class);
@@ -87,4 +148,567 @@ public class GameServiceTest {
 		verify(gameMapMock).get(GAME_ID);
 		verify(moveMock).apply(gameMock);
 	}
+	
+	@Test
+	public void testUpdateGameWithFunction() throws IllegalAccessException {
+		Move moveMock = mock(Move.class);
+		Game gameMock = mock(Game.class);
+		
+		when(gameMapMock.get(GAME_ID)).thenReturn(gameMock);
+		when(gameMock.getVersion()).thenReturn(7L);
+		
+		assertEquals(7L, (long) service.updateGame(GAME_ID, moveMock, Game::getVersion));
+		
+		verify(moveMock).apply(gameMock);
+	}
+	
+	@Test
+	public void testFindGamesPages() {
+		GameService service = new GameService();
+		List<Game> games = new ArrayList<>();
+		
+		for (int gameIndex = 0; gameIndex < 5; gameIndex++) {
+			games.add(service.createGame(2, 2, 0));
+		}
+		
+		games.sort(Comparator.comparing(GameCursor::of));
+		
+		List<GameCursor> firstPage = service.findGames(null, null, null, null, 3, GameCursor::of);
+		List<GameCursor> secondPage = service.findGames(null, null, null, firstPage.get(2), 3, GameCursor::of);
+		
+		assertEquals(games.subList(0, 3).stream().map(GameCursor::of).collect(Collectors.toList()), firstPage);
+		assertEquals(games.subList(3, 5).stream().map(GameCursor::of).collect(Collectors.toList()), secondPage);
+	}
+	
+	@Test
+	public void testFindGamesWithFunction() {
+		GameService service = new GameService();
+		List<Game> games = new ArrayList<>();
+		
+		for (int gameIndex = 0; gameIndex < 3; gameIndex++) {
+			games.add(service.createGame(2, 2, 0));
+		}
+		
+		games.sort(Comparator.comparing(GameCursor::of));
+		
+		assertEquals(games.stream().map(Game::getId).collect(Collectors.toList()), service.findGames(null, null, null, null, 10, Game::getId));
+		assertEquals(Optional.of(games.get(1).getId()), service.findGame(games.get(1).getId(), Game::getId));
+		assertEquals(Optional.empty(), service.findGame(UUID.randomUUID(), Game::getId));
+		assertEquals(Integer.valueOf(3), service.createGame(3, 3, 1, false, null, false, Game::getRowCount));
+	}
+	
+	@Test
+	public void testFunctionIsAppliedWhileHoldingTheGameLock() throws Exception {
+		GameService service = new GameService();
+		Game game = service.createGame(2, 2, 0);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		
+		try {
+			Future<?> move = service.findGame(game.getId(), foundGame -> {
+				Future<?> pendingMove = executor.submit(() -> service.updateGame(game.getId(), new Move.Flag(0, 0)));
+				
+				// the move waits for the function, which doesn't see it
+				assertFalse(isDoneWithin(pendingMove, 100));
+				assertEquals(Cell.State.UNKNOWN, foundGame.getCellState(0, 0));
+				
+				return pendingMove;
+			}).get();
+			
+			move.get(10, TimeUnit.SECONDS);
+			
+			assertEquals(Cell.State.FLAGGED, game.getCellState(0, 0));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	public void testFindGamesByState() throws IllegalAccessException {
+		GameService service = new GameService();
+		Game wonGame = service.createGame(2, 2, 0);
+		Game lostGame = service.createGame(1, 1, 1);
+		Game gameInProgress = service.createGame(2, 2, 0);
+		
+		service.updateGame(wonGame.getId(), new Move.Reveal(0, 0));
+		service.updateGame(lostGame.getId(), new Move.Reveal(0, 0));
+		
+		assertEquals(Arrays.asList(wonGame.getId()), service.findGames(GameState.WON, null, null, null, 10, Game::getId));
+		assertEquals(Arrays.asList(lostGame.getId()), service.findGames(GameState.LOST, null, null, null, 10, Game::getId));
+		assertEquals(Arrays.asList(gameInProgress.getId()), service.findGames(GameState.IN_PROGRESS, null, null, null, 10, Game::getId));
+	}
+	
+	@Test
+	public void testFindGamesByCreationDate() {
+		GameService service = new GameService();
+		Game game = service.createGame(2, 2, 0);
+		long creationTime = game.getCreationDate().getTime();
+		
+		assertEquals(Arrays.asList(game.getId()), service.findGames(null, new Date(creationTime), new Date(creationTime + 1), null, 10, Game::getId));
+		assertTrue(service.findGames(null, new Date(creationTime + 1), null, null, 10, Game::getId).isEmpty());
+		assertTrue(service.findGames(null, null, new Date(creationTime), null, 10, Game::getId).isEmpty());
+	}
+	
+	@Test
+	public void testUpdateGameInBatch() throws IllegalAccessException {
+		GameService service = new GameService();
+		Game game = service.createGame(2, 2, 0);
+		
+		long changeCount = service.updateGame(game.getId(), Arrays.asList(new Move.Flag(0, 0), new Move.Reveal(1, 1)), Game::getChangeCount);
+		
+		assertEquals(4, changeCount);
+		assertEquals(2, game.getVersion());
+		assertEquals(0, game.getChangesBaseVersion());
+		assertEquals(Cell.State.FLAGGED, game.getCell(0, 0).getState());
+		assertEquals(Cell.State.EMPTY, game.getCell(1, 1).getState());
+	}
+	
+	@Test
+	public void testUpdateGameInBatchWithIllegalMove() throws IllegalAccessException {
+		GameService service = new GameService();
+		Game game = service.createGame(2, 2, 0);
+		
+		try {
+			service.updateGame(game.getId(), Arrays.asList(new Move.Flag(0, 0), new Move.Mark(5, 5), new Move.Reveal(1, 1)), Function.identity());
+			fail();
+		} catch (IllegalBatchMoveException e) {
+			assertEquals(1, e.getIndex());
+			assertEquals("Move 1 is illegal: Cell coordinates (5, 5) outside existing board", e.getMessage());
+		}
+		
+		// moves before the illegal one remain made, moves after it are not
+		assertEquals(Cell.State.FLAGGED, game.getCell(0, 0).getState());
+		assertEquals(Cell.State.UNKNOWN, game.getCell(1, 1).getState());
+		
+		// moves made afterwards track only their own changes
+		service.updateGame(game.getId(), new Move.Mark(0, 1));
+		
+		assertEquals(1, game.getChangeCount());
+	}
+	
+	@Test
+	public void testUpdateGameInBatchChangesIndexedState() throws IllegalAccessException {
+		GameService service = new GameService();
+		Game game = service.createGame(2, 2, 0);
+		
+		service.updateGame(game.getId(), Arrays.asList(new Move.Reveal(1, 1)), Function.identity());
+		
+		assertEquals(Arrays.asList(game.getId()), service.findGames(GameState.WON, null, null, null, 10, Game::getId));
+		assertTrue(service.findGames(GameState.IN_PROGRESS, null, null, null, 10, Game::getId).isEmpty());
+	}
+	
+	@Test
+	public void testUpdateGameThatDoesNotExist() throws IllegalAccessException {
+		exception.expect(NoSuchElementException.class);
+		exception.expectMessage("Could not find game with id " + GAME_ID);
+		
+		service.updateGame(GAME_ID, mock(Move.class));
+	}
+	
+	@Test
+	public void testGamesAreRecoveredFromMoveLog() throws Exception {
+		Path path = folder.getRoot().toPath().resolve("games.log");
+		GameService service = new GameService();
+		
+		try (MoveLog log = new MoveLog(path)) {
+			service.setMoveLog(log);
+			
+			Game game = service.createGame(16, 16, 40);
+			Game safeGame = service.createGame(16, 30, 99, false, 0L, true);
+			
+			service.updateGame(game.getId(), new Move.Flag(0, 0));
+			service.updateGame(game.getId(), new Move.Mark(1, 1));
+			service.updateGame(safeGame.getId(), ImmutableList.of(new Move.Flag(15, 29), new Move.Reveal(5, 5)), Function.identity());
+		}
+		
+		GameService recoveredService = new GameService();
+		
+		try (MoveLog log = new MoveLog(path)) {
+			recoveredService.setMoveLog(log);
+		}
+		
+		assertEquals(2, recoveredService.getStorageMetrics().getResidentGames());
+		assertFalse(recoveredService.findGame(GAME_ID, Function.identity()).isPresent());
+		assertRecovered(service, recoveredService);
+		assertEquals(2, recoveredService.findGames(GameState.IN_PROGRESS, null, null, null, 10, Game::getId).size());
+	}
+	
+	@Test
+	public void testMovesThatDoNothingAreNotLogged() throws Exception {
+		Path path = folder.getRoot().toPath().resolve("games.log");
+		GameService service = new GameService();
+		
+		try (MoveLog log = new MoveLog(path)) {
+			service.setMoveLog(log);
+			
+			Game game = service.createGame(9, 9, 10, false, 1L, true);
+			long logSize = Files.size(path);
+			
+			// there's nothing to chord around a cell that isn't revealed
+			service.updateGame(game.getId(), new Move.Chord(0, 0));
+			service.updateGame(game.getId(), Arrays.asList(new Move.Chord(0, 0)), Function.identity());
+			
+			assertEquals(0, game.getVersion());
+			assertEquals(logSize, Files.size(path));
+		}
+	}
+	
+	@Test
+	public void testMovesMadeRightAfterCreationAreLoggedAfterIt() throws Exception {
+		Path path = folder.getRoot().toPath().resolve("games.log");
+		GameService service = new GameService();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		List<Future<?>> moves = new ArrayList<>();
+		
+		try (MoveLog log = new MoveLog(path) {
+			
+			@Override
+			long appendCreation(Game game, boolean safeFirstReveal) {
+				// a move on the game as soon as it's stored waits for its creation to be logged
+				Future<?> move = executor.submit(() -> service.updateGame(game.getId(), new Move.Flag(0, 0)));
+				moves.add(move);
+				
+				assertFalse(isDoneWithin(move, 100));
+				
+				return super.appendCreation(game, safeFirstReveal);
+			}
+		}) {
+			service.setMoveLog(log);
+			service.createGame(9, 9, 10);
+			
+			moves.get(0).get(10, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		GameService recoveredService = new GameService();
+		
+		try (MoveLog log = new MoveLog(path)) {
+			recoveredService.setMoveLog(log);
+		}
+		
+		assertRecovered(service, recoveredService);
+	}
+	
+	@Test
+	public void testGamesAreRecoveredFromSnapshotAndMoveLog() throws Exception {
+		Path path = folder.getRoot().toPath().resolve("games.log");
+		GameService service = new GameService();
+		
+		try (MoveLog log = new MoveLog(path)) {
+			service.setMoveLog(log);
+			
+			Game game = service.createGame(30, 40, 600, false, 7L, false);
+			Game safeGame = service.createGame(30, 40, 600, false, 8L, true);
+			
+			service.updateGame(game.getId(), new Move.Flag(0, 0));
+			service.updateGame(safeGame.getId(), new Move.Reveal(5, 5));
+			service.takeSnapshot();
+			
+			// moves after the snapshot are replayed on top of it
+			Game laterGame = service.createGame(16, 16, 40);
+			
+			service.updateGame(game.getId(), new Move.Mark(1, 1));
+			service.updateGame(safeGame.getId(), new Move.Flag(29, 39));
+			service.updateGame(laterGame.getId(), new Move.Flag(2, 2));
+		}
+		
+		GameService recoveredService = new GameService();
+		
+		try (MoveLog log = new MoveLog(path)) {
+			recoveredService.setMoveLog(log);
+		}
+		
+		assertEquals(3, recoveredService.getStorageMetrics().getResidentGames());
+		assertRecovered(service, recoveredService);
+	}
+	
+	@Test
+	public void testLeastRecentlyUsedGamesAreEvicted() throws Exception {
+		try (ColdStorage storage = new ColdStorage(folder.getRoot().toPath(), 8, 0)) {
+			GameService service = new GameService();
+			service.setColdStorage(storage);
+			
+			List<Game> games = new ArrayList<>();
+			
+			for (int gameIndex = 0; gameIndex < 9; gameIndex++) {
+				games.add(service.createGame(9, 9, 10));
+			}
+			
+			Game idleGame = games.get(1);
+			
+			service.findGame(games.get(0).getId(), Function.identity());
+			service.evictGames();
+			
+			StorageMetrics metrics = service.getStorageMetrics();
+			
+			assertEquals(8, metrics.getResidentGames());
+			assertEquals(1, metrics.getEvictedGames());
+			assertEquals(1, metrics.getEvictions());
+			assertTrue(idleGame.isReleased());
+			assertEquals(1, games.stream().filter(Game::isReleased).count());
+			
+			// listings include evicted games without loading them back
+			List<UUID> foundIds = service.findGames(null, null, null, null, 10, Game::getId);
+			
+			assertEquals(9, foundIds.size());
+			assertTrue(foundIds.contains(idleGame.getId()));
+			assertEquals(1, service.getStorageMetrics().getEvictedGames());
+			
+			Game loadedGame = service.findGame(idleGame.getId(), Function.identity()).get();
+			metrics = service.getStorageMetrics();
+			
+			assertEquals(idleGame.getId(), loadedGame.getId());
+			assertEquals(idleGame.getCreationDate(), loadedGame.getCreationDate());
+			assertEquals(9, metrics.getResidentGames());
+			assertEquals(0, metrics.getEvictedGames());
+			assertEquals(1, metrics.getHits());
+			assertEquals(1, metrics.getMisses());
+			assertEquals(Optional.of(loadedGame), service.findGame(idleGame.getId(), Function.identity()));
+		}
+	}
+	
+	@Test
+	public void testGamesOverCapacityAreEvictedRightAway() throws Exception {
+		try (ColdStorage storage = new ColdStorage(folder.getRoot().toPath(), 8, 0)) {
+			GameService service = new GameService();
+			service.setColdStorage(storage);
+			
+			for (int gameIndex = 0; gameIndex < 100; gameIndex++) {
+				service.createGame(9, 9, 10);
+			}
+			
+			// creating games faster than they are evicted in background doesn't take more than an eighth more memory
+			assertTrue(service.getStorageMetrics().getResidentGames() <= 9);
+			assertEquals(100, service.getStorageMetrics().getResidentGames() + service.getStorageMetrics().getEvictedGames());
+		}
+	}
+	
+	@Test
+	public void testIdleGamesAreEvicted() throws Exception {
+		try (ColdStorage storage = new ColdStorage(folder.getRoot().toPath(), 0, 60)) {
+			GameService service = new GameService();
+			service.setColdStorage(storage);
+			
+			Game game = service.createGame(9, 9, 10, false, 5L, false);
+			Game otherGame = service.createGame(9, 9, 10);
+			
+			service.updateGame(game.getId(), new Move.Flag(0, 0));
+			service.evictGames();
+			
+			assertEquals(0, service.getStorageMetrics().getEvictions());
+			
+			service.evictGames(System.nanoTime() + TimeUnit.SECONDS.toNanos(61));
+			
+			assertEquals(0, service.getStorageMetrics().getResidentGames());
+			assertEquals(2, service.getStorageMetrics().getEvictedGames());
+			
+			// moves load games back transparently
+			Game loadedGame = service.updateGame(game.getId(), new Move.Mark(1, 1));
+			
+			assertEquals(2, loadedGame.getVersion());
+			assertEquals(Cell.State.FLAGGED, loadedGame.getCellState(0, 0));
+			assertEquals(Cell.State.MARKED, loadedGame.getCellState(1, 1));
+			assertEquals(1, service.getStorageMetrics().getResidentGames());
+			
+			// listings include the game left in the storage, without loading it back
+			assertEquals(2, service.findGames(null, null, null, null, 10, Game::getId).size());
+			assertEquals(1, service.getStorageMetrics().getEvictedGames());
+			assertTrue(service.findGame(otherGame.getId(), Function.identity()).isPresent());
+			assertEquals(0, service.getStorageMetrics().getEvictedGames());
+		}
+	}
+	
+	@Test
+	public void testGamesTooBigForStorageAreOnlyWrittenAgainOnceTheyChange() throws Exception {
+		List<UUID> writtenGames = new ArrayList<>();
+		
+		try (ColdStorage storage = new ColdStorage(folder.getRoot().toPath(), 0, 60) {
+			
+			@Override
+			boolean write(Game game) {
+				// as if every game was too big
+				writtenGames.add(game.getId());
+				return false;
+			}
+		}) {
+			GameService service = new GameService();
+			service.setColdStorage(storage);
+			
+			Game game = service.createGame(9, 9, 10);
+			long idleTime = System.nanoTime() + TimeUnit.SECONDS.toNanos(61);
+			
+			service.evictGames(idleTime);
+			service.evictGames(idleTime);
+			
+			assertEquals(Arrays.asList(game.getId()), writtenGames);
+			
+			service.updateGame(game.getId(), new Move.Flag(0, 0));
+			service.evictGames(System.nanoTime() + TimeUnit.SECONDS.toNanos(61));
+			
+			assertEquals(Arrays.asList(game.getId(), game.getId()), writtenGames);
+			assertEquals(1, service.getStorageMetrics().getResidentGames());
+			assertEquals(0, service.getStorageMetrics().getEvictions());
+		}
+	}
+	
+	@Test
+	public void testCopiesOfEvictedGamesAreReleased() throws Exception {
+		SlabAllocator slabs = new SlabAllocator(4096);
+		GameService service = new GameService();
+		
+		try (MoveLog log = new MoveLog(folder.getRoot().toPath().resolve("games.log"));
+				ColdStorage storage = new ColdStorage(folder.getRoot().toPath(), 0, 60) {
+			
+			@Override
+			Optional<Game> read(UUID id) {
+				// as if every evicted game was read back onto a board off the heap
+				return Optional.of(new Game(9, 9, 0, 1, new DirectBoard(9, 9, slabs)));
+			}
+		}) {
+			service.setMoveLog(log);
+			service.setColdStorage(storage);
+			
+			for (int gameIndex = 0; gameIndex < 3; gameIndex++) {
+				service.createGame(9, 9, 10);
+			}
+			
+			service.evictGames(System.nanoTime() + TimeUnit.SECONDS.toNanos(61));
+			
+			assertEquals(Arrays.asList(Cell.State.UNKNOWN, Cell.State.UNKNOWN, Cell.State.UNKNOWN),
+					service.findGames(null, null, null, null, 10, game -> game.getCellState(0, 0)));
+			assertEquals(0, slabs.getUsedBytes());
+			
+			service.takeSnapshot();
+			
+			assertEquals(0, slabs.getUsedBytes());
+			assertEquals(3, service.getStorageMetrics().getEvictedGames());
+		}
+	}
+	
+	@Test
+	public void testEvictedGamesAreRecoveredFromSnapshot() throws Exception {
+		Path path = folder.getRoot().toPath().resolve("games.log");
+		GameService service = new GameService();
+		
+		try (MoveLog log = new MoveLog(path); ColdStorage storage = new ColdStorage(folder.getRoot().toPath(), 1, 0)) {
+			service.setMoveLog(log);
+			service.setColdStorage(storage);
+			
+			Game game = service.createGame(16, 16, 40, false, 1L, false);
+			Game otherGame = service.createGame(16, 16, 40, false, 2L, false);
+			
+			service.updateGame(game.getId(), new Move.Flag(0, 0));
+			service.updateGame(otherGame.getId(), new Move.Mark(1, 1));
+			service.evictGames();
+			service.takeSnapshot();
+			
+			assertEquals(1, service.getStorageMetrics().getEvictedGames());
+		}
+		
+		GameService recoveredService = new GameService();
+		
+		try (MoveLog log = new MoveLog(path)) {
+			recoveredService.setMoveLog(log);
+		}
+		
+		List<Game> recoveredGames = recoveredService.findGames(null, null, null, null, 10, Function.identity());
+		
+		assertEquals(2, recoveredGames.size());
+		assertEquals(Cell.State.MARKED, recoveredGames.stream()
+				.filter(game -> game.getSeed() == 2).findFirst().get().getCellState(1, 1));
+		assertEquals(Cell.State.FLAGGED, recoveredGames.stream()
+				.filter(game -> game.getSeed() == 1).findFirst().get().getCellState(0, 0));
+	}
+	
+	@Test
+	public void testConcurrentMoves() throws Exception {
+		GameService service = new GameService();
+		List<Game> games = new ArrayList<>();
+		
+		for (int gameIndex = 0; gameIndex < 4; gameIndex++) {
+			games.add(service.createGame(200, 200, 12000));
+		}
+		
+		// concurrently reveal cells without a mine, so games stay in progress for as long as possible
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<?>> results = new ArrayList<>();
+		
+		for (int task = 0; task < 8; task++) {
+			results.add(executor.submit(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				
+				for (int moveIndex = 0; moveIndex < 20000; moveIndex++) {
+					Game game = games.get(random.nextInt(games.size()));
+					int row = random.nextInt(200);
+					int col = random.nextInt(200);
+					
+					if (!game.isMined(row, col)) {
+						try {
+							service.updateGame(game.getId(), new Move.Reveal(row, col));
+						} catch (IllegalAccessException e) {
+							// game already won
+						}
+					}
+				}
+				
+				return null;
+			}));
+		}
+		
+		for (Future<?> result : results) {
+			result.get();
+		}
+		
+		executor.shutdown();
+		
+		// finishing every game must win it exactly when the last cell without a mine is revealed
+		for (Game game : games) {
+			for (int row = 0; row < 200; row++) {
+				for (int col = 0; col < 200; col++) {
+					if (game.isMined(row, col)) {
+						assertEquals(Cell.State.UNKNOWN, game.getCell(row, col).getState());
+					} else if (Cell.State.UNKNOWN == game.getCell(row, col).getState()) {
+						assertEquals(Game.GameState.IN_PROGRESS, game.getState());
+						game.reveal(row, col);
+					}
+				}
+			}
+			
+			assertEquals(Game.GameState.WON, game.getState());
+		}
+	}
+	
+	/**
+	 * Asserts that every game of a service was recovered by another one as it was
+	 */
+	private static void assertRecovered(GameService service, GameService recoveredService) {
+		for (Game game : service.findGames(null, null, null, null, Integer.MAX_VALUE, Function.identity())) {
+			Game recoveredGame = recoveredService.findGame(game.getId(), Function.identity()).get();
+			
+			assertEquals(game.getCreationDate(), recoveredGame.getCreationDate());
+			assertEquals(game.getVersion(), recoveredGame.getVersion());
+			assertEquals(game.getState(), recoveredGame.getState());
+			
+			for (int row = 0; row < game.getRowCount(); row++) {
+				for (int col = 0; col < game.getColCount(); col++) {
+					assertEquals(game.isMined(row, col), recoveredGame.isMined(row, col));
+					assertEquals(game.getCellState(row, col), recoveredGame.getCellState(row, col));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns whether or not a task is done within the given milliseconds
+	 */
+	private static boolean isDoneWithin(Future<?> future, long millis) {
+		try {
+			future.get(millis, TimeUnit.MILLISECONDS);
+			return true;
+		} catch (TimeoutException e) {
+			return false;
+		} catch (InterruptedException | ExecutionException e) {
+			throw new IllegalStateException(e);
+		}
+	}
 }
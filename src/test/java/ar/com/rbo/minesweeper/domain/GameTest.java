@@ -1,11 +1,19 @@
 package ar.com.rbo.minesweeper.domain;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.stream.IntStream;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import ar.com.rbo.minesweeper.domain.Game.GameState;
 
@@ -13,7 +21,10 @@ import ar.com.rbo.minesweeper.domain.Game.GameState;
  * Tests for {@link Game} class
  */
 public class GameTest {
-
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
 	@Test
 	public void testGameCreation() {
 		Game game = new Game(10, 20, 30);
@@ -35,6 +46,72 @@ public class GameTest {
 			});
 	}
 	
+	@Test
+	public void testGamesWithSameSeedHaveSameMines() {
+		Game game = new Game(30, 40, 300, false, 1234);
+		Game otherGame = new Game(30, 40, 300, false, 1234);
+		
+		assertEquals(1234, game.getSeed());
+		
+		for (int row = 0; row < 30; row++) {
+			for (int col = 0; col < 40; col++) {
+				assertEquals(game.isMined(row, col), otherGame.isMined(row, col));
+			}
+		}
+	}
+	
+	@Test
+	public void testSafeFirstReveal() throws IllegalAccessException {
+		for (boolean sparse : new boolean[] { false, true }) {
+			Game game = new Game(10, 10, 96, sparse, 1234, true);
+			
+			// no mines are placed until the first reveal
+			game.flag(0, 0);
+			assertEquals(0, IntStream.range(0, 100).filter(cellIndex -> game.isMined(cellIndex / 10, cellIndex % 10)).count());
+			
+			game.reveal(9, 9);
+			
+			assertEquals(Game.GameState.WON, game.getState());
+			assertEquals(Cell.State.FLAGGED, game.getCell(0, 0).getState());
+			assertEquals(Cell.State.EMPTY, game.getCell(8, 8).getState());
+			assertEquals(96, IntStream.range(0, 100).filter(cellIndex -> game.isMined(cellIndex / 10, cellIndex % 10)).count());
+		}
+	}
+	
+	@Test
+	public void testSafeFirstRevealWithMoreMinesThanFit() throws IllegalAccessException {
+		for (int mineCount : new int[] { 73, 78, 81 }) {
+			Game game = new Game(9, 9, mineCount, false, 1234, true);
+			game.reveal(4, 4);
+			
+			// only the mines that fit around the safe cells are placed, and the game is won once they are all left
+			assertEquals(72, game.getMineCount());
+			assertEquals(72, IntStream.range(0, 81).filter(cellIndex -> game.isMined(cellIndex / 9, cellIndex % 9)).count());
+			assertEquals(GameState.WON, game.getState());
+		}
+		
+		Game game = new Game(9, 9, 81, true, 1234, true);
+		game.reveal(0, 0);
+		
+		assertEquals(77, game.getMineCount());
+		assertEquals(GameState.WON, game.getState());
+	}
+	
+	@Test
+	public void testSafeFirstRevealWithSameSeedHasSameMines() throws IllegalAccessException {
+		Game game = new Game(30, 40, 300, false, 1234, true);
+		Game otherGame = new Game(30, 40, 300, false, 1234, true);
+		
+		game.reveal(10, 10);
+		otherGame.reveal(10, 10);
+		
+		for (int row = 0; row < 30; row++) {
+			for (int col = 0; col < 40; col++) {
+				assertEquals(game.isMined(row, col), otherGame.isMined(row, col));
+			}
+		}
+	}
+	
 	@Test
 	public void testRevealEmptyCell() throws IllegalAccessException {
 		Game game = new Game(10, 10, 0);
@@ -43,6 +120,200 @@ public class GameTest {
 		assertEquals(Cell.State.EMPTY, game.getCell(0, 0).getState());
 	}
 	
+	@Test
+	public void testRevealCascadeOnLargeBoard() throws IllegalAccessException {
+		Game game = new Game(1000, 1000, 0);
+		game.reveal(500, 500);
+		
+		assertEquals(GameState.WON, game.getState());
+		assertEquals(Cell.State.EMPTY, game.getCell(0, 0).getState());
+		assertEquals(Cell.State.EMPTY, game.getCell(999, 999).getState());
+	}
+	
+	@Test
+	public void testParallelRevealCascade() throws IllegalAccessException {
+		Game game = new Game(1000, 1000, 0);
+		game.setParallelRevealThreshold(0);
+		game.flag(999, 0);
+		game.reveal(500, 500);
+		
+		// every cell but the flagged one is revealed exactly once
+		assertEquals(Game.GameState.IN_PROGRESS, game.getState());
+		assertEquals(999_999, game.getChangeCount());
+		assertEquals(Cell.State.FLAGGED, game.getCell(999, 0).getState());
+		assertEquals(Cell.State.EMPTY, game.getCell(0, 999).getState());
+		
+		game.clear(999, 0);
+		game.reveal(999, 0);
+		
+		assertEquals(Game.GameState.WON, game.getState());
+	}
+	
+	@Test
+	public void testHugeRevealCascadeIsNotTrackedCellByCell() throws IllegalAccessException {
+		Game game = new Game(1100, 1000, 0);
+		game.flag(0, 0);
+		
+		assertEquals(1, game.getChangeCount());
+		
+		game.reveal(500, 500);
+		
+		assertFalse(game.areChangesTracked());
+		assertEquals(0, game.getChangeCount());
+		
+		game.clear(0, 0);
+		
+		assertTrue(game.areChangesTracked());
+		assertEquals(1, game.getChangeCount());
+	}
+	
+	@Test
+	public void testParallelRevealCascadeMatchesSequentialOne() throws IllegalAccessException {
+		Game game = new Game(1000, 1000, 30000, false, 1234);
+		Game parallelGame = new Game(1000, 1000, 30000, false, 1234);
+		parallelGame.setParallelRevealThreshold(0);
+		
+		for (int row = 0; row < 1000; row += 100) {
+			for (int col = 0; col < 1000; col += 100) {
+				if (!game.isMined(row, col)) {
+					game.reveal(row, col);
+					parallelGame.reveal(row, col);
+				}
+			}
+		}
+		
+		for (int row = 0; row < 1000; row++) {
+			for (int col = 0; col < 1000; col++) {
+				assertEquals(game.getCellState(row, col), parallelGame.getCellState(row, col));
+			}
+		}
+	}
+	
+	@Test
+	public void testRevealCascadeOnMappedBoard() throws IllegalAccessException {
+		BoardGenerator mappedGenerator = new BoardGenerator(0, false, folder.getRoot().toPath(), 0);
+		Game game = new Game(1000, 1000, 30000, false, 1234);
+		Game mappedGame = new Game(1000, 1000, 30000, 1234, mappedGenerator.generate(1000, 1000, 30000, 1234));
+		
+		// cascades on mapped boards stay sequential, working on the mapped cells
+		mappedGame.setParallelRevealThreshold(0);
+		
+		for (int row = 0; row < 1000; row += 100) {
+			for (int col = 0; col < 1000; col += 100) {
+				if (!game.isMined(row, col)) {
+					game.reveal(row, col);
+					mappedGame.reveal(row, col);
+				}
+			}
+		}
+		
+		assertSameBoard(game, mappedGame);
+		assertEquals(game.getCellState(500, 500), mappedGame.getBoard(400, 400, 200, 200).getState(100, 100));
+		
+		mappedGame.release();
+	}
+	
+	@Test
+	public void testIndexedRevealCascade() throws IllegalAccessException {
+		Game game = new Game(300, 200, 0);
+		game.indexZeroRegions();
+		game.reveal(150, 100);
+		
+		assertEquals(GameState.WON, game.getState());
+		assertEquals(60000, game.getChangeCount());
+		assertEquals(Cell.State.EMPTY, game.getCell(0, 0).getState());
+	}
+	
+	@Test
+	public void testIndexedRevealCascadeMatchesUnindexedOne() throws IllegalAccessException {
+		Game game = new Game(300, 300, 9000, false, 1234);
+		Game indexedGame = new Game(300, 300, 9000, false, 1234);
+		indexedGame.indexZeroRegions();
+		
+		// flags split some regions, which then have to be revealed cell by cell even after the flags are cleared
+		for (int row = 5; row < 300; row += 50) {
+			for (int col = 0; col < 300; col += 3) {
+				game.flag(row, col);
+				indexedGame.flag(row, col);
+			}
+		}
+		
+		for (int round = 0; round < 2; round++) {
+			for (int row = 0; row < 300; row += 30) {
+				for (int col = 0; col < 300; col += 30) {
+					if (!game.isMined(row, col) && Cell.State.UNKNOWN == game.getCellState(row, col)) {
+						game.reveal(row, col);
+						indexedGame.reveal(row, col);
+						
+						assertEquals(game.getChangeCount(), indexedGame.getChangeCount());
+					}
+				}
+			}
+			
+			for (int row = 5; row < 300; row += 50) {
+				for (int col = 0; col < 300; col += 3) {
+					game.clear(row, col);
+					indexedGame.clear(row, col);
+				}
+			}
+		}
+		
+		for (int row = 0; row < 300; row++) {
+			for (int col = 0; col < 300; col++) {
+				assertEquals(game.getCellState(row, col), indexedGame.getCellState(row, col));
+			}
+		}
+		
+		assertEquals(game.getState(), indexedGame.getState());
+	}
+	
+	@Test
+	public void testRevealCascadeStopsAtFlaggedCells() throws IllegalAccessException {
+		Game game = new Game(3, 3, 0);
+		game.flag(0, 1);
+		game.flag(1, 1);
+		game.flag(1, 0);
+		game.reveal(2, 2);
+		
+		assertEquals(GameState.IN_PROGRESS, game.getState());
+		assertEquals(Cell.State.UNKNOWN, game.getCell(0, 0).getState());
+		assertEquals(Cell.State.EMPTY, game.getCell(0, 2).getState());
+		assertEquals(Cell.State.EMPTY, game.getCell(2, 0).getState());
+	}
+	
+	@Test
+	public void testRevealCascadeOnSparseBoard() throws IllegalAccessException {
+		Game game = new Game(300, 200, 0, true);
+		game.flag(150, 0);
+		game.reveal(0, 0);
+		
+		assertEquals(Cell.State.EMPTY, game.getCell(299, 199).getState());
+		assertEquals(Cell.State.FLAGGED, game.getCell(150, 0).getState());
+		assertEquals(Game.GameState.IN_PROGRESS, game.getState());
+	}
+	
+	@Test
+	public void testEnormousBoardIsSparse() throws IllegalAccessException {
+		Game game = new Game(1_000_000, 1_000_000, 1000);
+		
+		assertTrue(game.isSparse());
+		
+		game.flag(999_999, 999_999);
+		
+		assertEquals(Cell.State.FLAGGED, game.getCell(999_999, 999_999).getState());
+		assertEquals(Cell.State.UNKNOWN, game.getCell(500_000, 500_000).getState());
+	}
+	
+	@Test
+	public void testSparseBoardWithTooManyMines() {
+		try {
+			new Game(1_000_000, 1_000_000, LongHashSet.MAX_SIZE + 1, true, 1, true);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Sparse boards can't have more than " + LongHashSet.MAX_SIZE + " mines", e.getMessage());
+		}
+	}
+	
 	@Test
 	public void testRevealMinedCell() throws IllegalAccessException {
 		Game game = new Game(10, 10, 100);
@@ -276,4 +547,348 @@ public class GameTest {
 		assertEquals(3, game.getCell(9, 9).getAdjacentMines());
 		assertEquals(8, game.getCell(1, 1).getAdjacentMines());
 	}
+	
+	@Test
+	public void testBoardView() throws IllegalAccessException {
+		Game game = new Game(10, 10, 100);
+		BoardView board = game.getBoard();
+		
+		assertEquals(10, board.getRowCount());
+		assertEquals(10, board.getColCount());
+		assertEquals(Cell.State.UNKNOWN, board.getState(0, 0));
+		assertEquals(-1, board.getAdjacentMines(0, 0));
+		
+		// the view reflects moves made after it was created
+		game.flag(0, 0);
+		
+		assertEquals(Cell.State.FLAGGED, board.getState(0, 0));
+	}
+	
+	@Test
+	public void testRegionView() throws IllegalAccessException {
+		Game game = new Game(10, 10, 100);
+		BoardView region = game.getBoard(2, 3, 4, 5);
+		
+		assertEquals(4, region.getRowCount());
+		assertEquals(5, region.getColCount());
+		
+		// coordinates are relative to the top left cell of the region
+		game.flag(3, 5);
+		
+		assertEquals(Cell.State.FLAGGED, region.getState(1, 2));
+		assertEquals(Cell.State.UNKNOWN, region.getState(0, 0));
+	}
+	
+	@Test
+	public void testRegionIsClippedToTheBoard() {
+		BoardView region = new Game(10, 20, 30).getBoard(8, 15, 10, 10);
+		
+		assertEquals(2, region.getRowCount());
+		assertEquals(5, region.getColCount());
+	}
+	
+	@Test
+	public void testRegionOutsideTheBoardValidation() {
+		Game game = new Game(10, 10, 10);
+		
+		try {
+			game.getBoard(10, 0, 1, 1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Cell coordinates (10, 0) outside existing board", e.getMessage());
+		}
+		
+		try {
+			game.getBoard(0, 0, 0, 1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Region must have at least one row and one column", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testMovesIncreaseVersion() throws IllegalAccessException {
+		Game game = new Game(10, 10, 10);
+		
+		assertEquals(0, game.getVersion());
+		
+		game.flag(0, 0);
+		game.clear(0, 0);
+		
+		assertEquals(2, game.getVersion());
+	}
+	
+	@Test
+	public void testChangesOfLastMove() throws IllegalAccessException {
+		Game game = new Game(2, 3, 0);
+		game.flag(0, 0);
+		
+		assertEquals(1, game.getChangeCount());
+		assertEquals(0, game.getChangedRow(0));
+		assertEquals(0, game.getChangedCol(0));
+		
+		game.reveal(1, 2);
+		
+		// every cell but the flagged one is revealed
+		assertEquals(5, game.getChangeCount());
+		
+		for (int changeIndex = 0; changeIndex < 5; changeIndex++) {
+			assertEquals(Cell.State.EMPTY, game.getCell(game.getChangedRow(changeIndex), game.getChangedCol(changeIndex)).getState());
+		}
+	}
+	
+	@Test
+	public void testMoveWithoutChanges() throws IllegalAccessException {
+		Game game = new Game(2, 3, 0);
+		game.flag(0, 0);
+		game.flag(0, 0);
+		
+		assertEquals(0, game.getChangeCount());
+	}
+	
+	@Test
+	public void testChord() throws IllegalAccessException {
+		Game game = newGameWithCornerMine();
+		game.flag(0, 0);
+		game.chord(1, 1);
+		
+		assertEquals(2, game.getChangeCount());
+		assertEquals(Cell.State.EMPTY, game.getCellState(0, 1));
+		assertEquals(Cell.State.EMPTY, game.getCellState(1, 0));
+		assertEquals(GameState.WON, game.getState());
+	}
+	
+	@Test
+	public void testChordWithMarkedNeighbour() throws IllegalAccessException {
+		Game game = newGameWithCornerMine();
+		game.flag(0, 0);
+		game.mark(0, 1);
+		game.chord(1, 1);
+		
+		assertEquals(2, game.getChangeCount());
+		assertEquals(Cell.State.EMPTY, game.getCellState(0, 1));
+		assertEquals(Cell.State.EMPTY, game.getCellState(1, 0));
+		assertEquals(GameState.WON, game.getState());
+	}
+	
+	@Test
+	public void testChordWithoutEnoughFlags() throws IllegalAccessException {
+		Game game = newGameWithCornerMine();
+		long version = game.getVersion();
+		game.chord(1, 1);
+		
+		assertEquals(version, game.getVersion());
+		assertEquals(Cell.State.UNKNOWN, game.getCellState(0, 1));
+		assertEquals(GameState.IN_PROGRESS, game.getState());
+	}
+	
+	@Test
+	public void testChordOnUnrevealedCell() throws IllegalAccessException {
+		Game game = newGameWithCornerMine();
+		game.flag(0, 0);
+		long version = game.getVersion();
+		game.chord(0, 1);
+		
+		assertEquals(version, game.getVersion());
+		assertEquals(Cell.State.UNKNOWN, game.getCellState(1, 0));
+	}
+	
+	@Test
+	public void testChordWithWrongFlag() throws IllegalAccessException {
+		Game game = newGameWithCornerMine();
+		game.flag(0, 1);
+		game.chord(1, 1);
+		
+		assertEquals(Cell.State.MINED, game.getCellState(0, 0));
+		assertEquals(GameState.LOST, game.getState());
+	}
+	
+	@Test
+	public void testSnapshot() throws IllegalAccessException, IOException {
+		Game game = new Game(30, 40, 600, false, 77);
+		revealFirstSafeCell(game);
+		game.flag(29, 39);
+		game.mark(29, 38);
+		
+		Game restoredGame = restore(game);
+		
+		assertEquals(game.getId(), restoredGame.getId());
+		assertEquals(game.getCreationDate(), restoredGame.getCreationDate());
+		assertEquals(game.getVersion(), restoredGame.getVersion());
+		assertSameBoard(game, restoredGame);
+		
+		// the restored game goes on exactly as the original one
+		revealFirstSafeCell(game);
+		revealFirstSafeCell(restoredGame);
+		
+		assertEquals(game.getVersion(), restoredGame.getVersion());
+		assertSameBoard(game, restoredGame);
+	}
+	
+	@Test
+	public void testSnapshotOfGameWithDeferredMines() throws IllegalAccessException, IOException {
+		Game game = new Game(30, 40, 100, false, 77, true);
+		game.flag(0, 0);
+		
+		Game restoredGame = restore(game);
+		
+		assertEquals(Cell.State.FLAGGED, restoredGame.getCellState(0, 0));
+		
+		game.reveal(15, 20);
+		restoredGame.reveal(15, 20);
+		
+		assertSameBoard(game, restoredGame);
+		
+		// mines are placed around the first reveal on the restored game too
+		Game otherRestoredGame = restore(game);
+		
+		assertSameBoard(game, otherRestoredGame);
+	}
+	
+	@Test
+	public void testLostGameIsCompacted() throws IllegalAccessException, IOException {
+		Game game = new Game(30, 40, 300, false, 77);
+		revealFirstSafeCell(game);
+		game.flag(29, 39);
+		game.mark(29, 38);
+		
+		Game otherGame = restore(game);
+		int[] minedCell = findMinedCell(game);
+		
+		game.reveal(minedCell[0], minedCell[1]);
+		
+		assertEquals(GameState.LOST, game.getState());
+		assertTrue(game.isCompacted());
+		
+		// nothing changed but the mine revealed
+		assertEquals(Cell.State.MINED, game.getCellState(minedCell[0], minedCell[1]));
+		
+		for (int row = 0; row < game.getRowCount(); row++) {
+			for (int col = 0; col < game.getColCount(); col++) {
+				Cell cell = game.getCell(row, col);
+				Cell otherCell = otherGame.getCell(row, col);
+				
+				assertEquals(otherGame.isMined(row, col), game.isMined(row, col));
+				assertEquals(otherCell.getAdjacentMines(), cell.getAdjacentMines());
+				
+				if (row != minedCell[0] || col != minedCell[1]) {
+					assertEquals(otherCell.getState(), cell.getState());
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testWonGameIsCompacted() throws IllegalAccessException, IOException {
+		Game game = new Game(9, 9, 10, false, 5);
+		
+		while (GameState.IN_PROGRESS == game.getState()) {
+			revealFirstSafeCell(game);
+		}
+		
+		assertEquals(GameState.WON, game.getState());
+		assertTrue(game.isCompacted());
+		
+		try {
+			game.flag(0, 0);
+			fail();
+		} catch (IllegalAccessException e) {
+			assertEquals("Game is no longer in progress", e.getMessage());
+		}
+		
+		// a restored finished game serves the same board
+		assertSameBoard(game, restore(game));
+	}
+	
+	@Test
+	public void testGameLostByChordIsCompacted() throws IllegalAccessException {
+		Game game = newGameWithCornerMine();
+		game.flag(0, 1);
+		game.chord(1, 1);
+		
+		assertEquals(GameState.LOST, game.getState());
+		assertTrue(game.isCompacted());
+		assertEquals(Cell.State.MINED, game.getCellState(0, 0));
+		assertEquals(1, game.getRevealedAdjacentMines(1, 1));
+	}
+	
+	/**
+	 * Writes a game to a snapshot and restores it
+	 */
+	private static Game restore(Game game) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		game.writeSnapshot(new DataOutputStream(bytes));
+		
+		ByteBuffer snapshot = ByteBuffer.wrap(bytes.toByteArray());
+		Game restoredGame = Game.readSnapshot(snapshot);
+		
+		assertEquals(0, snapshot.remaining());
+		
+		return restoredGame;
+	}
+	
+	/**
+	 * Reveals the first cell without a mine that isn't revealed yet
+	 */
+	private static void revealFirstSafeCell(Game game) throws IllegalAccessException {
+		for (int row = 0; row < game.getRowCount(); row++) {
+			for (int col = 0; col < game.getColCount(); col++) {
+				if (!game.isMined(row, col) && Cell.State.UNKNOWN == game.getCellState(row, col)) {
+					game.reveal(row, col);
+					return;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns the row and column of the first cell with a mine
+	 */
+	private static int[] findMinedCell(Game game) {
+		for (int row = 0; row < game.getRowCount(); row++) {
+			for (int col = 0; col < game.getColCount(); col++) {
+				if (game.isMined(row, col)) {
+					return new int[] { row, col };
+				}
+			}
+		}
+		
+		throw new IllegalStateException("Game has no mines");
+	}
+	
+	/**
+	 * Asserts that two games are in the same state, with the same mines
+	 */
+	private static void assertSameBoard(Game game, Game otherGame) {
+		assertEquals(game.getState(), otherGame.getState());
+		
+		for (int row = 0; row < game.getRowCount(); row++) {
+			for (int col = 0; col < game.getColCount(); col++) {
+				assertEquals(game.isMined(row, col), otherGame.isMined(row, col));
+				assertEquals(game.getCellState(row, col), otherGame.getCellState(row, col));
+				assertEquals(game.getRevealedAdjacentMines(row, col), otherGame.getRevealedAdjacentMines(row, col));
+			}
+		}
+	}
+	
+	/**
+	 * Creates a 3x3 game with a mine on its top left corner where every cell is revealed but the mine and its
+	 * neighbours on the first row and column
+	 */
+	private static Game newGameWithCornerMine() throws IllegalAccessException {
+		Board board = new ChunkedBoard(3, 3);
+		board.set(0, 0, Board.pack(Cell.State.UNKNOWN, true, 0));
+		board.set(0, 1, Board.pack(Cell.State.UNKNOWN, false, 1));
+		board.set(1, 0, Board.pack(Cell.State.UNKNOWN, false, 1));
+		board.set(1, 1, Board.pack(Cell.State.UNKNOWN, false, 1));
+		
+		Game game = new Game(3, 3, 1, 0, board);
+		game.mark(0, 1);
+		game.mark(1, 0);
+		game.reveal(2, 2);
+		game.clear(0, 1);
+		game.clear(1, 0);
+		
+		return game;
+	}
 }
@@ -0,0 +1,63 @@
+package ar.com.rbo.minesweeper.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for {@link LongHashSet}
+ */
+public class LongHashSetTest {
+	
+	@Rule 
+	public ExpectedException exception = ExpectedException.none();
+	
+	@Test
+	public void testAddAndContains() {
+		LongHashSet set = new LongHashSet(0);
+		
+		assertTrue(set.add(0));
+		assertTrue(set.add(1L << 40));
+		assertFalse(set.add(0));
+		
+		assertEquals(2, set.size());
+		assertTrue(set.contains(0));
+		assertTrue(set.contains(1L << 40));
+		assertFalse(set.contains(1));
+	}
+	
+	@Test
+	public void testGrowth() {
+		LongHashSet set = new LongHashSet(1);
+		
+		for (long value = 0; value < 100000; value++) {
+			set.add(value * 3);
+		}
+		
+		assertEquals(100000, set.size());
+		
+		for (long value = 0; value < 300000; value++) {
+			assertEquals(value % 3 == 0, set.contains(value));
+		}
+	}
+	
+	@Test
+	public void testNegativeValue() {
+		exception.expect(IllegalArgumentException.class);
+		exception.expectMessage("Value -1 is negative");
+		
+		new LongHashSet(1).add(-1);
+	}
+	
+	@Test
+	public void testTooManyExpectedValues() {
+		exception.expect(IllegalArgumentException.class);
+		exception.expectMessage("Set can't hold more than " + LongHashSet.MAX_SIZE + " values");
+		
+		new LongHashSet(LongHashSet.MAX_SIZE + 1);
+	}
+}
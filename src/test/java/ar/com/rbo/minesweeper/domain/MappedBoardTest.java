@@ -0,0 +1,98 @@
+package ar.com.rbo.minesweeper.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ar.com.rbo.minesweeper.domain.Cell.State;
+
+/**
+ * Tests for {@link MappedBoard}
+ */
+public class MappedBoardTest {
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void testBoardCreation() {
+		Board board = new MappedBoard(3, 4, folder.getRoot().toPath());
+		
+		assertEquals(3, board.getRowCount());
+		assertEquals(4, board.getColCount());
+		assertEquals(State.UNKNOWN, board.getState(2, 3));
+		assertFalse(board.isMined(2, 3));
+		assertEquals(0, board.getAdjacentMines(2, 3));
+	}
+	
+	@Test
+	public void testBoardAcrossSeveralShards() {
+		// shards of two chunks, so the six chunks of the board take three of them
+		Board board = new MappedBoard(100, 150, folder.getRoot().toPath(), 13);
+		
+		for (int row = 0; row < 100; row++) {
+			for (int col = 0; col < 150; col++) {
+				board.set(row, col, Board.pack(State.UNKNOWN, (row + col) % 7 == 0, (row * col) % 9));
+			}
+		}
+		
+		for (int row = 0; row < 100; row++) {
+			for (int col = 0; col < 150; col++) {
+				assertEquals((row + col) % 7 == 0, board.isMined(row, col));
+				assertEquals((row * col) % 9, board.getAdjacentMines(row, col));
+			}
+		}
+	}
+	
+	@Test
+	public void testBoardOverTwoGigabytes() {
+		// 2.5G cells, in three shards
+		Board board = new MappedBoard(50_000, 50_000, folder.getRoot().toPath());
+		
+		board.setState(0, 0, State.FLAGGED);
+		board.set(49_999, 49_999, Board.pack(State.MARKED, true, 3));
+		
+		assertEquals(State.FLAGGED, board.getState(0, 0));
+		assertEquals(State.MARKED, board.getState(49_999, 49_999));
+		assertTrue(board.isMined(49_999, 49_999));
+		assertEquals(3, board.getAdjacentMines(49_999, 49_999));
+		assertEquals(State.UNKNOWN, board.getState(30_000, 20_000));
+		
+		board.release();
+	}
+	
+	@Test
+	public void testChunkVersions() {
+		Board board = new MappedBoard(100, 200, folder.getRoot().toPath());
+		long version = board.getChunkVersion(0, 0);
+		long otherVersion = board.getChunkVersion(99, 199);
+		
+		board.setState(10, 10, State.FLAGGED);
+		
+		assertNotEquals(version, board.getChunkVersion(63, 63));
+		assertEquals(otherVersion, board.getChunkVersion(99, 199));
+	}
+	
+	@Test
+	public void testReleaseDeletesFile() throws IOException {
+		Board board = new MappedBoard(100, 200, folder.getRoot().toPath());
+		board.setState(10, 10, State.FLAGGED);
+		
+		board.release();
+		board.release();
+		
+		try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+			assertEquals(0, files.count());
+		}
+	}
+}
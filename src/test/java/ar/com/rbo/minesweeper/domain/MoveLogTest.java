@@ -0,0 +1,293 @@
+package ar.com.rbo.minesweeper.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link MoveLog}
+ */
+public class MoveLogTest {
+	
+	/**
+	 * Size of a move record: its type, the id of its game, the game's version, the type of move, its cell and its
+	 * checksum
+	 */
+	private static final int MOVE_SIZE = 1 + 2 * Long.BYTES + Long.BYTES + 1 + 2 * Integer.BYTES + Integer.BYTES;
+	
+	@Rule
+	public ExpectedException exception = ExpectedException.none();
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void testReplay() throws IOException, IllegalAccessException {
+		Path path = folder.getRoot().toPath().resolve("games.log");
+		Game game = new Game(9, 9, 10, false, 42, true);
+		
+		try (MoveLog log = new MoveLog(path)) {
+			log.replay(new RecordingReplayer());
+			
+			log.appendCreation(game, true);
+			
+			Move move = new Move.Flag(1, 2);
+			move.apply(game);
+			log.awaitDurable(log.appendMove(game, move));
+		}
+		
+		RecordingReplayer replayer = new RecordingReplayer();
+		
+		try (MoveLog log = new MoveLog(path)) {
+			log.replay(replayer);
+		}
+		
+		assertEquals(Arrays.asList(
+				"created " + game.getId() + " " + game.getCreationDate().getTime() + " 9x9x10 false 42",
+				"moved " + game.getId() + " 1 Flag 1,2"), replayer.records);
+		assertEquals(game.getCreationDate(), replayer.games.get(0).getCreationDate());
+	}
+	
+	@Test
+	public void testEveryTypeOfMoveIsReplayed() throws IOException {
+		Path path = folder.getRoot().toPath().resolve("games.log");
+		Game game = new Game(9, 9, 10);
+		
+		try (MoveLog log = new MoveLog(path)) {
+			log.replay(new RecordingReplayer());
+			log.appendMove(game, new Move.Reveal(1, 2));
+			log.appendMove(game, new Move.Flag(3, 4));
+			log.appendMove(game, new Move.Mark(5, 6));
+			log.appendMove(game, new Move.Clear(7, 8));
+			log.awaitDurable(log.appendMove(game, new Move.Chord(0, 1)));
+		}
+		
+		assertEquals(Arrays.asList(
+				"moved " + game.getId() + " 0 Reveal 1,2",
+				"moved " + game.getId() + " 0 Flag 3,4",
+				"moved " + game.getId() + " 0 Mark 5,6",
+				"moved " + game.getId() + " 0 Clear 7,8",
+				"moved " + game.getId() + " 0 Chord 0,1"), replay(path));
+	}
+	
+	@Test
+	public void testAppendAfterReplay() throws IOException {
+		Path path = folder.getRoot().toPath().resolve("games.log");
+		Game game = new Game(9, 9, 10);
+		Game otherGame = new Game(9, 9, 10);
+		
+		try (MoveLog log = new MoveLog(path)) {
+			log.replay(new RecordingReplayer());
+			log.awaitDurable(log.appendMove(game, new Move.Flag(0, 0)));
+		}
+		
+		try (MoveLog log = new MoveLog(path)) {
+			log.replay(new RecordingReplayer());
+			log.awaitDurable(log.appendMove(otherGame, new Move.Flag(0, 0)));
+		}
+		
+		assertEquals(Arrays.asList("moved " + game.getId() + " 0 Flag 0,0", "moved " + otherGame.getId() + " 0 Flag 0,0"), replay(path));
+	}
+	
+	@Test
+	public void testTornRecordIsDropped() throws IOException {
+		Path path = folder.getRoot().toPath().resolve("games.log");
+		Game game = new Game(9, 9, 10);
+		
+		try (MoveLog log = new MoveLog(path)) {
+			log.replay(new RecordingReplayer());
+			log.appendMove(game, new Move.Flag(0, 0));
+			log.awaitDurable(log.appendMove(game, new Move.Mark(1, 1)));
+		}
+		
+		long size = Files.size(path);
+		
+		// a crash in the middle of writing the last record
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+			channel.truncate(size - 5);
+		}
+		
+		assertEquals(Collections.singletonList("moved " + game.getId() + " 0 Flag 0,0"), replay(path));
+		
+		// the torn record is gone from the file, so records appended afterwards are replayed too
+		assertEquals(size - MOVE_SIZE, Files.size(path));
+		
+		try (MoveLog log = new MoveLog(path)) {
+			log.replay(new RecordingReplayer());
+			log.awaitDurable(log.appendMove(game, new Move.Clear(2, 2)));
+		}
+		
+		assertEquals(Arrays.asList("moved " + game.getId() + " 0 Flag 0,0", "moved " + game.getId() + " 0 Clear 2,2"), replay(path));
+	}
+	
+	@Test
+	public void testCorruptedRecordIsDropped() throws IOException {
+		Path path = folder.getRoot().toPath().resolve("games.log");
+		Game game = new Game(9, 9, 10);
+		
+		try (MoveLog log = new MoveLog(path)) {
+			log.replay(new RecordingReplayer());
+			log.appendMove(game, new Move.Flag(0, 0));
+			log.appendMove(game, new Move.Flag(1, 1));
+			log.awaitDurable(log.appendMove(game, new Move.Flag(2, 2)));
+		}
+		
+		// a byte of the second record's game id is damaged, so neither it nor the following one can be trusted
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[] { 7 }), 5 + MOVE_SIZE + 3);
+		}
+		
+		assertEquals(Collections.singletonList("moved " + game.getId() + " 0 Flag 0,0"), replay(path));
+	}
+	
+	@Test
+	public void testSnapshotDropsPreviousRecords() throws IOException, IllegalAccessException {
+		Path path = folder.getRoot().toPath().resolve("games.log");
+		Game game = new Game(9, 9, 10, false, 42);
+		Game otherGame = new Game(9, 9, 10, false, 43);
+		Move move = new Move.Flag(1, 2);
+		
+		try (MoveLog log = new MoveLog(path)) {
+			log.replay(new RecordingReplayer());
+			log.appendCreation(game, false);
+			log.appendCreation(otherGame, false);
+			
+			move.apply(game);
+			log.appendMove(game, move);
+			
+			log.snapshot(Arrays.asList(game, otherGame), gameToLock -> new ReentrantLock(), copiedGame -> {});
+			
+			move = new Move.Mark(3, 4);
+			move.apply(game);
+			log.awaitDurable(log.appendMove(game, move));
+		}
+		
+		assertTrue(Files.exists(folder.getRoot().toPath().resolve("games.log.snapshot")));
+		assertTrue(Files.notExists(folder.getRoot().toPath().resolve("games.log.previous")));
+		
+		RecordingReplayer replayer = new RecordingReplayer();
+		
+		try (MoveLog log = new MoveLog(path)) {
+			log.replay(replayer);
+		}
+		
+		// games come from the snapshot, and only the records appended after it are replayed
+		assertEquals(Arrays.asList(
+				"created " + game.getId() + " " + game.getCreationDate().getTime() + " 9x9x10 false 42",
+				"created " + otherGame.getId() + " " + otherGame.getCreationDate().getTime() + " 9x9x10 false 43",
+				"moved " + game.getId() + " 2 Mark 3,4"), replayer.records);
+		assertEquals(1, replayer.games.get(0).getVersion());
+		assertEquals(Cell.State.FLAGGED, replayer.games.get(0).getCellState(1, 2));
+	}
+	
+	@Test
+	public void testRecordsOfPreviousSegmentAreReplayed() throws IOException {
+		Path path = folder.getRoot().toPath().resolve("games.log");
+		Game game = new Game(9, 9, 10);
+		Game otherGame = new Game(9, 9, 10);
+		
+		try (MoveLog log = new MoveLog(path)) {
+			log.replay(new RecordingReplayer());
+			log.awaitDurable(log.appendMove(game, new Move.Flag(0, 0)));
+		}
+		
+		// as if a snapshot failed after the log moved on to a new segment
+		Files.move(path, folder.getRoot().toPath().resolve("games.log.previous"));
+		
+		try (MoveLog log = new MoveLog(path)) {
+			log.replay(new RecordingReplayer());
+			log.awaitDurable(log.appendMove(otherGame, new Move.Flag(0, 0)));
+		}
+		
+		assertEquals(Arrays.asList("moved " + game.getId() + " 0 Flag 0,0", "moved " + otherGame.getId() + " 0 Flag 0,0"), replay(path));
+		
+		try (MoveLog log = new MoveLog(path)) {
+			log.replay(new RecordingReplayer());
+			log.snapshot(Arrays.asList(), gameToLock -> new ReentrantLock(), copiedGame -> {});
+		}
+		
+		assertTrue(Files.notExists(folder.getRoot().toPath().resolve("games.log.previous")));
+		assertEquals(Arrays.asList("moved " + otherGame.getId() + " 0 Flag 0,0"), replay(path));
+	}
+	
+	@Test
+	public void testAppendBeforeReplay() throws IOException {
+		exception.expect(IllegalStateException.class);
+		exception.expectMessage("Move log is not replayed yet");
+		
+		try (MoveLog log = new MoveLog(folder.getRoot().toPath().resolve("games.log"))) {
+			log.appendMove(new Game(9, 9, 10), new Move.Flag(0, 0));
+		}
+	}
+	
+	@Test
+	public void testFileThatIsNotMoveLog() throws IOException {
+		Path path = folder.newFile("games.txt").toPath();
+		Files.write(path, "minesweeper".getBytes());
+		
+		exception.expect(IOException.class);
+		exception.expectMessage(path + " is not a move log");
+		
+		new MoveLog(path);
+	}
+	
+	@Test
+	public void testDisabledLog() throws IOException {
+		MoveLog.DISABLED.replay(new RecordingReplayer());
+		MoveLog.DISABLED.awaitDurable(MoveLog.DISABLED.appendMove(new Game(9, 9, 10), new Move.Flag(0, 0)));
+		MoveLog.DISABLED.close();
+	}
+	
+	/**
+	 * Replays a log and returns its records
+	 */
+	private static List<String> replay(Path path) throws IOException {
+		RecordingReplayer replayer = new RecordingReplayer();
+		
+		try (MoveLog log = new MoveLog(path)) {
+			log.replay(replayer);
+		}
+		
+		return replayer.records;
+	}
+	
+	/**
+	 * Replayer that describes every record it receives
+	 */
+	private static class RecordingReplayer implements MoveLog.Replayer {
+		
+		private final List<String> records = new ArrayList<>();
+		
+		private final List<Game> games = new ArrayList<>();
+		
+		@Override
+		public void gameCreated(Game game) {
+			records.add("created " + game.getId() + " " + game.getCreationDate().getTime() + " " + game.getRowCount() + "x"
+					+ game.getColCount() + "x" + game.getMineCount() + " " + game.isSparse() + " " + game.getSeed());
+			games.add(game);
+		}
+		
+		@Override
+		public void moveMade(UUID gameId, long version, Move move) {
+			records.add("moved " + gameId + " " + version + " " + move.getClass().getSimpleName() + " " + move.getRow() + ","
+					+ move.getCol());
+		}
+	}
+}
@@ -69,4 +69,16 @@ public class MoveTest {
 		
 		verify(gameMock).clear(10, 15);
 	}
+
+	@Test
+	public void testChordMove() throws IllegalAccessException {
+		Move move = new Move.Chord(10, 15);
+		
+		assertEquals(10, move.getRow());
+		assertEquals(15, move.getCol());
+		
+		move.apply(gameMock);
+		
+		verify(gameMock).chord(10, 15);
+	}
 }
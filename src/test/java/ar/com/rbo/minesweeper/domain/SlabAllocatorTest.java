@@ -0,0 +1,102 @@
+package ar.com.rbo.minesweeper.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for {@link SlabAllocator}
+ */
+public class SlabAllocatorTest {
+	
+	@Rule
+	public ExpectedException exception = ExpectedException.none();
+	
+	@Test
+	public void testBlockSizes() {
+		SlabAllocator slabs = new SlabAllocator(4096);
+		
+		assertEquals(64, slabs.allocate(1).capacity());
+		assertEquals(64, slabs.allocate(64).capacity());
+		assertEquals(128, slabs.allocate(65).capacity());
+		assertEquals(4096, slabs.allocate(3000).capacity());
+		
+		assertEquals(64 + 64 + 128 + 4096, slabs.getUsedBytes());
+	}
+	
+	@Test
+	public void testBlocksDoNotOverlap() {
+		SlabAllocator slabs = new SlabAllocator(4096);
+		ByteBuffer[] blocks = new ByteBuffer[48];
+		
+		for (int blockIndex = 0; blockIndex < blocks.length; blockIndex++) {
+			blocks[blockIndex] = slabs.allocate(blockIndex % 3 == 0 ? 1000 : 100);
+			
+			for (int position = 0; position < blocks[blockIndex].capacity(); position++) {
+				blocks[blockIndex].put(position, (byte) blockIndex);
+			}
+		}
+		
+		for (int blockIndex = 0; blockIndex < blocks.length; blockIndex++) {
+			for (int position = 0; position < blocks[blockIndex].capacity(); position++) {
+				assertEquals(blockIndex, blocks[blockIndex].get(position));
+			}
+		}
+	}
+	
+	@Test
+	public void testFreedBlocksAreReusedEmpty() {
+		SlabAllocator slabs = new SlabAllocator(4096);
+		ByteBuffer block = slabs.allocate(100);
+		block.put(5, (byte) 1);
+		
+		slabs.free(block);
+		
+		assertEquals(0, slabs.getUsedBytes());
+		
+		ByteBuffer reusedBlock = slabs.allocate(128);
+		
+		assertSame(block, reusedBlock);
+		assertEquals(0, reusedBlock.get(5));
+		assertEquals(4096, slabs.getReservedBytes());
+	}
+	
+	@Test
+	public void testRemainderOfSlabIsReused() {
+		SlabAllocator slabs = new SlabAllocator(4096);
+		slabs.allocate(1024);
+		slabs.allocate(2048);
+		
+		// doesn't fit in what is left of the first slab, which becomes a free block
+		slabs.allocate(2048);
+		slabs.allocate(1000);
+		slabs.allocate(2048);
+		
+		assertEquals(8192, slabs.getReservedBytes());
+		
+		slabs.allocate(64);
+		
+		assertEquals(12288, slabs.getReservedBytes());
+	}
+	
+	@Test
+	public void testBlockBiggerThanSlab() {
+		exception.expect(IllegalArgumentException.class);
+		exception.expectMessage("Blocks can't have more than 4096 bytes");
+		
+		new SlabAllocator(4096).allocate(4097);
+	}
+	
+	@Test
+	public void testSlabSizeNotPowerOfTwo() {
+		exception.expect(IllegalArgumentException.class);
+		exception.expectMessage("Slab size must be a power of two of at least 64 bytes");
+		
+		new SlabAllocator(5000);
+	}
+}
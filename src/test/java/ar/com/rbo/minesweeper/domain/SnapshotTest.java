@@ -0,0 +1,98 @@
+package ar.com.rbo.minesweeper.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link Snapshot}
+ */
+public class SnapshotTest {
+	
+	@Rule
+	public ExpectedException exception = ExpectedException.none();
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void testSnapshot() throws IOException, IllegalAccessException {
+		Path path = folder.getRoot().toPath().resolve("games.log.snapshot");
+		Game game = new Game(9, 9, 10, false, 1);
+		Game otherGame = new Game(16, 30, 99, false, 2, true);
+		Game deletedGame = new Game(9, 9, 10);
+		
+		game.flag(4, 4);
+		otherGame.mark(0, 0);
+		deletedGame.release();
+		
+		List<Game> doneGames = new ArrayList<>();
+		
+		assertEquals(2, Snapshot.write(path, Arrays.asList(game, deletedGame, otherGame), gameToLock -> new ReentrantLock(), doneGames::add));
+		assertEquals(Arrays.asList(game, deletedGame, otherGame), doneGames);
+		assertTrue(Files.notExists(folder.getRoot().toPath().resolve("games.log.snapshot.tmp")));
+		
+		List<Game> restoredGames = new ArrayList<>();
+		Snapshot.read(path, restoredGames::add);
+		
+		assertEquals(2, restoredGames.size());
+		assertEquals(game.getId(), restoredGames.get(0).getId());
+		assertEquals(Cell.State.FLAGGED, restoredGames.get(0).getCellState(4, 4));
+		assertEquals(otherGame.getId(), restoredGames.get(1).getId());
+		assertEquals(Cell.State.MARKED, restoredGames.get(1).getCellState(0, 0));
+	}
+	
+	@Test
+	public void testMissingSnapshot() throws IOException {
+		List<Game> restoredGames = new ArrayList<>();
+		Snapshot.read(folder.getRoot().toPath().resolve("games.log.snapshot"), restoredGames::add);
+		
+		assertTrue(restoredGames.isEmpty());
+	}
+	
+	@Test
+	public void testCorruptedSnapshot() throws IOException {
+		Path path = folder.getRoot().toPath().resolve("games.log.snapshot");
+		Snapshot.write(path, Arrays.asList(new Game(9, 9, 10), new Game(9, 9, 10)), gameToLock -> new ReentrantLock(), copiedGame -> {});
+		
+		// a byte of the first game's creation date is damaged
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[] { 7 }), 5 + 4 + 20);
+		}
+		
+		exception.expect(IOException.class);
+		exception.expectMessage("Snapshot " + path + " is corrupted");
+		
+		Snapshot.read(path, game -> { });
+	}
+	
+	@Test
+	public void testTruncatedSnapshot() throws IOException {
+		Path path = folder.getRoot().toPath().resolve("games.log.snapshot");
+		Snapshot.write(path, Arrays.asList(new Game(9, 9, 10)), gameToLock -> new ReentrantLock(), copiedGame -> {});
+		
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 20);
+		}
+		
+		exception.expect(IOException.class);
+		exception.expectMessage("Snapshot " + path + " is truncated");
+		
+		Snapshot.read(path, game -> { });
+	}
+}
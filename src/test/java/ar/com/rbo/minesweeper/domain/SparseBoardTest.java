@@ -0,0 +1,85 @@
+package ar.com.rbo.minesweeper.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import ar.com.rbo.minesweeper.domain.Cell.State;
+
+/**
+ * Tests for {@link SparseBoard}
+ */
+public class SparseBoardTest {
+	
+	@Test
+	public void testCellsAreComputedFromMines() {
+		LongHashSet mines = new LongHashSet(2);
+		mines.add(0);
+		mines.add(1L * 1_000_000 + 1);
+		
+		SparseBoard board = new SparseBoard(1_000_000, 1_000_000, mines);
+		
+		assertTrue(board.isMined(0, 0));
+		assertTrue(board.isMined(1, 1));
+		assertFalse(board.isMined(1, 0));
+		assertEquals(State.UNKNOWN, board.getState(1, 0));
+		assertEquals(2, board.getAdjacentMines(1, 0));
+		assertEquals(1, board.getAdjacentMines(0, 0));
+		assertEquals(0, board.getAdjacentMines(999_999, 999_999));
+		
+		// nothing is allocated until a cell changes
+		assertEquals(0, board.getChunkCount());
+	}
+	
+	@Test
+	public void testChunksAreAllocatedOnDemand() {
+		LongHashSet mines = new LongHashSet(1);
+		mines.add(64L * 1_000_000 + 64);
+		
+		SparseBoard board = new SparseBoard(1_000_000, 1_000_000, mines);
+		
+		board.setState(63, 63, State.FLAGGED);
+		board.setState(0, 0, State.EMPTY);
+		
+		assertEquals(1, board.getChunkCount());
+		assertEquals(State.FLAGGED, board.getState(63, 63));
+		assertEquals(1, board.getAdjacentMines(63, 63));
+		
+		board.setState(64, 64, State.MARKED);
+		board.setState(999_999, 999_999, State.EMPTY);
+		
+		assertEquals(3, board.getChunkCount());
+		assertEquals(2, board.getChunkChangeCount(0, 0));
+		assertEquals(0, board.getChunkChangeCount(500_000, 500_000));
+		assertEquals(State.MARKED, board.getState(64, 64));
+		assertTrue(board.isMined(64, 64));
+		assertEquals(State.EMPTY, board.getState(999_999, 999_999));
+		assertEquals(State.FLAGGED, board.getState(63, 63));
+	}
+	
+	@Test
+	public void testStatesOfChangedChunksAreWritten() throws IOException {
+		SparseBoard board = new SparseBoard(1_000_000, 1_000_000, new LongHashSet(0));
+		board.setState(0, 0, State.FLAGGED);
+		board.setState(0, 1, State.FLAGGED);
+		board.setState(999_999, 999_999, State.EMPTY);
+		
+		ByteBuffer runs = BoardTest.writeStates(board);
+		
+		assertEquals(2 * (Integer.BYTES + Long.BYTES + 1) + Integer.BYTES, runs.remaining());
+		
+		SparseBoard otherBoard = new SparseBoard(1_000_000, 1_000_000, new LongHashSet(0));
+		otherBoard.readStates(runs);
+		
+		assertEquals(2, otherBoard.getChunkCount());
+		assertEquals(State.FLAGGED, otherBoard.getState(0, 0));
+		assertEquals(State.FLAGGED, otherBoard.getState(0, 1));
+		assertEquals(State.UNKNOWN, otherBoard.getState(0, 2));
+		assertEquals(State.EMPTY, otherBoard.getState(999_999, 999_999));
+	}
+}
@@ -0,0 +1,80 @@
+package ar.com.rbo.minesweeper.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import ar.com.rbo.minesweeper.domain.Cell.State;
+
+/**
+ * Tests for {@link ZeroRegionIndex}
+ */
+public class ZeroRegionIndexTest {
+	
+	@Test
+	public void testRegionLabeling() {
+		// a diagonal of mines splits the board in two regions (diagonal neighbours aren't connected)
+		Board board = new ChunkedBoard(4, 4);
+		for (int cell = 0; cell < 4; cell++) {
+			board.set(cell, 3 - cell, Board.pack(State.UNKNOWN, true, 0));
+		}
+		
+		ZeroRegionIndex index = new ZeroRegionIndex(board);
+		
+		assertEquals(2, index.getRegionCount());
+		assertEquals(-1, index.getRegion(0, 3));
+		assertEquals(index.getRegion(0, 0), index.getRegion(2, 0));
+		assertEquals(index.getRegion(1, 3), index.getRegion(3, 1));
+		assertNotEquals(index.getRegion(0, 0), index.getRegion(3, 3));
+		assertEquals(6, index.getCellCount(index.getRegion(0, 0)));
+		assertEquals(6, index.getCellCount(index.getRegion(3, 3)));
+	}
+	
+	@Test
+	public void testRegionCells() {
+		// a U shaped region whose arms are only joined at the bottom
+		Board board = new ChunkedBoard(3, 3);
+		board.set(0, 1, Board.pack(State.UNKNOWN, true, 0));
+		board.set(1, 1, Board.pack(State.UNKNOWN, true, 0));
+		
+		ZeroRegionIndex index = new ZeroRegionIndex(board);
+		int region = index.getRegion(0, 2);
+		
+		assertEquals(1, index.getRegionCount());
+		assertEquals(7, index.getCellCount(region));
+		
+		for (int cellIndex = 0; cellIndex < index.getCellCount(region); cellIndex++) {
+			assertEquals(region, index.getRegion(index.getRow(region, cellIndex), index.getCol(region, cellIndex)));
+		}
+	}
+	
+	@Test
+	public void testTouchedRegions() {
+		Board board = new ChunkedBoard(3, 3);
+		board.set(1, 1, Board.pack(State.UNKNOWN, true, 0));
+		board.set(1, 0, Board.pack(State.UNKNOWN, true, 0));
+		board.set(1, 2, Board.pack(State.UNKNOWN, true, 0));
+		
+		ZeroRegionIndex index = new ZeroRegionIndex(board);
+		int region = index.getRegion(0, 0);
+		
+		assertTrue(index.isUntouched(region));
+		
+		index.stateChanged(0, 1, State.UNKNOWN, State.FLAGGED);
+		index.stateChanged(1, 1, State.UNKNOWN, State.FLAGGED);
+		assertFalse(index.isUntouched(region));
+		assertTrue(index.isUntouched(index.getRegion(2, 0)));
+		
+		index.stateChanged(0, 1, State.FLAGGED, State.MARKED);
+		assertFalse(index.isUntouched(region));
+		
+		index.stateChanged(0, 1, State.MARKED, State.UNKNOWN);
+		assertTrue(index.isUntouched(region));
+		
+		index.regionRevealed(region);
+		assertFalse(index.isUntouched(region));
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ * Tests for the web client (src/main/resources/static/js/minesweeper.js), run with "node src/test/js/minesweeper.test.js"
+ */
+var assert = require('assert');
+var fs = require('fs');
+var path = require('path');
+var vm = require('vm');
+
+/**
+ * Loads the client in a sandbox without a browser, where requests are recorded rather than made
+ */
+function loadClient() {
+	var sandbox = {
+		requests: [],
+		alerts: [],
+		setInterval: function() {},
+		alert: function(message) {
+			sandbox.alerts.push(message);
+		}
+	};
+	
+	sandbox.XMLHttpRequest = function() {
+		this.open = function(method, url) {
+			sandbox.requests.push(method + ' ' + url);
+		};
+		this.setRequestHeader = function() {};
+		this.send = function() {};
+	};
+	
+	vm.createContext(sandbox);
+	vm.runInContext(fs.readFileSync(path.join(__dirname, '../../main/resources/static/js/minesweeper.js'), 'utf8'), sandbox);
+	vm.runInContext('this.MINESWEEPER = MINESWEEPER', sandbox);
+	
+	var client = sandbox.MINESWEEPER;
+	
+	// a game in progress whose viewport shows the first tile, which is loaded
+	client.gameId = 'game';
+	client.version = 1;
+	client.state = 'IN_PROGRESS';
+	client.viewportRow = 0;
+	client.viewportCol = 0;
+	client.buttons = [[{}, {}], [{}, {}]];
+	client.tiles = {
+		'0_0': {
+			row: 0,
+			col: 0,
+			board: [[{ state: 'UNKNOWN' }, { state: 'UNKNOWN' }], [{ state: 'UNKNOWN' }, { state: 'UNKNOWN' }]]
+		}
+	};
+	
+	return sandbox;
+}
+
+var tests = {
+	
+	testDeltaIsApplied: function() {
+		var sandbox = loadClient();
+		var client = sandbox.MINESWEEPER;
+		
+		client.applyDelta({ baseVersion: 1, version: 2, state: 'IN_PROGRESS', cells: [{ row: 1, col: 0, state: 'FLAGGED' }] });
+		
+		assert.strictEqual(client.version, 2);
+		assert.strictEqual(client.tiles['0_0'].board[1][0].state, 'FLAGGED');
+		assert.strictEqual(client.buttons[1][0].innerHTML, '!');
+		assert.deepStrictEqual(sandbox.requests, []);
+	},
+	
+	testDeltaWithoutCellsReloadsTiles: function() {
+		var sandbox = loadClient();
+		var client = sandbox.MINESWEEPER;
+		
+		client.applyDelta({ baseVersion: 1, version: 2, state: 'WON', cells: null });
+		
+		assert.strictEqual(client.version, 2);
+		assert.strictEqual(client.state, 'WON');
+		assert.deepStrictEqual(sandbox.requests, ['GET games/game/region?row=0&col=0&rowCount=16&colCount=16']);
+		assert.strictEqual(client.buttons[0][0].innerHTML, '&hellip;');
+	}
+};
+
+var failures = 0;
+
+for (var name in tests) {
+	try {
+		tests[name]();
+		console.log('ok ' + name);
+	} catch (e) {
+		failures++;
+		console.log('FAILED ' + name + ': ' + e.message);
+	}
+}
+
+process.exit(failures > 0 ? 1 : 0);